@@ -17,11 +17,11 @@
 package org.springframework.cloud.contract.stubrunner;
 
 import java.io.File;
-import java.net.URI;
 import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -49,7 +49,6 @@ import org.springframework.util.StringUtils;
 
 import static org.springframework.cloud.contract.stubrunner.AetherFactories.newSession;
 import static org.springframework.cloud.contract.stubrunner.AetherFactories.settings;
-import static org.springframework.cloud.contract.stubrunner.util.ZipCategory.unzipTo;
 
 /**
  * @author Mariusz Smykula
@@ -59,8 +58,6 @@ public class AetherStubDownloader implements StubDownloader {
 
 	private static final Log log = LogFactory.getLog(AetherStubDownloader.class);
 
-	private static final String TEMP_DIR_PREFIX = "contracts";
-
 	private static final String ARTIFACT_EXTENSION = "jar";
 
 	private static final String LATEST_ARTIFACT_VERSION = "(,]";
@@ -85,6 +82,10 @@ public class AetherStubDownloader implements StubDownloader {
 
 	private final Settings settings;
 
+	private final StubJarUnpacker unpacker;
+
+	private final StubVersionCache versionCache;
+
 	public AetherStubDownloader(StubRunnerOptions stubRunnerOptions) {
 		this.deleteStubsAfterTest = stubRunnerOptions.isDeleteStubsAfterTest();
 		if (log.isDebugEnabled()) {
@@ -111,6 +112,10 @@ public class AetherStubDownloader implements StubDownloader {
 		this.repositorySystem = AetherFactories.repositorySystemOr(repositorySystemFromMaven);
 		this.workOffline = stubRunnerOptions.stubsMode == StubRunnerProperties.StubsMode.LOCAL;
 		this.session = newSession(this.repositorySystem, this.workOffline);
+		this.unpacker = StubJarUnpacker.fromOptions(stubRunnerOptions);
+		// resolving the local repository reads the Maven settings
+		this.versionCache = StubVersionCache.fromOptions(stubRunnerOptions,
+				() -> AetherFactories.localRepositoryDirectory(true));
 		registerShutdownHook();
 	}
 
@@ -131,17 +136,11 @@ public class AetherStubDownloader implements StubDownloader {
 			log.error("Remote repositories for stubs are not specified and work offline flag wasn't passed");
 		}
 		this.workOffline = false;
+		this.unpacker = new StubJarUnpacker(null, null);
+		this.versionCache = null;
 		registerShutdownHook();
 	}
 
-	private static File unpackStubJarToATemporaryFolder(URI stubJarUri) {
-		File tmpDirWhereStubsWillBeUnzipped = TemporaryFileStorage.createTempDir(TEMP_DIR_PREFIX);
-		log.info("Unpacking stub from JAR [URI: " + stubJarUri + "]");
-		unzipTo(new File(stubJarUri), tmpDirWhereStubsWillBeUnzipped);
-		TemporaryFileStorage.add(tmpDirWhereStubsWillBeUnzipped);
-		return tmpDirWhereStubsWillBeUnzipped;
-	}
-
 	private boolean remoteReposMissing() {
 		return this.remoteRepos == null || this.remoteRepos.isEmpty();
 	}
@@ -207,9 +206,7 @@ public class AetherStubDownloader implements StubDownloader {
 			}
 			ArtifactResult result = this.repositorySystem.resolveArtifact(this.session, request);
 			log.info("Resolved artifact [" + artifact + "] to " + result.getArtifact().getFile());
-			File temporaryFile = unpackStubJarToATemporaryFolder(result.getArtifact().getFile().toURI());
-			log.info("Unpacked file to [" + temporaryFile + "]");
-			return temporaryFile;
+			return this.unpacker.unpack(result.getArtifact().getFile());
 		}
 		catch (IllegalStateException ise) {
 			throw ise;
@@ -225,11 +222,40 @@ public class AetherStubDownloader implements StubDownloader {
 	private String getVersion(String stubsGroup, String stubsModule, String version, String classifier) {
 		if (!StringUtils.hasText(version) || LATEST_VERSION_IN_IVY.equals(version)) {
 			log.info("Desired version is [" + version + "] - will try to resolve the latest version");
-			return resolveHighestArtifactVersion(stubsGroup, stubsModule, classifier, LATEST_ARTIFACT_VERSION);
+			return cachedHighestArtifactVersion(stubsGroup, stubsModule, classifier, LATEST_ARTIFACT_VERSION);
+		}
+		if (isVersionRange(version)) {
+			return cachedHighestArtifactVersion(stubsGroup, stubsModule, classifier, version);
 		}
 		return resolveHighestArtifactVersion(stubsGroup, stubsModule, classifier, version);
 	}
 
+	private boolean isVersionRange(String version) {
+		return version.startsWith("[") || version.startsWith("(");
+	}
+
+	private String cachedHighestArtifactVersion(String stubsGroup, String stubsModule, String classifier,
+			String version) {
+		if (this.versionCache == null) {
+			return resolveHighestArtifactVersion(stubsGroup, stubsModule, classifier, version);
+		}
+		// the same range can resolve to different versions in different repositories, and
+		// when working offline only the local repository is checked
+		String repositories = remoteReposMissing() ? ""
+				: this.remoteRepos.stream().map(RemoteRepository::getUrl).collect(Collectors.joining(","));
+		String key = stubsGroup + ":" + stubsModule + ":" + classifier + ":" + version + "@" + repositories
+				+ (this.workOffline ? "@offline" : "");
+		String cachedVersion = this.versionCache.get(key);
+		if (cachedVersion != null) {
+			log.info("Version [" + version + "] of [" + stubsGroup + ":" + stubsModule
+					+ "] resolved from the version cache to [" + cachedVersion + "]");
+			return cachedVersion;
+		}
+		String resolvedVersion = resolveHighestArtifactVersion(stubsGroup, stubsModule, classifier, version);
+		this.versionCache.put(key, resolvedVersion);
+		return resolvedVersion;
+	}
+
 	@Override
 	public Map.Entry<StubConfiguration, File> downloadAndUnpackStubJar(StubConfiguration stubConfiguration) {
 		try {
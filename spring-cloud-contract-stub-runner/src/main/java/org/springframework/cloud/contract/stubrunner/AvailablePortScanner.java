@@ -17,14 +17,32 @@
 package org.springframework.cloud.contract.stubrunner;
 
 import java.io.IOException;
+import java.net.BindException;
 import java.net.ServerSocket;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 /**
  * Tries to execute a closure with an available port from the given range.
+ *
+ * A port that was found to be free may be taken by another process before the closure
+ * binds to it. To avoid that, ports are leased by locking a single byte, at the offset of
+ * the port number, of a lock file in the temporary directory. JVMs sharing the temporary
+ * directory (e.g. parallel test forks) skip the leased ports instead of racing for them.
+ * The lease is released once the closure has bound to the port.
  */
 class AvailablePortScanner {
 
@@ -32,6 +50,21 @@ class AvailablePortScanner {
 
 	private static final int MAX_RETRY_COUNT = 1000;
 
+	static final Path LEASE_FILE = Paths.get(System.getProperty("java.io.tmpdir"),
+			"spring-cloud-contract-ports.lock");
+
+	// stubs may be started concurrently, a port that was found to be free is reserved
+	// until the callback has bound to it
+	private static final Set<Integer> PORTS_IN_USE = ConcurrentHashMap.newKeySet();
+
+	// ports reserved for servers that are not started yet, with their leases (if any)
+	private static final Map<Integer, FileLock> RESERVATIONS = Collections.synchronizedMap(new HashMap<>());
+
+	// closing the channel would release all leases, it stays open for the whole JVM
+	private static FileChannel leases;
+
+	private static boolean leasesUnavailable;
+
 	private final int minPortNumber;
 
 	private final int maxPortNumber;
@@ -56,22 +89,159 @@ class AvailablePortScanner {
 	}
 
 	public <T> T tryToExecuteWithFreePort(PortCallback<T> closure) {
+		return scan(closure, false);
+	}
+
+	/**
+	 * Finds a free port and keeps it reserved, in this JVM and in the lease file, until
+	 * {@link #releaseReservation(int)} gets called. Used for servers that get started
+	 * after their port was published.
+	 * @return the reserved port
+	 */
+	int reserveFreePort() {
+		return scan(port -> port, true);
+	}
+
+	/**
+	 * Reserves the given port, e.g. one that a stopped server should get back once it's
+	 * started again. The port is only leased if no other process leased it.
+	 * @param port port to reserve
+	 */
+	void reservePort(int port) {
+		if (!PORTS_IN_USE.add(port)) {
+			return;
+		}
+		FileChannel channel = leases();
+		FileLock lease = null;
+		try {
+			lease = channel != null ? lease(channel, port) : null;
+		}
+		catch (IOException ex) {
+			if (log.isDebugEnabled()) {
+				log.debug("Failed to lease port [" + port + "]", ex);
+			}
+		}
+		RESERVATIONS.put(port, lease);
+	}
+
+	/**
+	 * Releases the reservation done by {@link #reserveFreePort()} or
+	 * {@link #reservePort(int)}.
+	 * @param port reserved port
+	 */
+	void releaseReservation(int port) {
+		if (RESERVATIONS.containsKey(port)) {
+			release(RESERVATIONS.remove(port));
+			PORTS_IN_USE.remove(port);
+		}
+	}
+
+	private <T> T scan(PortCallback<T> closure, boolean keepReserved) {
 		for (int i = 0; i < this.maxRetryCount; i++) {
 			try {
 				int numberOfPortsToBind = this.maxPortNumber - this.minPortNumber + 1;
 				int portToScan = new Random().nextInt(numberOfPortsToBind) + this.minPortNumber;
-				checkIfPortIsAvailable(portToScan);
-				return executeLogicForAvailablePort(portToScan, closure);
+				if (!PORTS_IN_USE.add(portToScan)) {
+					continue;
+				}
+				FileChannel channel = leases();
+				FileLock lease = null;
+				boolean reserved = false;
+				try {
+					if (channel != null) {
+						lease = lease(channel, portToScan);
+						if (lease == null) {
+							continue;
+						}
+					}
+					checkIfPortIsAvailable(portToScan);
+					T result = executeLogicForAvailablePort(portToScan, closure);
+					if (keepReserved) {
+						RESERVATIONS.put(portToScan, lease);
+						reserved = true;
+					}
+					return result;
+				}
+				finally {
+					if (!reserved) {
+						release(lease);
+						PORTS_IN_USE.remove(portToScan);
+					}
+				}
 			}
 			catch (IOException exception) {
 				if (log.isDebugEnabled()) {
 					log.debug("Failed to execute callback (try: " + i + "/" + this.maxRetryCount + ")", exception);
 				}
 			}
+			catch (RuntimeException exception) {
+				// servers wrap the exception thrown when the port is already bound
+				if (!causedByBindException(exception)) {
+					throw exception;
+				}
+				if (log.isDebugEnabled()) {
+					log.debug("Port is already in use (try: " + i + "/" + this.maxRetryCount + ")", exception);
+				}
+			}
 		}
 		throw new NoPortAvailableException(this.minPortNumber, this.maxPortNumber);
 	}
 
+	/**
+	 * @return the lease or {@code null} if the port is leased by another process
+	 */
+	private FileLock lease(FileChannel channel, int port) throws IOException {
+		try {
+			FileLock lock = channel.tryLock(port, 1, false);
+			if (lock == null && log.isDebugEnabled()) {
+				log.debug("Port [" + port + "] is leased by another process");
+			}
+			return lock;
+		}
+		catch (OverlappingFileLockException ex) {
+			// leased through another channel of this JVM
+			return null;
+		}
+	}
+
+	private void release(FileLock lease) {
+		if (lease == null) {
+			return;
+		}
+		try {
+			lease.release();
+		}
+		catch (IOException ex) {
+			if (log.isDebugEnabled()) {
+				log.debug("Failed to release the lease of port [" + lease.position() + "]", ex);
+			}
+		}
+	}
+
+	private static synchronized FileChannel leases() {
+		if (leases == null && !leasesUnavailable) {
+			try {
+				leases = FileChannel.open(LEASE_FILE, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+			}
+			catch (IOException | UnsupportedOperationException ex) {
+				log.warn("Failed to open [" + LEASE_FILE + "], ports will not be leased across processes", ex);
+				leasesUnavailable = true;
+			}
+		}
+		return leases;
+	}
+
+	private boolean causedByBindException(Throwable throwable) {
+		Throwable cause = throwable;
+		while (cause != null) {
+			if (cause instanceof BindException) {
+				return true;
+			}
+			cause = cause.getCause();
+		}
+		return false;
+	}
+
 	private <T> T executeLogicForAvailablePort(int portToScan, PortCallback<T> closure) throws IOException {
 		if (log.isDebugEnabled()) {
 			log.debug("Trying to execute closure with port [" + portToScan + "]");
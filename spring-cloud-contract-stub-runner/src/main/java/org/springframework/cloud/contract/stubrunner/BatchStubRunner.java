@@ -18,13 +18,25 @@ package org.springframework.cloud.contract.stubrunner;
 
 import java.io.IOException;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 
 import org.springframework.cloud.contract.spec.Contract;
+import org.springframework.util.StringUtils;
 
 /**
  * Manages lifecycle of multiple {@link StubRunner} instances.
@@ -34,22 +46,132 @@ import org.springframework.cloud.contract.spec.Contract;
  */
 public class BatchStubRunner implements StubRunning {
 
+	private static final Log log = LogFactory.getLog(BatchStubRunner.class);
+
+	/**
+	 * Number of threads used to start the stub servers. The stub servers are started one
+	 * after another by default.
+	 */
+	static final String START_THREADS_PROPERTY = "stubs.start-threads";
+
+	private static final int DEFAULT_START_THREADS = 1;
+
 	private final Iterable<StubRunner> stubRunners;
 
+	private volatile boolean started;
+
 	public BatchStubRunner(Iterable<StubRunner> stubRunners) {
 		this.stubRunners = stubRunners;
 	}
 
+	/**
+	 * Starts the stub servers. The first call can start them concurrently, depending on
+	 * the {@code stubs.start-threads} property, and waits until all of them are ready.
+	 * Failures of all stubs are then collected and rethrown together, once the stubs that
+	 * did start got stopped. Subsequent calls return the already running stubs.
+	 * @return the running stubs
+	 */
 	@Override
 	public RunningStubs runStubs() {
+		List<StubRunner> runners = new ArrayList<>();
+		this.stubRunners.forEach(runners::add);
+		int poolSize = this.started ? 1 : Math.min(startThreads(runners), runners.size());
+		List<RunningStubs> running = poolSize <= 1 ? runSequentially(runners) : runConcurrently(runners, poolSize);
+		this.started = true;
 		Map<StubConfiguration, Integer> map = new LinkedHashMap<>();
-		for (StubRunner value : this.stubRunners) {
-			RunningStubs runningStubs = value.runStubs();
+		for (RunningStubs runningStubs : running) {
 			map.putAll(runningStubs.validNamesAndPorts());
 		}
 		return new RunningStubs(map);
 	}
 
+	private List<RunningStubs> runSequentially(List<StubRunner> runners) {
+		List<RunningStubs> running = new ArrayList<>();
+		for (StubRunner runner : runners) {
+			running.add(runner.runStubs());
+		}
+		return running;
+	}
+
+	private List<RunningStubs> runConcurrently(List<StubRunner> runners, int poolSize) {
+		if (log.isDebugEnabled()) {
+			log.debug("Will start [" + runners.size() + "] stubs using [" + poolSize + "] threads");
+		}
+		ExecutorService executorService = Executors.newFixedThreadPool(poolSize, new StubStartThreadFactory());
+		try {
+			List<Future<RunningStubs>> futures = new ArrayList<>();
+			for (StubRunner runner : runners) {
+				futures.add(executorService.submit(runner::runStubs));
+			}
+			List<RunningStubs> running = new ArrayList<>();
+			List<StubRunner> started = new ArrayList<>();
+			List<Throwable> failures = new ArrayList<>();
+			try {
+				for (int i = 0; i < futures.size(); i++) {
+					try {
+						running.add(futures.get(i).get());
+						started.add(runners.get(i));
+					}
+					catch (ExecutionException ex) {
+						failures.add(ex.getCause());
+					}
+				}
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				stop(started);
+				throw new IllegalStateException("Interrupted while starting stubs", ex);
+			}
+			if (!failures.isEmpty()) {
+				stop(started);
+			}
+			throwIfFailed(failures);
+			return running;
+		}
+		finally {
+			executorService.shutdownNow();
+		}
+	}
+
+	// the started stubs would keep their ports bound, while the failed batch can't be
+	// used
+	private void stop(List<StubRunner> started) {
+		for (StubRunner runner : started) {
+			try {
+				runner.close();
+			}
+			catch (IOException | RuntimeException ex) {
+				log.warn("Failed to stop the started stubs", ex);
+			}
+		}
+	}
+
+	private void throwIfFailed(List<Throwable> failures) {
+		if (failures.isEmpty()) {
+			return;
+		}
+		if (failures.size() == 1 && failures.get(0) instanceof RuntimeException) {
+			throw (RuntimeException) failures.get(0);
+		}
+		IllegalStateException exception = new IllegalStateException(
+				"Failed to start [" + failures.size() + "] stubs, see the suppressed exceptions for details");
+		failures.forEach(exception::addSuppressed);
+		throw exception;
+	}
+
+	private int startThreads(List<StubRunner> runners) {
+		if (runners.isEmpty()) {
+			return 1;
+		}
+		StubRunnerOptions options = runners.get(0).getStubRunnerOptions();
+		String threads = StubRunnerPropertyUtils.getProperty(options != null ? options.getProperties() : null,
+				START_THREADS_PROPERTY);
+		if (!StringUtils.hasText(threads)) {
+			return DEFAULT_START_THREADS;
+		}
+		return Integer.parseInt(threads.trim());
+	}
+
 	@Override
 	public URL findStubUrl(String groupId, String artifactId) {
 		for (StubRunner stubRunner : this.stubRunners) {
@@ -168,6 +290,18 @@ public class BatchStubRunner implements StubRunning {
 		return map;
 	}
 
+	/**
+	 * Drops the requests recorded by the running stub servers and the state of their
+	 * scenarios, keeping them running with the same mappings. Cheaper than stopping the
+	 * stubs and starting them again when the next test runs the same stubs.
+	 * @since 5.0.4
+	 */
+	public void reset() {
+		for (StubRunner stubRunner : this.stubRunners) {
+			stubRunner.reset();
+		}
+	}
+
 	@Override
 	public void close() throws IOException {
 		for (StubRunner stubRunner : this.stubRunners) {
@@ -175,4 +309,24 @@ public class BatchStubRunner implements StubRunning {
 		}
 	}
 
+	/**
+	 * Stub servers resolve their extensions through the context class loader, so the
+	 * worker threads get the one of the thread that created the batch stub runner.
+	 */
+	private static final class StubStartThreadFactory implements ThreadFactory {
+
+		private final AtomicInteger counter = new AtomicInteger();
+
+		private final ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "stub-start-" + this.counter.incrementAndGet());
+			thread.setDaemon(true);
+			thread.setContextClassLoader(this.classLoader);
+			return thread;
+		}
+
+	}
+
 }
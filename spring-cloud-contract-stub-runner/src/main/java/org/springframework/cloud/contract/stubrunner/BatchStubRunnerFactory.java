@@ -59,6 +59,9 @@ public class BatchStubRunnerFactory {
 	}
 
 	public BatchStubRunner buildBatchStubRunner() {
+		if (SharedStubRunner.isEnabled(this.stubRunnerOptions)) {
+			return SharedStubRunner.attach(this.stubRunnerOptions);
+		}
 		StubRunnerFactory stubRunnerFactory = new StubRunnerFactory(this.stubRunnerOptions, this.stubDownloader,
 				this.contractVerifierMessaging);
 		return new BatchStubRunner(stubRunnerFactory.createStubsFromServiceConfiguration());
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2013-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.contract.stubrunner;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.cloud.contract.verifier.converter.StubIndex;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.UrlResource;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Entries of all {@link StubIndex stub indexes} on the classpath. The indexes are read
+ * once per class loader, in a single pass over the classpath.
+ *
+ * @author Marcin Grzejszczak
+ * @since 5.0.4
+ */
+final class ClasspathStubIndex {
+
+	private static final Log log = LogFactory.getLog(ClasspathStubIndex.class);
+
+	/**
+	 * Set to {@code true} to resolve the stubs from the stub indexes. Stub files that are
+	 * not indexed (e.g. stubs of jars built without an index) are not found then.
+	 */
+	static final String ENABLED_PROPERTY = "stubs.classpath-index.enabled";
+
+	private static final List<String> STUB_FOLDERS = List.of("META-INF/", "contracts/", "mappings/");
+
+	private static final Map<ClassLoader, ClasspathStubIndex> INDEXES = new WeakHashMap<>();
+
+	private final List<IndexedEntry> entries;
+
+	ClasspathStubIndex(List<IndexedEntry> entries) {
+		this.entries = entries;
+	}
+
+	static boolean isEnabled(StubRunnerOptions options) {
+		return Boolean.parseBoolean(StubRunnerPropertyUtils.getProperty(options.getProperties(), ENABLED_PROPERTY));
+	}
+
+	/**
+	 * @return index of the default class loader
+	 */
+	static ClasspathStubIndex get() {
+		ClassLoader classLoader = ClassUtils.getDefaultClassLoader();
+		synchronized (INDEXES) {
+			return INDEXES.computeIfAbsent(classLoader, ClasspathStubIndex::read);
+		}
+	}
+
+	private static ClasspathStubIndex read(ClassLoader classLoader) {
+		List<IndexedEntry> entries = new ArrayList<>();
+		try {
+			Enumeration<URL> indexes = classLoader.getResources(StubIndex.LOCATION);
+			while (indexes.hasMoreElements()) {
+				URL index = indexes.nextElement();
+				String url = index.toString();
+				String base = url.substring(0, url.length() - StubIndex.LOCATION.length());
+				try (InputStream stream = index.openStream()) {
+					for (String entry : StubIndex.read(stream)) {
+						entries.add(new IndexedEntry(base, entry));
+					}
+				}
+			}
+		}
+		catch (IOException ex) {
+			log.warn("Failed to read the stub indexes, the classpath will be scanned for stubs", ex);
+			return new ClasspathStubIndex(Collections.emptyList());
+		}
+		if (log.isDebugEnabled()) {
+			log.debug("Found [" + entries.size() + "] indexed stub files on the classpath");
+		}
+		return new ClasspathStubIndex(entries);
+	}
+
+	/**
+	 * Finds the files of the stubs with the given group and artifact id. Same as the
+	 * classpath patterns, the files have to be below a {@code META-INF},
+	 * {@code contracts} or {@code mappings} folder and a {@code groupId/artifactId}
+	 * folder.
+	 * @param configuration stub configuration
+	 * @return indexed files of the stub
+	 */
+	List<Resource> resources(StubConfiguration configuration) {
+		String ga = "/" + configuration.getGroupId() + "/" + configuration.getArtifactId() + "/";
+		List<Resource> resources = new ArrayList<>();
+		for (IndexedEntry entry : this.entries) {
+			if (entry.belongsTo(ga)) {
+				try {
+					resources.add(new UrlResource(entry.base + entry.path));
+				}
+				catch (MalformedURLException ex) {
+					throw new IllegalStateException(ex);
+				}
+			}
+		}
+		return resources;
+	}
+
+	/**
+	 * Returns the directory with the stubs if all the files of the stub are stored in a
+	 * single folder of the file system (e.g. in the output folder of a module), so that
+	 * they can be read in place.
+	 * @param configuration stub configuration
+	 * @return directory with the stubs or {@code null} if the stubs are in a jar or in
+	 * more than one folder
+	 */
+	File directory(StubConfiguration configuration) {
+		String ga = "/" + configuration.getGroupId() + "/" + configuration.getArtifactId() + "/";
+		File directory = null;
+		for (IndexedEntry entry : this.entries) {
+			if (!entry.belongsTo(ga)) {
+				continue;
+			}
+			String path = "/" + entry.path;
+			if (!entry.base.startsWith("file:")) {
+				return null;
+			}
+			File stubRoot;
+			try {
+				stubRoot = new File(new URL(entry.base + path.substring(1, path.indexOf(ga) + ga.length())).toURI());
+			}
+			catch (Exception ex) {
+				return null;
+			}
+			if (directory != null && !directory.equals(stubRoot)) {
+				return null;
+			}
+			directory = stubRoot;
+		}
+		return directory != null && directory.isDirectory() ? directory : null;
+	}
+
+	static final class IndexedEntry {
+
+		private final String base;
+
+		private final String path;
+
+		IndexedEntry(String base, String path) {
+			this.base = base;
+			this.path = path;
+		}
+
+		private boolean belongsTo(String groupAndArtifactPath) {
+			return STUB_FOLDERS.stream().anyMatch(this.path::startsWith)
+					&& ("/" + this.path).contains(groupAndArtifactPath);
+		}
+
+	}
+
+}
@@ -49,6 +49,9 @@ import org.springframework.util.StringUtils;
  * <li>{@code mappings/com.example/artifactid/ ** /*.* }</li>
  * </ul>
  *
+ * Stubs listed in a {@link org.springframework.cloud.contract.verifier.converter.StubIndex}
+ * are resolved from the index without scanning the classpath.
+ *
  * @author Marcin Grzejszczak
  * @since 1.1.1
  */
@@ -62,17 +65,21 @@ public class ClasspathStubProvider implements StubDownloaderBuilder {
 			return null;
 		}
 		log.info("Will download stubs from classpath");
-		return new ResourceResolvingStubDownloader(stubRunnerOptions, this::repoRoot, this::gavPattern);
+		// stub indexes describe the default locations only
+		ClasspathStubIndex index = ClasspathStubIndex.isEnabled(stubRunnerOptions)
+				&& !hasCustomRepositoryRoot(stubRunnerOptions) ? ClasspathStubIndex.get() : null;
+		return new ResourceResolvingStubDownloader(stubRunnerOptions, this::repoRoot, this::gavPattern, index);
 	}
 
-	private RepoRoots repoRoot(StubRunnerOptions stubRunnerOptions, StubConfiguration configuration) {
+	private boolean hasCustomRepositoryRoot(StubRunnerOptions stubRunnerOptions) {
 		Resource repositoryRoot = stubRunnerOptions.getStubRepositoryRoot();
-		if (repositoryRoot instanceof ClassPathResource) {
-			ClassPathResource classPathResource = (ClassPathResource) repositoryRoot;
-			String path = classPathResource.getPath();
-			if (StringUtils.hasText(path)) {
-				return RepoRoots.asList(new RepoRoot(stubRunnerOptions.getStubRepositoryRootAsString()));
-			}
+		return repositoryRoot instanceof ClassPathResource
+				&& StringUtils.hasText(((ClassPathResource) repositoryRoot).getPath());
+	}
+
+	private RepoRoots repoRoot(StubRunnerOptions stubRunnerOptions, StubConfiguration configuration) {
+		if (hasCustomRepositoryRoot(stubRunnerOptions)) {
+			return RepoRoots.asList(new RepoRoot(stubRunnerOptions.getStubRepositoryRootAsString()));
 		}
 		String path = "/**/" + configuration.getGroupId() + "/" + configuration.getArtifactId();
 		return RepoRoots.asList(new RepoRoot("classpath*:/META-INF" + path, "/**/*.*"),
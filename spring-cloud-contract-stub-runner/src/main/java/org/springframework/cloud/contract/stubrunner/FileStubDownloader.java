@@ -20,6 +20,7 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
+import java.util.AbstractMap;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -150,6 +151,14 @@ class StubsStubDownloader implements StubDownloader {
 		boolean shouldFindProducer = shouldFindProducer();
 		if (!shouldFindProducer) {
 			String schemeSpecific = schemeSpecificPart();
+			File directory = directoryToReload();
+			if (directory != null) {
+				log.info("Stubs are present under [" + schemeSpecific
+						+ "]. Will read them in place to reload them when they change.");
+				return new AbstractMap.SimpleEntry<>(new StubConfiguration(stubConfiguration.getGroupId(),
+						stubConfiguration.getArtifactId(), stubConfiguration.getVersion(),
+						stubConfiguration.getClassifier()), directory);
+			}
 			log.info("Stubs are present under [" + schemeSpecific + "]. Will copy them to a temporary directory.");
 			return new ResourceResolvingStubDownloader(stubRunnerOptions, this::repoRootForSchemeSpecificPart,
 					this::anyPattern)
@@ -159,6 +168,27 @@ class StubsStubDownloader implements StubDownloader {
 			.downloadAndUnpackStubJar(stubConfiguration);
 	}
 
+	/**
+	 * Stubs copied to a temporary directory can't be reloaded, with hot reload turned on
+	 * the stubs of a local directory are read in place instead. Generated stubs are
+	 * written to the stubs directory, so it must not be the original one.
+	 * @return the directory to read the stubs from or {@code null} if they should be
+	 * copied
+	 */
+	private File directoryToReload() {
+		if (!StubRepositoryWatcher.isEnabled(this.stubRunnerOptions) || this.stubRunnerOptions.isGenerateStubs()) {
+			return null;
+		}
+		Resource resource = ResourceResolver.resource(schemeSpecificPart());
+		try {
+			File file = resource != null && resource.isFile() ? resource.getFile() : null;
+			return file != null && file.isDirectory() ? file : null;
+		}
+		catch (IOException ex) {
+			return null;
+		}
+	}
+
 	private RepoRoots repoRootForSchemeSpecificPart(StubRunnerOptions stubRunnerOptions,
 			StubConfiguration configuration) {
 		String specificPart = schemeSpecificPart();
@@ -66,6 +66,19 @@ public interface HttpServerStub {
 		return this;
 	}
 
+	/**
+	 * Drops the requests recorded by the server and the state of its scenarios, keeping
+	 * the registered mappings. By default resets the server and registers the stub files
+	 * again. Should return itself to allow chaining.
+	 * @param stubFiles the registered stub files
+	 * @return this
+	 * @since 5.0.4
+	 */
+	default HttpServerStub resetState(Collection<File> stubFiles) {
+		reset();
+		return registerMappingsInBatch(stubFiles);
+	}
+
 	/**
 	 * Registers the stub files in the HTTP server stub. Should return itself to allow
 	 * chaining.
@@ -74,6 +87,44 @@ public interface HttpServerStub {
 	 */
 	HttpServerStub registerMappings(Collection<File> stubFiles);
 
+	/**
+	 * Registers all the stub files in the HTTP server stub in a single operation. Servers
+	 * running in the same JVM should read all the mappings first and add them directly
+	 * to the server, instead of going through its remote API once per mapping. By
+	 * default delegates to {@link #registerMappings(Collection)}. Should return itself to
+	 * allow chaining.
+	 * @param stubFiles collection of files containing stubs
+	 * @return this
+	 * @since 5.0.4
+	 */
+	default HttpServerStub registerMappingsInBatch(Collection<File> stubFiles) {
+		return registerMappings(stubFiles);
+	}
+
+	/**
+	 * Applies changes of the stub files to the running server. Mappings of the changed
+	 * files are replaced and the ones of removed files dropped. By default resets the
+	 * server and registers all the stub files again. Should return itself to allow
+	 * chaining.
+	 * @param stubFiles all the stub files after the change
+	 * @param changedFiles stub files that were added, modified or removed
+	 * @return this
+	 * @since 5.0.4
+	 */
+	default HttpServerStub reloadMappings(Collection<File> stubFiles, Collection<File> changedFiles) {
+		reset();
+		return registerMappingsInBatch(stubFiles);
+	}
+
+	/**
+	 * @return number of requests served so far or {@code -1} if not known. Used to
+	 * detect idle servers, any change of the value counts as activity.
+	 * @since 5.0.4
+	 */
+	default long requestCount() {
+		return -1;
+	}
+
 	/**
 	 * @return a collection of registered mappings.
 	 */
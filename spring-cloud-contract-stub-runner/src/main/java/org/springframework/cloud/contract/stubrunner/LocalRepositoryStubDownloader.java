@@ -0,0 +1,184 @@
+/*
+ * Copyright 2013-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.contract.stubrunner;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.eclipse.aether.util.version.GenericVersionScheme;
+import org.eclipse.aether.version.InvalidVersionSpecificationException;
+import org.eclipse.aether.version.Version;
+import org.eclipse.aether.version.VersionConstraint;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+import org.springframework.util.StringUtils;
+
+/**
+ * Resolves stubs from the local Maven repository by computing the repository paths
+ * directly. Dynamic versions are resolved from the {@code maven-metadata-*.xml} files of
+ * the artifact. Neither the Aether repository system nor the Maven settings get
+ * initialized. If a stub can't be found, {@code null} is returned so that the next
+ * downloader can try to resolve it.
+ *
+ * @author Marcin Grzejszczak
+ * @since 5.0.4
+ */
+class LocalRepositoryStubDownloader implements StubDownloader {
+
+	private static final Log log = LogFactory.getLog(LocalRepositoryStubDownloader.class);
+
+	private static final String ARTIFACT_EXTENSION = "jar";
+
+	private static final String LATEST_ARTIFACT_VERSION = "(,]";
+
+	private static final String LATEST_VERSION_IN_IVY = "+";
+
+	private static final String METADATA_PREFIX = "maven-metadata";
+
+	// Preloading class for the shutdown hook not to throw ClassNotFound
+	private static final Class CLAZZ = TemporaryFileStorage.class;
+
+	private static final GenericVersionScheme VERSION_SCHEME = new GenericVersionScheme();
+
+	private final File localRepository;
+
+	private final boolean deleteStubsAfterTest;
+
+	private final StubJarUnpacker unpacker;
+
+	LocalRepositoryStubDownloader(StubRunnerOptions stubRunnerOptions, File localRepository) {
+		this.localRepository = localRepository;
+		this.deleteStubsAfterTest = stubRunnerOptions.isDeleteStubsAfterTest();
+		this.unpacker = StubJarUnpacker.fromOptions(stubRunnerOptions);
+		registerShutdownHook();
+	}
+
+	@Override
+	public Map.Entry<StubConfiguration, File> downloadAndUnpackStubJar(StubConfiguration stubConfiguration) {
+		File artifactDirectory = new File(this.localRepository,
+				stubConfiguration.groupId.replace('.', File.separatorChar) + File.separator
+						+ stubConfiguration.artifactId);
+		String version = resolveVersion(artifactDirectory, stubConfiguration);
+		if (version == null) {
+			if (log.isDebugEnabled()) {
+				log.debug("Stub [" + stubConfiguration.toColonSeparatedDependencyNotation()
+						+ "] not found in the local repository [" + this.localRepository + "]");
+			}
+			return null;
+		}
+		File jar = jar(artifactDirectory, stubConfiguration, version);
+		log.info("Resolved artifact [" + stubConfiguration.toColonSeparatedDependencyNotation() + "] to [" + jar
+				+ "]");
+		return new AbstractMap.SimpleEntry<>(new StubConfiguration(stubConfiguration.groupId,
+				stubConfiguration.artifactId, version, stubConfiguration.classifier), this.unpacker.unpack(jar));
+	}
+
+	private String resolveVersion(File artifactDirectory, StubConfiguration stubConfiguration) {
+		String version = stubConfiguration.version;
+		if (!StringUtils.hasText(version) || LATEST_VERSION_IN_IVY.equals(version)) {
+			log.info("Desired version is [" + version + "] - will try to resolve the latest version");
+			version = LATEST_ARTIFACT_VERSION;
+		}
+		if (!version.startsWith("[") && !version.startsWith("(")) {
+			return jar(artifactDirectory, stubConfiguration, version).isFile() ? version : null;
+		}
+		try {
+			VersionConstraint constraint = VERSION_SCHEME.parseVersionConstraint(version);
+			Optional<Version> highest = versionsFromMetadata(artifactDirectory).stream()
+				.filter(candidate -> jar(artifactDirectory, stubConfiguration, candidate).isFile())
+				.map(this::parseVersion)
+				.filter(constraint::containsVersion)
+				.max(Comparator.naturalOrder());
+			return highest.map(Version::toString).orElse(null);
+		}
+		catch (InvalidVersionSpecificationException ex) {
+			throw new IllegalStateException("Cannot resolve version range [" + version + "]", ex);
+		}
+	}
+
+	private Version parseVersion(String version) {
+		try {
+			return VERSION_SCHEME.parseVersion(version);
+		}
+		catch (InvalidVersionSpecificationException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	/**
+	 * Reads the versions from {@code maven-metadata-local.xml} of locally installed
+	 * artifacts and from the {@code maven-metadata-<repo>.xml} files of downloaded ones.
+	 */
+	private Set<String> versionsFromMetadata(File artifactDirectory) {
+		Set<String> versions = new LinkedHashSet<>();
+		File[] metadataFiles = artifactDirectory
+			.listFiles(file -> file.getName().startsWith(METADATA_PREFIX) && file.getName().endsWith(".xml"));
+		if (metadataFiles == null) {
+			return versions;
+		}
+		for (File metadata : metadataFiles) {
+			try {
+				DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+				factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+				factory.setAttribute(XMLConstants.ACCESS_EXTERNAL_DTD, "");
+				NodeList nodes = factory.newDocumentBuilder().parse(metadata).getElementsByTagName("version");
+				for (int i = 0; i < nodes.getLength(); i++) {
+					String version = nodes.item(i).getTextContent().trim();
+					// the <version> of the artifact itself is also listed in <versions>
+					if (StringUtils.hasText(version)
+							&& "versions".equals(nodes.item(i).getParentNode().getNodeName())) {
+						versions.add(version);
+					}
+				}
+			}
+			catch (IOException | SAXException | ParserConfigurationException ex) {
+				log.warn("Failed to read the versions from [" + metadata + "]", ex);
+			}
+		}
+		if (log.isDebugEnabled()) {
+			log.debug("Versions found in the metadata of [" + artifactDirectory + "] are " + versions);
+		}
+		return versions;
+	}
+
+	private File jar(File artifactDirectory, StubConfiguration stubConfiguration, String version) {
+		String classifier = StringUtils.hasText(stubConfiguration.classifier) ? "-" + stubConfiguration.classifier
+				: "";
+		return new File(artifactDirectory, version + File.separator + stubConfiguration.artifactId + "-" + version
+				+ classifier + "." + ARTIFACT_EXTENSION);
+	}
+
+	private void registerShutdownHook() {
+		Runtime.getRuntime()
+			.addShutdownHook(new Thread(
+					() -> TemporaryFileStorage.cleanup(LocalRepositoryStubDownloader.this.deleteStubsAfterTest)));
+	}
+
+}
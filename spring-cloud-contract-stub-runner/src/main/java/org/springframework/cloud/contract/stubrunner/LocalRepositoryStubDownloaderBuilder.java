@@ -0,0 +1,158 @@
+/*
+ * Copyright 2013-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.contract.stubrunner;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+import org.springframework.cloud.contract.stubrunner.spring.StubRunnerProperties;
+import org.springframework.util.StringUtils;
+
+/**
+ * Builds a {@link LocalRepositoryStubDownloader} for the
+ * {@link StubRunnerProperties.StubsMode#LOCAL} mode. The location of the local Maven
+ * repository is read without building the Maven settings. If it can't be determined,
+ * the stubs are resolved via Aether.
+ *
+ * @author Marcin Grzejszczak
+ * @since 5.0.4
+ */
+public class LocalRepositoryStubDownloaderBuilder implements StubDownloaderBuilder {
+
+	private static final Log log = LogFactory.getLog(LocalRepositoryStubDownloaderBuilder.class);
+
+	/**
+	 * Set to {@code false} to resolve the stubs from the local repository via Aether.
+	 */
+	static final String ENABLED_PROPERTY = "stubs.local-resolver.enabled";
+
+	private static final String MAVEN_LOCAL_REPOSITORY_LOCATION = "maven.repo.local";
+
+	private static final String MAVEN_USER_SETTINGS_LOCATION = "org.apache.maven.user-settings";
+
+	private static final String MAVEN_GLOBAL_SETTINGS_LOCATION = "org.apache.maven.global-settings";
+
+	private static final Pattern PLACEHOLDER = Pattern.compile("\\$\\{(env\\.)?([^}]+)}");
+
+	@Override
+	public StubDownloader build(StubRunnerOptions stubRunnerOptions) {
+		if (stubRunnerOptions.getStubsMode() != StubRunnerProperties.StubsMode.LOCAL) {
+			return null;
+		}
+		String enabled = StubRunnerPropertyUtils.getProperty(stubRunnerOptions.getProperties(), ENABLED_PROPERTY);
+		if (StringUtils.hasText(enabled) && !Boolean.parseBoolean(enabled)) {
+			return null;
+		}
+		File localRepository = localRepository();
+		if (localRepository == null) {
+			return null;
+		}
+		log.info("Will resolve stubs and contracts from the local Maven repository [" + localRepository + "]");
+		return new LocalRepositoryStubDownloader(stubRunnerOptions, localRepository);
+	}
+
+	/**
+	 * Resolves the local repository the same way {@link AetherFactories} does: the
+	 * {@code maven.repo.local} property, then the user and global settings, then
+	 * {@code ~/.m2/repository}.
+	 * @return local repository or {@code null} if it can't be determined without Maven
+	 */
+	static File localRepository() {
+		String fromProperty = fromSystemPropOrEnv(MAVEN_LOCAL_REPOSITORY_LOCATION);
+		if (StringUtils.hasText(fromProperty)) {
+			return new File(fromProperty);
+		}
+		String user = fromSystemPropOrEnv(MAVEN_USER_SETTINGS_LOCATION);
+		File userSettings = user != null ? new File(user)
+				: new File(System.getProperty("user.home"), ".m2" + File.separator + "settings.xml");
+		String global = fromSystemPropOrEnv(MAVEN_GLOBAL_SETTINGS_LOCATION);
+		for (File settings : new File[] { userSettings, global != null ? new File(global) : null }) {
+			if (settings == null || !settings.isFile()) {
+				continue;
+			}
+			String fromSettings = localRepositoryFromSettings(settings);
+			if (fromSettings == null) {
+				return null;
+			}
+			if (!fromSettings.isEmpty()) {
+				return new File(fromSettings);
+			}
+		}
+		return new File(System.getProperty("user.home"), ".m2" + File.separator + "repository");
+	}
+
+	/**
+	 * @param settings settings file
+	 * @return the configured local repository, an empty string if none is configured or
+	 * {@code null} if the settings can't be read
+	 */
+	private static String localRepositoryFromSettings(File settings) {
+		try {
+			DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+			factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+			factory.setAttribute(XMLConstants.ACCESS_EXTERNAL_DTD, "");
+			NodeList nodes = factory.newDocumentBuilder().parse(settings).getElementsByTagName("localRepository");
+			if (nodes.getLength() == 0 || !StringUtils.hasText(nodes.item(0).getTextContent())) {
+				return "";
+			}
+			return interpolate(nodes.item(0).getTextContent().trim());
+		}
+		catch (IOException | SAXException | ParserConfigurationException | IllegalArgumentException ex) {
+			if (log.isDebugEnabled()) {
+				log.debug("Failed to read the local repository from [" + settings + "]", ex);
+			}
+			return null;
+		}
+	}
+
+	private static String interpolate(String value) {
+		Matcher matcher = PLACEHOLDER.matcher(value);
+		StringBuilder result = new StringBuilder();
+		while (matcher.find()) {
+			String resolved = matcher.group(1) != null ? System.getenv(matcher.group(2))
+					: System.getProperty(matcher.group(2));
+			if (resolved == null) {
+				// let Maven interpolate it
+				return null;
+			}
+			matcher.appendReplacement(result, Matcher.quoteReplacement(resolved));
+		}
+		matcher.appendTail(result);
+		return result.toString();
+	}
+
+	// system prop takes precedence over env var
+	private static String fromSystemPropOrEnv(String prop) {
+		String resolvedProp = System.getProperty(prop);
+		if (StringUtils.hasText(resolvedProp)) {
+			return resolvedProp;
+		}
+		return System.getenv(prop);
+	}
+
+}
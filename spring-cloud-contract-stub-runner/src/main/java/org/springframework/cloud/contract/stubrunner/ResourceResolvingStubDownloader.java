@@ -54,17 +54,32 @@ class ResourceResolvingStubDownloader implements StubDownloader {
 	private final PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver(
 			new DefaultResourceLoader());
 
+	private final ClasspathStubIndex index;
+
 	ResourceResolvingStubDownloader(StubRunnerOptions stubRunnerOptions,
 			BiFunction<StubRunnerOptions, StubConfiguration, RepoRoots> repoRootFunction,
 			Function<StubConfiguration, Pattern> gavPattern) {
+		this(stubRunnerOptions, repoRootFunction, gavPattern, null);
+	}
+
+	ResourceResolvingStubDownloader(StubRunnerOptions stubRunnerOptions,
+			BiFunction<StubRunnerOptions, StubConfiguration, RepoRoots> repoRootFunction,
+			Function<StubConfiguration, Pattern> gavPattern, ClasspathStubIndex index) {
 		this.stubRunnerOptions = stubRunnerOptions;
 		this.repoRootFunction = repoRootFunction;
 		this.gavPattern = gavPattern;
+		this.index = index;
 	}
 
 	@Override
 	public Map.Entry<StubConfiguration, File> downloadAndUnpackStubJar(StubConfiguration config) {
 		registerShutdownHook();
+		if (this.index != null) {
+			Map.Entry<StubConfiguration, File> indexed = fromIndex(config);
+			if (indexed != null) {
+				return indexed;
+			}
+		}
 		List<RepoRoot> repoRoots = repoRootFunction.apply(stubRunnerOptions, config);
 		List<String> paths = toPaths(repoRoots);
 		List<Resource> resources = resolveResources(paths);
@@ -75,6 +90,39 @@ class ResourceResolvingStubDownloader implements StubDownloader {
 			throw new IllegalStateException("No stubs were found on classpath for [" + config.getGroupId() + ":"
 					+ config.getArtifactId() + "]");
 		}
+		return copyTheFoundResources(config, resources);
+	}
+
+	/**
+	 * Resolves the stub from the stub indexes. Stubs stored in a folder of the file
+	 * system are read in place, stubs stored in jars are copied.
+	 * @return the stub or {@code null} if the stub is not indexed
+	 */
+	private Map.Entry<StubConfiguration, File> fromIndex(StubConfiguration config) {
+		List<Resource> resources = this.index.resources(config);
+		if (resources.isEmpty()) {
+			if (log.isDebugEnabled()) {
+				log.debug("Stub [" + config.toColonSeparatedDependencyNotation()
+						+ "] is not indexed, will scan the classpath");
+			}
+			return null;
+		}
+		// generated stubs are written to the stubs folder, it must not be the original one
+		File directory = this.stubRunnerOptions.isGenerateStubs() ? null : this.index.directory(config);
+		if (directory != null) {
+			log.info("Using stubs for [" + config.getGroupId() + ":" + config.getArtifactId() + ":"
+					+ config.getVersion() + "] from folder [" + directory + "]");
+			return new AbstractMap.SimpleEntry<>(new StubConfiguration(config.getGroupId(), config.getArtifactId(),
+					config.getVersion(), config.getClassifier()), directory);
+		}
+		if (log.isDebugEnabled()) {
+			log.debug("Found following indexed resources " + resources);
+		}
+		return copyTheFoundResources(config, resources);
+	}
+
+	private Map.Entry<StubConfiguration, File> copyTheFoundResources(StubConfiguration config,
+			List<Resource> resources) {
 		final File tmp = TemporaryFileStorage.createTempDir("classpath-stubs");
 		if (stubRunnerOptions.isDeleteStubsAfterTest()) {
 			tmp.deleteOnExit();
@@ -121,6 +121,10 @@ class GitContractsRepo {
 
 	static final Map<Resource, File> CACHED_LOCATIONS = new ConcurrentHashMap<>();
 
+	// stubs can be downloaded in parallel, the same repo must not be cloned or pulled
+	// concurrently
+	private static final Map<Resource, Object> LOCKS = new ConcurrentHashMap<>();
+
 	private static final Log log = LogFactory.getLog(GitContractsRepo.class);
 
 	private static final String TEMP_DIR_PREFIX = "git-contracts";
@@ -132,6 +136,12 @@ class GitContractsRepo {
 	}
 
 	File clonedRepo(Resource repo) {
+		synchronized (LOCKS.computeIfAbsent(repo, r -> new Object())) {
+			return doClonedRepo(repo);
+		}
+	}
+
+	private File doClonedRepo(Resource repo) {
 		File file = CACHED_LOCATIONS.get(repo);
 		GitStubDownloaderProperties properties = new GitStubDownloaderProperties(repo, this.options);
 		if (file == null) {
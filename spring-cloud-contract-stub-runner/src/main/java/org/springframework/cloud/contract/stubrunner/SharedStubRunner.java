@@ -0,0 +1,431 @@
+/*
+ * Copyright 2013-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.contract.stubrunner;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import groovy.json.JsonOutput;
+import groovy.json.JsonSlurper;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.cloud.contract.spec.Contract;
+import org.springframework.util.StringUtils;
+
+/**
+ * Stub runner attached to a stub runner daemon shared by all the JVMs (e.g. the forks of
+ * a test run) running the same stubs. The first JVM starts the daemon, a Stub Runner
+ * Boot application running in a separate process, the other ones reuse its stubs. The
+ * daemon stops once no JVM is attached to it anymore.
+ *
+ * Stubs are looked up through the {@code /stubs} and messages triggered through the
+ * {@code /triggers} endpoints of the daemon. The daemon sends the messages with its own
+ * messaging setup. The stub servers and their request journals are shared by all the
+ * attached JVMs, so the received requests can't be verified per JVM. Accessing the
+ * contracts or resetting the stubs is not supported and fails instead of returning data
+ * that doesn't belong to the calling JVM.
+ *
+ * @author Marcin Grzejszczak
+ * @since 5.0.4
+ */
+class SharedStubRunner extends BatchStubRunner {
+
+	private static final Log log = LogFactory.getLog(SharedStubRunner.class);
+
+	/**
+	 * Set to {@code true} to share a stub runner daemon between the JVMs running the
+	 * same stubs.
+	 */
+	static final String ENABLED_PROPERTY = "stubs.shared-daemon.enabled";
+
+	/**
+	 * Time in seconds to wait for the daemon to start its stubs. Defaults to 120.
+	 */
+	static final String START_TIMEOUT_PROPERTY = "stubs.shared-daemon.start-timeout-seconds";
+
+	static final String DAEMON_MAIN_CLASS = "org.springframework.cloud.contract.stubrunner.server.StubRunnerDaemon";
+
+	private static final String PREFIX = "spring.cloud.contract.stubrunner.";
+
+	private static final long DEFAULT_START_TIMEOUT_SECONDS = 120;
+
+	private static final Duration POLL_INTERVAL = Duration.ofMillis(250);
+
+	private static final HttpClient HTTP_CLIENT = HttpClient.newBuilder()
+		.connectTimeout(Duration.ofSeconds(5))
+		.build();
+
+	// a JVM can't lock a file twice, attachments of the same daemon are shared
+	private static final Map<String, Attachment> ATTACHMENTS = new HashMap<>();
+
+	private final Attachment attachment;
+
+	private volatile RunningStubs runningStubs;
+
+	private boolean closed;
+
+	private SharedStubRunner(Attachment attachment) {
+		super(Collections.emptyList());
+		this.attachment = attachment;
+	}
+
+	static boolean isEnabled(StubRunnerOptions options) {
+		return Boolean.parseBoolean(StubRunnerPropertyUtils.getProperty(options.getProperties(), ENABLED_PROPERTY));
+	}
+
+	/**
+	 * Attaches to the daemon running the stubs with the given options, starts the
+	 * daemon if there is none.
+	 * @param options stub runner options
+	 * @return stub runner attached to the daemon
+	 */
+	static SharedStubRunner attach(StubRunnerOptions options) {
+		StubRunnerDaemonFiles files = StubRunnerDaemonFiles.of(options);
+		synchronized (ATTACHMENTS) {
+			Attachment attachment = ATTACHMENTS.get(files.getBase());
+			if (attachment == null) {
+				attachment = files.whileStarting(() -> attachOrStart(options, files));
+				ATTACHMENTS.put(files.getBase(), attachment);
+			}
+			attachment.references++;
+			return new SharedStubRunner(attachment);
+		}
+	}
+
+	private static Attachment attachOrStart(StubRunnerOptions options, StubRunnerDaemonFiles files) {
+		Closeable client = files.attachClient();
+		try {
+			Integer port = files.readPort();
+			if (port != null && isRunning(port)) {
+				log.info("Attached to the stub runner daemon at port [" + port + "] started by another JVM");
+				return new Attachment(files.getBase(), port, client);
+			}
+			files.deletePort();
+			port = startDaemon(options, files);
+			log.info("Started the stub runner daemon at port [" + port + "], its output is stored in ["
+					+ files.getLog() + "]");
+			return new Attachment(files.getBase(), port, client);
+		}
+		catch (RuntimeException ex) {
+			closeQuietly(client);
+			throw ex;
+		}
+	}
+
+	private static int startDaemon(StubRunnerOptions options, StubRunnerDaemonFiles files) {
+		File java = new File(System.getProperty("java.home"), "bin" + File.separator + "java");
+		ProcessBuilder builder = new ProcessBuilder(java.getAbsolutePath(), "-cp",
+				System.getProperty("java.class.path"), DAEMON_MAIN_CLASS, files.getBase(), "--server.port=0")
+			.redirectErrorStream(true)
+			.redirectOutput(files.getLog().toFile());
+		// passed through the environment not to show the credentials in the process list
+		builder.environment().put("SPRING_APPLICATION_JSON", JsonOutput.toJson(daemonProperties(options)));
+		Process process;
+		try {
+			process = builder.start();
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Failed to start the stub runner daemon", ex);
+		}
+		long deadline = System.nanoTime() + startTimeout(options).toNanos();
+		while (System.nanoTime() < deadline) {
+			Integer port = files.readPort();
+			if (port != null) {
+				return port;
+			}
+			if (!process.isAlive()) {
+				throw new IllegalStateException("The stub runner daemon failed to start, check its output in ["
+						+ files.getLog() + "]");
+			}
+			sleep();
+		}
+		process.destroy();
+		throw new IllegalStateException("The stub runner daemon didn't start its stubs within ["
+				+ startTimeout(options).getSeconds() + "] seconds, check its output in [" + files.getLog() + "]");
+	}
+
+	/**
+	 * Stub Runner Boot properties recreating the given options.
+	 */
+	static Map<String, Object> daemonProperties(StubRunnerOptions options) {
+		Map<String, Object> properties = new LinkedHashMap<>();
+		List<String> ids = new ArrayList<>();
+		for (StubConfiguration dependency : options.getDependencies()) {
+			Integer port = options.port(dependency);
+			ids.add(dependency.toColonSeparatedDependencyNotation() + (port != null ? ":" + port : ""));
+		}
+		properties.put(PREFIX + "ids", ids);
+		putIfPresent(properties, "repository-root", options.getStubRepositoryRootAsString());
+		properties.put(PREFIX + "stubs-mode", options.getStubsMode().name());
+		putIfPresent(properties, "classifier", options.getStubsClassifier());
+		putIfPresent(properties, "min-port", options.getMinPortValue());
+		putIfPresent(properties, "max-port", options.getMaxPortValue());
+		putIfPresent(properties, "username", options.getUsername());
+		putIfPresent(properties, "password", options.getPassword());
+		if (options.getStubRunnerProxyOptions() != null) {
+			properties.put(PREFIX + "proxy-host", options.getStubRunnerProxyOptions().getProxyHost());
+			properties.put(PREFIX + "proxy-port", options.getStubRunnerProxyOptions().getProxyPort());
+		}
+		properties.put(PREFIX + "stubs-per-consumer", options.isStubsPerConsumer());
+		putIfPresent(properties, "consumer-name", options.getConsumerName());
+		putIfPresent(properties, "mappings-output-folder", options.getMappingsOutputFolder());
+		properties.put(PREFIX + "delete-stubs-after-test", options.isDeleteStubsAfterTest());
+		properties.put(PREFIX + "generate-stubs", options.isGenerateStubs());
+		properties.put(PREFIX + "fail-on-no-stubs", options.isFailOnNoStubs());
+		properties.put(PREFIX + "http-server-stub-configurer", options.getHttpServerStubConfigurer().getName());
+		putIfPresent(properties, "server-id", options.getServerId());
+		Map<String, String> stubRunnerProperties = new LinkedHashMap<>();
+		if (options.getProperties() != null) {
+			stubRunnerProperties.putAll(options.getProperties());
+		}
+		// the daemon must not attach to itself, even if the switch is an env variable
+		stubRunnerProperties.put(ENABLED_PROPERTY, "false");
+		// the attached JVMs call the stub servers directly, the daemon doesn't see their
+		// use, so it has to keep them running
+		stubRunnerProperties.put(StubRunnerExecutor.LAZY_START_PROPERTY, "false");
+		stubRunnerProperties.remove(StubIdleEvictor.IDLE_TIMEOUT_PROPERTY);
+		stubRunnerProperties.forEach((key, value) -> properties.put(PREFIX + "properties[" + key + "]", value));
+		return properties;
+	}
+
+	private static void putIfPresent(Map<String, Object> properties, String name, Object value) {
+		if (value != null && StringUtils.hasText(value.toString())) {
+			properties.put(PREFIX + name, value);
+		}
+	}
+
+	private static Duration startTimeout(StubRunnerOptions options) {
+		String timeout = StubRunnerPropertyUtils.getProperty(options.getProperties(), START_TIMEOUT_PROPERTY);
+		return Duration
+			.ofSeconds(StringUtils.hasText(timeout) ? Long.parseLong(timeout.trim()) : DEFAULT_START_TIMEOUT_SECONDS);
+	}
+
+	private static boolean isRunning(int port) {
+		try {
+			return send(port, HttpRequest.newBuilder(uri(port, "/stubs")).GET()).statusCode() == 200;
+		}
+		catch (IllegalStateException ex) {
+			return false;
+		}
+	}
+
+	private static HttpResponse<String> send(int port, HttpRequest.Builder request) {
+		try {
+			return HTTP_CLIENT.send(request.timeout(Duration.ofSeconds(30)).build(),
+					HttpResponse.BodyHandlers.ofString());
+		}
+		catch (ConnectException ex) {
+			throw new IllegalStateException("The stub runner daemon at port [" + port + "] is not running", ex);
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Failed to call the stub runner daemon at port [" + port + "]", ex);
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while calling the stub runner daemon", ex);
+		}
+	}
+
+	private static URI uri(int port, String path) {
+		return URI.create("http://localhost:" + port + path);
+	}
+
+	private static void sleep() {
+		try {
+			Thread.sleep(POLL_INTERVAL.toMillis());
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for the stub runner daemon", ex);
+		}
+	}
+
+	private static void closeQuietly(Closeable closeable) {
+		try {
+			closeable.close();
+		}
+		catch (IOException ex) {
+			log.warn("Failed to detach from the stub runner daemon", ex);
+		}
+	}
+
+	@Override
+	public RunningStubs runStubs() {
+		RunningStubs runningStubs = this.runningStubs;
+		if (runningStubs == null) {
+			Map<StubConfiguration, Integer> ports = new LinkedHashMap<>();
+			getJson("/stubs").forEach((ivy, port) -> ports.put(new StubConfiguration((String) ivy),
+					((Number) port).intValue()));
+			runningStubs = new RunningStubs(ports);
+			this.runningStubs = runningStubs;
+		}
+		return runningStubs;
+	}
+
+	@Override
+	public URL findStubUrl(String groupId, String artifactId) {
+		Integer port = groupId != null ? runStubs().getPort(groupId, artifactId) : runStubs().getPort(artifactId);
+		if (port == null) {
+			throw new StubNotFoundException(groupId, artifactId);
+		}
+		return url(port);
+	}
+
+	@Override
+	public URL findStubUrl(String ivyNotation) {
+		Integer port = runStubs().getPort(ivyNotation);
+		if (port == null) {
+			throw new StubNotFoundException(ivyNotation);
+		}
+		return url(port);
+	}
+
+	private URL url(int port) {
+		try {
+			return new URL("http://localhost:" + port);
+		}
+		catch (MalformedURLException ex) {
+			throw new IllegalStateException("Cannot parse URL", ex);
+		}
+	}
+
+	@Override
+	public RunningStubs findAllRunningStubs() {
+		return runStubs();
+	}
+
+	@Override
+	public Map<StubConfiguration, Collection<Contract>> getContracts() {
+		throw new UnsupportedOperationException("The contracts of the stubs run by the shared stub runner daemon "
+				+ "are not available, set [" + ENABLED_PROPERTY + "] to [false] to access them");
+	}
+
+	/**
+	 * Not supported, the stub servers are shared with the other attached JVMs.
+	 */
+	@Override
+	public void reset() {
+		throw new UnsupportedOperationException("The stubs run by the shared stub runner daemon are shared with "
+				+ "other JVMs and can't be reset, set [" + ENABLED_PROPERTY + "] to [false] to reset them");
+	}
+
+	@Override
+	public boolean trigger(String ivyNotation, String labelName) {
+		return post("/triggers/" + encode(ivyNotation) + "/" + encode(labelName), labelName);
+	}
+
+	@Override
+	public boolean trigger(String labelName) {
+		return post("/triggers/" + encode(labelName), labelName);
+	}
+
+	@Override
+	public boolean trigger() {
+		boolean success = false;
+		for (Map.Entry<String, Collection<String>> entry : labels().entrySet()) {
+			for (String label : entry.getValue()) {
+				success |= trigger(entry.getKey(), label);
+			}
+		}
+		return success;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public Map<String, Collection<String>> labels() {
+		Map<String, Collection<String>> labels = new LinkedHashMap<>();
+		getJson("/triggers").forEach((ivy, names) -> labels.put((String) ivy, (Collection<String>) names));
+		return labels;
+	}
+
+	private Map<?, ?> getJson(String path) {
+		HttpResponse<String> response = send(this.attachment.port,
+				HttpRequest.newBuilder(uri(this.attachment.port, path)).GET());
+		if (response.statusCode() != 200) {
+			throw new IllegalStateException("The stub runner daemon returned [" + response.statusCode() + "] for ["
+					+ path + "]: " + response.body());
+		}
+		return (Map<?, ?>) new JsonSlurper().parseText(response.body());
+	}
+
+	private boolean post(String path, String labelName) {
+		HttpResponse<String> response = send(this.attachment.port,
+				HttpRequest.newBuilder(uri(this.attachment.port, path)).POST(HttpRequest.BodyPublishers.noBody()));
+		if (response.statusCode() != 200) {
+			throw new IllegalArgumentException("No label with name [" + labelName
+					+ "] could be triggered by the stub runner daemon. Here you have the list of dependencies "
+					+ "and their labels [" + labels() + "]");
+		}
+		return true;
+	}
+
+	private String encode(String segment) {
+		return URLEncoder.encode(segment, StandardCharsets.UTF_8).replace("+", "%20");
+	}
+
+	@Override
+	public void close() {
+		synchronized (ATTACHMENTS) {
+			if (this.closed) {
+				return;
+			}
+			this.closed = true;
+			if (--this.attachment.references == 0) {
+				ATTACHMENTS.remove(this.attachment.key);
+				closeQuietly(this.attachment.client);
+			}
+		}
+	}
+
+	private static final class Attachment {
+
+		private final String key;
+
+		private final int port;
+
+		private final Closeable client;
+
+		private int references;
+
+		private Attachment(String key, int port, Closeable client) {
+			this.key = key;
+			this.port = port;
+			this.client = client;
+		}
+
+	}
+
+}
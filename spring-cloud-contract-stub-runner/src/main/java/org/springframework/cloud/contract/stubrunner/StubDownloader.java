@@ -26,6 +26,10 @@ import java.util.Map;
  * Note: Actually the artifact doesn't have to be a JAR. method name contains that suffix
  * for historical reasons.
  *
+ * Stubs of different dependencies can be downloaded in parallel by setting the
+ * {@code stubs.download-threads} property, in which case implementations have to be
+ * thread safe.
+ *
  * @author Marcin Grzejszczak
  * @since 1.0.0
  */
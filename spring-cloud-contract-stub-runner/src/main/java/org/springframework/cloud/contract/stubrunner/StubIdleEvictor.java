@@ -0,0 +1,139 @@
+/*
+ * Copyright 2013-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.contract.stubrunner;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.util.StringUtils;
+
+/**
+ * Stops stub servers that haven't served a request and weren't looked up for the
+ * configured time. Evicted servers are started again, on the same port, on their next
+ * lookup. Meant for long running stub runners (e.g. Stub Runner Boot) that serve many
+ * stubs of which only a few are used at a time.
+ *
+ * @author Marcin Grzejszczak
+ * @since 5.0.4
+ */
+public final class StubIdleEvictor {
+
+	private static final Log log = LogFactory.getLog(StubIdleEvictor.class);
+
+	/**
+	 * Idle time in seconds after which a stub server gets stopped. Servers are never
+	 * stopped when not set.
+	 */
+	static final String IDLE_TIMEOUT_PROPERTY = "stubs.idle-timeout-seconds";
+
+	private static final Duration MAX_CHECK_INTERVAL = Duration.ofSeconds(30);
+
+	private static final AtomicLong EVICTIONS = new AtomicLong();
+
+	private static ScheduledExecutorService scheduler;
+
+	private final Duration idleTimeout;
+
+	StubIdleEvictor(Duration idleTimeout) {
+		this.idleTimeout = idleTimeout;
+	}
+
+	/**
+	 * @param options stub runner options
+	 * @return the evictor or {@code null} if it's not enabled
+	 */
+	static StubIdleEvictor fromOptions(StubRunnerOptions options) {
+		String timeout = StubRunnerPropertyUtils.getProperty(options.getProperties(), IDLE_TIMEOUT_PROPERTY);
+		if (!StringUtils.hasText(timeout) || Long.parseLong(timeout.trim()) <= 0) {
+			return null;
+		}
+		return new StubIdleEvictor(Duration.ofSeconds(Long.parseLong(timeout.trim())));
+	}
+
+	/**
+	 * @return number of stub servers that are currently running
+	 */
+	public static int activeStubServers() {
+		List<StubServer> servers;
+		synchronized (StubRunnerExecutor.STUB_SERVERS) {
+			servers = new ArrayList<>(StubRunnerExecutor.STUB_SERVERS);
+		}
+		return (int) servers.stream().filter(StubServer::isRunning).count();
+	}
+
+	/**
+	 * @return number of times a stub server was stopped because it was idle
+	 */
+	public static long evictedStubServers() {
+		return EVICTIONS.get();
+	}
+
+	/**
+	 * Periodically checks whether the server is idle and evicts it if it is.
+	 * @param server server to watch
+	 * @param portScanner scanner reserving the port of the evicted server
+	 * @return the scheduled check, to be cancelled when the server gets stopped
+	 */
+	ScheduledFuture<?> watch(StubServer server, AvailablePortScanner portScanner) {
+		long interval = Math.max(1, Math.min(this.idleTimeout.toMillis() / 2, MAX_CHECK_INTERVAL.toMillis()));
+		return scheduler().scheduleWithFixedDelay(() -> evictIfIdle(server, portScanner), interval, interval,
+				TimeUnit.MILLISECONDS);
+	}
+
+	void evictIfIdle(StubServer server, AvailablePortScanner portScanner) {
+		try {
+			synchronized (server) {
+				if (!server.isIdle(System.currentTimeMillis(), this.idleTimeout)) {
+					return;
+				}
+				server.evict(port -> {
+					portScanner.reservePort(port);
+					return () -> portScanner.releaseReservation(port);
+				});
+			}
+			EVICTIONS.incrementAndGet();
+			log.info("Stopped stub server for project ["
+					+ server.getStubConfiguration().toColonSeparatedDependencyNotation() + "] idle for more than ["
+					+ this.idleTimeout.getSeconds() + "] seconds");
+		}
+		catch (RuntimeException ex) {
+			log.warn("Failed to evict the idle stub server for project ["
+					+ server.getStubConfiguration().toColonSeparatedDependencyNotation() + "]", ex);
+		}
+	}
+
+	private static synchronized ScheduledExecutorService scheduler() {
+		if (scheduler == null) {
+			scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "stub-idle-evictor");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		return scheduler;
+	}
+
+}
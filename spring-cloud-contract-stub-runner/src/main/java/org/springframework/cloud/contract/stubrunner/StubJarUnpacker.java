@@ -0,0 +1,142 @@
+/*
+ * Copyright 2013-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.contract.stubrunner;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.cloud.contract.stubrunner.provider.wiremock.WireMockHttpServerStub;
+import org.springframework.cloud.contract.verifier.converter.StubBundle;
+import org.springframework.core.io.support.SpringFactoriesLoader;
+
+import static org.springframework.cloud.contract.stubrunner.util.ZipCategory.unzipTo;
+
+/**
+ * Unpacks resolved stub jars, either to the shared {@link StubUnpackCache} or to a new
+ * temporary folder.
+ *
+ * @author Marcin Grzejszczak
+ * @since 5.0.4
+ */
+final class StubJarUnpacker {
+
+	private static final Log log = LogFactory.getLog(StubJarUnpacker.class);
+
+	private static final String TEMP_DIR_PREFIX = "contracts";
+
+	private final StubUnpackCache unpackCache;
+
+	// server the stubs get registered in, null when the stub bundles are not used: they
+	// are ignored for stubs per consumer, and the mappings are regenerated from the
+	// contract files when stubs are generated at runtime
+	private final HttpServerStub bundleReader;
+
+	StubJarUnpacker(StubUnpackCache unpackCache, HttpServerStub bundleReader) {
+		this.unpackCache = unpackCache;
+		this.bundleReader = bundleReader;
+	}
+
+	/**
+	 * @param options stub runner options
+	 * @return unpacker configured from the options
+	 */
+	static StubJarUnpacker fromOptions(StubRunnerOptions options) {
+		boolean bundlesUsed = !options.isStubsPerConsumer() && !options.isGenerateStubs();
+		return new StubJarUnpacker(StubUnpackCache.fromOptions(options),
+				bundlesUsed ? StubRunnerExecutor.activeHttpServerStub(
+						SpringFactoriesLoader.loadFactories(HttpServerStub.class, null), new WireMockHttpServerStub())
+						: null);
+	}
+
+	/**
+	 * @param jar stub jar
+	 * @return folder with the unpacked stubs
+	 */
+	File unpack(File jar) {
+		if (this.unpackCache != null) {
+			return this.unpackCache.unpack(jar);
+		}
+		File temporaryFile = unpackStubJarToATemporaryFolder(jar);
+		log.info("Unpacked file to [" + temporaryFile + "]");
+		return temporaryFile;
+	}
+
+	private File unpackStubJarToATemporaryFolder(File jar) {
+		File tmpDirWhereStubsWillBeUnzipped = TemporaryFileStorage.createTempDir(TEMP_DIR_PREFIX);
+		log.info("Unpacking stub from JAR [URI: " + jar.toURI() + "]");
+		if (this.bundleReader != null) {
+			unzipTo(jar, tmpDirWhereStubsWillBeUnzipped, StubJarUnpacker::isStubBundle);
+			Set<String> bundledEntries = bundledStubFiles(tmpDirWhereStubsWillBeUnzipped);
+			unzipTo(jar, tmpDirWhereStubsWillBeUnzipped,
+					entryName -> !isStubBundle(entryName) && !bundledEntries.contains(entryName));
+		}
+		else {
+			unzipTo(jar, tmpDirWhereStubsWillBeUnzipped);
+		}
+		TemporaryFileStorage.add(tmpDirWhereStubsWillBeUnzipped);
+		return tmpDirWhereStubsWillBeUnzipped;
+	}
+
+	private static boolean isStubBundle(String entryName) {
+		return entryName.equals(StubBundle.BUNDLE_FILE_NAME) || entryName.endsWith("/" + StubBundle.BUNDLE_FILE_NAME);
+	}
+
+	/**
+	 * The contracts stored in stub bundles are read from the bundles, there is no need to
+	 * unpack them. The same goes for the mappings, as long as the HTTP server stub reads
+	 * the bundles. Files that are not in the bundles (e.g. files referenced by the
+	 * contracts) still get unpacked.
+	 * @param unpackedBundles folder with the unpacked bundles
+	 * @return names of the jar entries that are stored in the bundles
+	 */
+	private Set<String> bundledStubFiles(File unpackedBundles) {
+		Path root = unpackedBundles.toPath();
+		try (Stream<Path> paths = Files.walk(root)) {
+			Set<String> bundled = new HashSet<>();
+			for (Path path : paths.filter(path -> StubBundle.isBundle(path.toFile())).collect(Collectors.toList())) {
+				StubBundle bundle = StubBundle.read(path.toFile());
+				boolean mappingsBundled = this.bundleReader.isAccepted(path.toFile());
+				for (StubBundle.Entry entry : bundle.getEntries()) {
+					if (entry.getType() == StubBundle.EntryType.CONTRACT
+							|| (mappingsBundled && entry.getType() == StubBundle.EntryType.MAPPING)) {
+						bundled.add(root.relativize(bundle.fileOf(entry).toPath()).toString().replace(File.separatorChar,
+								'/'));
+					}
+				}
+			}
+			if (log.isDebugEnabled() && !bundled.isEmpty()) {
+				log.debug("[" + bundled.size() + "] stub files are stored in stub bundles and will not be unpacked");
+			}
+			return bundled;
+		}
+		catch (IOException | IllegalStateException ex) {
+			log.warn("Failed to read the stub bundles, all stub files will be unpacked", ex);
+			return Collections.emptySet();
+		}
+	}
+
+}
@@ -24,20 +24,26 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.util.AbstractCollection;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import io.micrometer.common.lang.Nullable;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import org.springframework.cloud.contract.spec.Contract;
-import org.springframework.cloud.contract.spec.ContractConverter;
 import org.springframework.cloud.contract.stubrunner.provider.wiremock.WireMockHttpServerStub;
+import org.springframework.cloud.contract.verifier.converter.StubBundle;
+import org.springframework.cloud.contract.verifier.converter.YamlContractConverter;
 import org.springframework.cloud.contract.verifier.util.ContractScanner;
-import org.springframework.core.io.support.SpringFactoriesLoader;
+import org.springframework.util.StringUtils;
 
 /**
  * Wraps the folder with stub mappings.
@@ -46,32 +52,43 @@ class StubRepository {
 
 	private static final Log log = LogFactory.getLog(StubRepository.class);
 
+	// bundles are stored either in the stubs root (META-INF/groupId/artifactId/version)
+	// or in its mappings folder
+	private static final int BUNDLE_SEARCH_DEPTH = 6;
+
+	/**
+	 * Number of threads parsing the contracts. Defaults to {@code 1}, contract converters
+	 * registered by other libraries might not be thread safe.
+	 */
+	static final String CONTRACT_PARSING_THREADS_PROPERTY = "stubs.contract-parsing-threads";
+
 	final List<File> stubs;
 
 	final Collection<Contract> contracts;
 
 	private final File path;
 
-	private final List<ContractConverter> contractConverters;
-
 	private final List<HttpServerStub> httpServerStubs;
 
 	private final StubRunnerOptions options;
 
+	private final List<StubBundle> bundles;
+
+	// the default implementation
+	private final HttpServerStub defaultHttpServerStub = new WireMockHttpServerStub();
+
 	StubRepository(File repository, List<HttpServerStub> httpServerStubs, StubRunnerOptions options,
 			@Nullable StubConfiguration stubConfiguration) {
 		if (!repository.isDirectory()) {
 			throw new IllegalArgumentException("Missing descriptor repository under path [" + repository + "]");
 		}
-		this.contractConverters = SpringFactoriesLoader.loadFactories(ContractConverter.class, null);
-		if (log.isTraceEnabled()) {
-			log.trace("Found the following contract converters " + this.contractConverters);
-		}
 		this.httpServerStubs = httpServerStubs;
 		this.path = repository;
 		this.options = options;
+		this.bundles = stubBundles();
 		this.stubs = stubs();
-		this.contracts = contracts();
+		// contracts are parsed only when they're needed (e.g. to trigger messages)
+		this.contracts = new LazyContracts(this::contracts);
 		if (options.isFailOnNoStubs() && this.stubs.isEmpty() && this.contracts.isEmpty()) {
 			throw new IllegalStateException("No stubs or contracts were found for ["
 					+ (stubConfiguration != null ? stubConfiguration.toColonSeparatedDependencyNotation() : null)
@@ -94,15 +111,120 @@ class StubRepository {
 		return this.stubs;
 	}
 
+	/**
+	 * @return the HTTP server stub used when there are none on the classpath. The stubs
+	 * get registered in the same instance that checked them, so it can reuse what it read
+	 * for the checks
+	 */
+	HttpServerStub getDefaultHttpServerStub() {
+		return this.defaultHttpServerStub;
+	}
+
 	public Collection<Contract> getContracts() {
 		return this.contracts;
 	}
 
+	/**
+	 * @param file file of the repository
+	 * @return {@code true} if the file is a stub mapping to be registered in the HTTP
+	 * server stub
+	 */
+	boolean isStub(File file) {
+		return file.isFile() && !isBundleFile(file) && !underBundleRoot(file, acceptedBundles())
+				&& isStubPerConsumerPathMatching(file) && httpServerStubAccepts(file);
+	}
+
+	/**
+	 * Makes the contracts get parsed again on next access.
+	 */
+	void contractsChanged() {
+		((LazyContracts) this.contracts).invalidate();
+	}
+
 	/**
 	 * @return a list of contracts
 	 */
 	private Collection<Contract> contracts() {
-		return new ArrayList<>(contractDescriptors());
+		List<Contract> contracts = new ArrayList<>(bundledContracts());
+		contracts.addAll(contractDescriptors());
+		return contracts;
+	}
+
+	/**
+	 * Finds the stub bundles. Bundles are not used when stubs per consumer are turned on,
+	 * since the filtering has to happen on the plain files.
+	 * @return stub bundles found in the repository
+	 */
+	private List<StubBundle> stubBundles() {
+		if (!this.path.exists() || this.options.isStubsPerConsumer()) {
+			return Collections.emptyList();
+		}
+		try (Stream<Path> paths = Files.find(this.path.toPath(), BUNDLE_SEARCH_DEPTH,
+				(path, attrs) -> attrs.isRegularFile()
+						&& StubBundle.BUNDLE_FILE_NAME.equals(path.getFileName().toString()))) {
+			List<StubBundle> bundles = paths.map(Path::toFile)
+				.filter(StubBundle::isBundle)
+				.map(StubBundle::read)
+				.collect(Collectors.toList());
+			if (log.isDebugEnabled() && !bundles.isEmpty()) {
+				log.debug("Found the following stub bundles " + bundles.stream()
+					.map(StubBundle::getFile)
+					.collect(Collectors.toList()) + ", the plain files in their roots will be ignored");
+			}
+			return bundles;
+		}
+		catch (IOException | IllegalStateException e) {
+			log.warn("Exception occurred while trying to read the stub bundles, will fall back to plain files", e);
+			return Collections.emptyList();
+		}
+	}
+
+	private Collection<Contract> bundledContracts() {
+		List<Contract> contracts = new ArrayList<>();
+		for (StubBundle bundle : this.bundles) {
+			for (StubBundle.Entry entry : bundle.getEntries()) {
+				File contractFile = bundle.fileOf(entry);
+				if (entry.getType() == StubBundle.EntryType.CONTRACT) {
+					contracts.addAll(YamlContractConverter.INSTANCE.convertFrom(entry.getData(), contractFile));
+				}
+				else if (entry.getType() == StubBundle.EntryType.CONTRACT_SOURCE) {
+					contracts.addAll(ContractScanner.collectContractDescriptors(contractSource(contractFile, entry)));
+				}
+			}
+		}
+		return contracts;
+	}
+
+	// jars can contain just the bundle, the converters need the source as a file
+	private File contractSource(File contractFile, StubBundle.Entry entry) {
+		if (contractFile.exists()) {
+			return contractFile;
+		}
+		File tempDir = TemporaryFileStorage.createTempDir("bundled-contracts");
+		TemporaryFileStorage.add(tempDir);
+		File source = new File(tempDir, entry.getName());
+		try {
+			Files.createDirectories(source.getParentFile().toPath());
+			Files.write(source.toPath(), entry.getData());
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Failed to write the bundled contract [" + entry.getName() + "]", ex);
+		}
+		return source;
+	}
+
+	private boolean isBundleFile(File file) {
+		return StubBundle.BUNDLE_FILE_NAME.equals(file.getName());
+	}
+
+	private boolean underBundleRoot(File file, Collection<StubBundle> bundles) {
+		Path path = file.toPath().normalize();
+		for (StubBundle bundle : bundles) {
+			if (path.startsWith(bundle.getRoot().toPath())) {
+				return true;
+			}
+		}
+		return false;
 	}
 
 	/**
@@ -118,12 +240,25 @@ class StubRepository {
 
 	private List<File> collectMappings(File descriptorsDirectory) {
 		final List<File> mappingDescriptors = new ArrayList<>();
+		final List<StubBundle> acceptedBundles = acceptedBundles();
+		for (StubBundle bundle : acceptedBundles) {
+			mappingDescriptors.add(bundle.getFile());
+		}
 		try {
 			Files.walkFileTree(Paths.get(descriptorsDirectory.toURI()), new SimpleFileVisitor<Path>() {
+				@Override
+				public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+					if (underBundleRoot(dir.toFile(), acceptedBundles)) {
+						return FileVisitResult.SKIP_SUBTREE;
+					}
+					return super.preVisitDirectory(dir, attrs);
+				}
+
 				@Override
 				public FileVisitResult visitFile(Path path, BasicFileAttributes attrs) throws IOException {
 					File file = path.toFile();
-					if (httpServerStubAccepts(file) && isStubPerConsumerPathMatching(file)) {
+					// bundles were handled above
+					if (!isBundleFile(file) && isStubPerConsumerPathMatching(file) && httpServerStubAccepts(file)) {
 						mappingDescriptors.add(file);
 					}
 					return super.visitFile(path, attrs);
@@ -136,22 +271,39 @@ class StubRepository {
 		return mappingDescriptors;
 	}
 
+	// the server the stubs get registered in has to read the bundles, otherwise it gets
+	// the plain mapping files
+	private List<StubBundle> acceptedBundles() {
+		HttpServerStub httpServerStub = StubRunnerExecutor.activeHttpServerStub(this.httpServerStubs,
+				this.defaultHttpServerStub);
+		return this.bundles.stream()
+			.filter(bundle -> httpServerStub.isAccepted(bundle.getFile()))
+			.collect(Collectors.toList());
+	}
+
 	private boolean httpServerStubAccepts(File file) {
 		for (HttpServerStub httpServerStub : this.httpServerStubs) {
 			if (httpServerStub.isAccepted(file)) {
 				return true;
 			}
 		}
-		// the default implementation
-		return new WireMockHttpServerStub().isAccepted(file);
+		return this.defaultHttpServerStub.isAccepted(file);
 	}
 
 	private Collection<Contract> contractDescriptors() {
 		return (this.path.exists()
-				? ContractScanner.collectContractDescriptors(this.path, this::isStubPerConsumerPathMatching)
+				? ContractScanner.collectContractDescriptors(this.path,
+						file -> !underBundleRoot(file, this.bundles) && isStubPerConsumerPathMatching(file),
+						contractParsingThreads())
 				: Collections.<Contract>emptySet());
 	}
 
+	private int contractParsingThreads() {
+		String threads = StubRunnerPropertyUtils.getProperty(this.options.getProperties(),
+				CONTRACT_PARSING_THREADS_PROPERTY);
+		return StringUtils.hasText(threads) ? Integer.parseInt(threads.trim()) : 1;
+	}
+
 	private boolean isStubPerConsumerPathMatching(File file) {
 		if (!this.options.isStubsPerConsumer()) {
 			return true;
@@ -167,4 +319,52 @@ class StubRepository {
 		return stubPerConsumerMatching;
 	}
 
+	/**
+	 * Contracts parsed on first access.
+	 */
+	private static final class LazyContracts extends AbstractCollection<Contract> {
+
+		private final Supplier<Collection<Contract>> supplier;
+
+		private volatile Collection<Contract> contracts;
+
+		private LazyContracts(Supplier<Collection<Contract>> supplier) {
+			this.supplier = supplier;
+		}
+
+		private Collection<Contract> contracts() {
+			Collection<Contract> contracts = this.contracts;
+			if (contracts == null) {
+				synchronized (this) {
+					contracts = this.contracts;
+					if (contracts == null) {
+						contracts = Collections.unmodifiableCollection(this.supplier.get());
+						this.contracts = contracts;
+					}
+				}
+			}
+			return contracts;
+		}
+
+		private void invalidate() {
+			this.contracts = null;
+		}
+
+		@Override
+		public Iterator<Contract> iterator() {
+			return contracts().iterator();
+		}
+
+		@Override
+		public int size() {
+			return contracts().size();
+		}
+
+		@Override
+		public String toString() {
+			return this.contracts == null ? "[not parsed yet]" : this.contracts.toString();
+		}
+
+	}
+
 }
@@ -0,0 +1,243 @@
+/*
+ * Copyright 2013-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.contract.stubrunner;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Watches the folder of a {@link StubRepository} and applies the changed stub mappings
+ * to the running server, without restarting it. Only the changed files get parsed
+ * again. A change of any other file makes the contracts get parsed again on next
+ * access. Meant for stubs read in place from a local folder, changes of stubs that were
+ * copied or unpacked to a temporary folder won't be noticed.
+ *
+ * @author Marcin Grzejszczak
+ * @since 5.0.4
+ */
+final class StubRepositoryWatcher implements Closeable {
+
+	private static final Log log = LogFactory.getLog(StubRepositoryWatcher.class);
+
+	/**
+	 * Set to {@code true} to reload the stubs when their files change.
+	 */
+	static final String ENABLED_PROPERTY = "stubs.hot-reload.enabled";
+
+	// editors tend to write a file in a few steps, changes that follow each other
+	// within this time are applied together
+	private static final long QUIET_PERIOD_MILLIS = 100;
+
+	private final StubRepository repository;
+
+	private final StubServer stubServer;
+
+	private final WatchService watchService;
+
+	private final Map<WatchKey, Path> directories = new ConcurrentHashMap<>();
+
+	// accessed only by the watching thread
+	private final Set<File> stubs;
+
+	private StubRepositoryWatcher(StubRepository repository, StubServer stubServer, WatchService watchService) {
+		this.repository = repository;
+		this.stubServer = stubServer;
+		this.watchService = watchService;
+		this.stubs = new LinkedHashSet<>(repository.getStubs());
+	}
+
+	static boolean isEnabled(StubRunnerOptions options) {
+		return Boolean.parseBoolean(StubRunnerPropertyUtils.getProperty(options.getProperties(), ENABLED_PROPERTY));
+	}
+
+	/**
+	 * Starts watching the folder of the repository.
+	 * @param repository repository to watch
+	 * @param stubServer server to which the changes get applied
+	 * @return the watcher, to be closed when the server gets stopped
+	 */
+	static StubRepositoryWatcher watch(StubRepository repository, StubServer stubServer) {
+		StubRepositoryWatcher watcher;
+		try {
+			watcher = new StubRepositoryWatcher(repository, stubServer,
+					repository.getPath().toPath().getFileSystem().newWatchService());
+			watcher.register(watcher.root());
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Failed to watch the stubs under [" + repository.getPath() + "]", ex);
+		}
+		Thread thread = new Thread(watcher::run,
+				"stub-reloader-" + stubServer.getStubConfiguration().getArtifactId());
+		thread.setDaemon(true);
+		thread.start();
+		log.info("Watching [" + repository.getPath() + "] for changes of the stubs of project ["
+				+ stubServer.getStubConfiguration().toColonSeparatedDependencyNotation() + "]");
+		return watcher;
+	}
+
+	// same form as the paths of the stubs of the repository
+	private Path root() {
+		return this.repository.getPath().toPath().toAbsolutePath().normalize();
+	}
+
+	/**
+	 * Registers the folder and all of its sub folders.
+	 * @return files found in the registered folders
+	 */
+	private Set<Path> register(Path root) throws IOException {
+		Set<Path> files = new LinkedHashSet<>();
+		Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+			@Override
+			public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+				WatchKey key = dir.register(StubRepositoryWatcher.this.watchService,
+						StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY,
+						StandardWatchEventKinds.ENTRY_DELETE);
+				StubRepositoryWatcher.this.directories.put(key, dir);
+				return FileVisitResult.CONTINUE;
+			}
+
+			@Override
+			public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+				files.add(file);
+				return FileVisitResult.CONTINUE;
+			}
+		});
+		return files;
+	}
+
+	private void run() {
+		try {
+			while (true) {
+				Set<Path> changed = new LinkedHashSet<>();
+				collect(this.watchService.take(), changed);
+				WatchKey key;
+				while ((key = this.watchService.poll(QUIET_PERIOD_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+					collect(key, changed);
+				}
+				apply(changed);
+			}
+		}
+		catch (ClosedWatchServiceException | InterruptedException ex) {
+			if (log.isDebugEnabled()) {
+				log.debug("Stopped watching [" + this.repository.getPath() + "]");
+			}
+		}
+	}
+
+	private void collect(WatchKey key, Set<Path> changed) {
+		Path directory = this.directories.get(key);
+		for (WatchEvent<?> event : key.pollEvents()) {
+			if (event.kind() == StandardWatchEventKinds.OVERFLOW || directory == null) {
+				// events got lost, compare all the files
+				this.stubs.forEach(stub -> changed.add(stub.toPath()));
+				changed.addAll(registerQuietly(root()));
+				continue;
+			}
+			Path path = directory.resolve((Path) event.context());
+			changed.add(path);
+			if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path)) {
+				changed.addAll(registerQuietly(path));
+			}
+		}
+		if (!key.reset()) {
+			this.directories.remove(key);
+		}
+	}
+
+	private Set<Path> registerQuietly(Path directory) {
+		try {
+			return register(directory);
+		}
+		catch (IOException ex) {
+			log.warn("Failed to watch [" + directory + "] for changes of the stubs", ex);
+			return new LinkedHashSet<>();
+		}
+	}
+
+	private void apply(Set<Path> changed) {
+		Set<File> changedStubs = new LinkedHashSet<>();
+		boolean contractsChanged = false;
+		for (Path path : changed) {
+			File file = path.toFile();
+			// a removed folder removes all of its stubs
+			boolean removed = !file.exists();
+			for (Iterator<File> iterator = this.stubs.iterator(); iterator.hasNext();) {
+				File stub = iterator.next();
+				if (removed ? stub.toPath().startsWith(path) : stub.equals(file)) {
+					iterator.remove();
+					changedStubs.add(stub);
+				}
+			}
+			if (this.repository.isStub(file)) {
+				this.stubs.add(file);
+				changedStubs.add(file);
+			}
+			else if (!changedStubs.contains(file) && !file.isDirectory()) {
+				contractsChanged = true;
+			}
+		}
+		try {
+			if (!changedStubs.isEmpty()) {
+				this.stubServer.reloadMappings(new ArrayList<>(this.stubs), changedStubs);
+				log.info("Reloaded [" + changedStubs.size() + "] changed stub files of project ["
+						+ this.stubServer.getStubConfiguration().toColonSeparatedDependencyNotation() + "]");
+			}
+			if (contractsChanged) {
+				this.repository.contractsChanged();
+				if (log.isDebugEnabled()) {
+					log.debug("Files under [" + this.repository.getPath()
+							+ "] changed, the contracts will be parsed again");
+				}
+			}
+		}
+		catch (RuntimeException ex) {
+			log.warn("Failed to reload the changed stubs " + changedStubs, ex);
+		}
+	}
+
+	@Override
+	public void close() {
+		try {
+			this.watchService.close();
+		}
+		catch (IOException ex) {
+			log.warn("Failed to stop watching [" + this.repository.getPath() + "]", ex);
+		}
+	}
+
+}
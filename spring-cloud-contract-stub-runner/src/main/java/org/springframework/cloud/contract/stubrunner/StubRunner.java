@@ -25,6 +25,7 @@ import java.nio.file.Paths;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -54,6 +55,8 @@ public class StubRunner implements StubRunning {
 
 	private final StubRunnerExecutor localStubRunner;
 
+	private final AtomicBoolean unpackedStubsReleased = new AtomicBoolean();
+
 	public StubRunner(StubRunnerOptions stubRunnerOptions, String repositoryPath,
 			StubConfiguration stubsConfiguration) {
 		this(stubRunnerOptions, repositoryPath, stubsConfiguration, new NoOpStubMessages<>());
@@ -163,6 +166,21 @@ public class StubRunner implements StubRunning {
 		return this.localStubRunner.labels();
 	}
 
+	/**
+	 * Drops the requests recorded by the running stub server and the state of its
+	 * scenarios, keeping it running with the same mappings.
+	 * @since 5.0.4
+	 */
+	public void reset() {
+		if (this.localStubRunner != null) {
+			this.localStubRunner.reset();
+		}
+	}
+
+	StubRunnerOptions getStubRunnerOptions() {
+		return this.stubRunnerOptions;
+	}
+
 	private void registerShutdownHook() {
 		Runnable stopAllServers = new Runnable() {
 			@Override
@@ -183,6 +201,10 @@ public class StubRunner implements StubRunning {
 			this.localStubRunner.shutdown();
 		}
 		TemporaryFileStorage.cleanup(this.stubRunnerOptions.isDeleteStubsAfterTest());
+		// closed explicitly and by the shutdown hook
+		if (this.unpackedStubsReleased.compareAndSet(false, true)) {
+			StubUnpackCache.release(this.stubRepository.getPath());
+		}
 	}
 
 }
@@ -0,0 +1,238 @@
+/*
+ * Copyright 2013-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.contract.stubrunner;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+import org.springframework.util.StringUtils;
+
+/**
+ * Files through which the JVMs sharing a stub runner daemon coordinate. All of them are
+ * stored in the temporary folder, under a name derived from the stub runner options, so
+ * that JVMs running the same stubs find the same daemon.
+ *
+ * <ul>
+ * <li>{@code .lock} - held exclusively while a JVM attaches to the daemon or starts
+ * it</li>
+ * <li>{@code .port} - port of the running daemon, written by the daemon once its stubs
+ * are running</li>
+ * <li>{@code .clients} - each attached JVM holds a shared lock on it, the daemon stops
+ * once it can lock it exclusively</li>
+ * <li>{@code .log} - output of the daemon</li>
+ * </ul>
+ *
+ * @author Marcin Grzejszczak
+ * @since 5.0.4
+ */
+public final class StubRunnerDaemonFiles {
+
+	private static final Path DIRECTORY = Paths.get(System.getProperty("java.io.tmpdir"),
+			"spring-cloud-contract-stub-runner");
+
+	private final Path base;
+
+	private StubRunnerDaemonFiles(Path base) {
+		this.base = base;
+	}
+
+	/**
+	 * @param options options of the stubs run by the daemon
+	 * @return files of the daemon running stubs with the given options
+	 */
+	static StubRunnerDaemonFiles of(StubRunnerOptions options) {
+		return new StubRunnerDaemonFiles(DIRECTORY.resolve("daemon-" + key(options)));
+	}
+
+	/**
+	 * @param base path of the files without the extension
+	 * @return files with the given base path
+	 */
+	public static StubRunnerDaemonFiles of(String base) {
+		return new StubRunnerDaemonFiles(Paths.get(base));
+	}
+
+	// forks of the same build run in the same folder, with the same options
+	static String key(StubRunnerOptions options) {
+		Map<String, String> properties = new TreeMap<>(
+				options.getProperties() != null ? options.getProperties() : Map.of());
+		String key = System.getProperty("user.dir") + "|" + options.getDependencies() + "|"
+				+ options.getStubIdsToPortMapping() + "|" + options.getStubRepositoryRootAsString() + "|"
+				+ options.getStubsMode() + "|" + options.getStubsClassifier() + "|" + options.getUsername() + "|"
+				+ options.getPassword() + "|" + options.getStubRunnerProxyOptions() + "|"
+				+ options.isStubsPerConsumer() + "|" + options.getConsumerName() + "|"
+				+ options.getMappingsOutputFolder() + "|" + options.isDeleteStubsAfterTest() + "|"
+				+ options.isGenerateStubs() + "|" + options.isFailOnNoStubs() + "|" + properties + "|"
+				+ options.getHttpServerStubConfigurer() + "|" + options.getServerId() + "|"
+				+ options.getMinPortValue() + "|" + options.getMaxPortValue();
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+			StringBuilder hex = new StringBuilder();
+			for (int i = 0; i < 8; i++) {
+				hex.append(String.format("%02x", digest[i]));
+			}
+			return hex.toString();
+		}
+		catch (NoSuchAlgorithmException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	/**
+	 * @return path of the files without the extension
+	 */
+	public String getBase() {
+		return this.base.toString();
+	}
+
+	Path getLog() {
+		return file(".log");
+	}
+
+	/**
+	 * Runs the action while holding the exclusive start lock. Blocks until the lock is
+	 * free.
+	 */
+	<T> T whileStarting(Supplier<T> action) {
+		try (FileChannel channel = channel(".lock"); FileLock lock = channel.lock()) {
+			return action.get();
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Failed to lock [" + file(".lock") + "]", ex);
+		}
+	}
+
+	/**
+	 * Marks this JVM as a client of the daemon.
+	 * @return releases the mark
+	 */
+	Closeable attachClient() {
+		try {
+			FileChannel channel = channel(".clients");
+			FileLock lock = channel.lock(0, Long.MAX_VALUE, true);
+			return () -> {
+				lock.release();
+				channel.close();
+			};
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Failed to lock [" + file(".clients") + "]", ex);
+		}
+	}
+
+	/**
+	 * @return port of the daemon or {@code null} if no daemon published its port
+	 */
+	Integer readPort() {
+		Path port = file(".port");
+		try {
+			String content = Files.exists(port) ? new String(Files.readAllBytes(port), StandardCharsets.UTF_8) : "";
+			return StringUtils.hasText(content) ? Integer.valueOf(content.trim()) : null;
+		}
+		catch (IOException | NumberFormatException ex) {
+			return null;
+		}
+	}
+
+	void deletePort() {
+		try {
+			Files.deleteIfExists(file(".port"));
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Failed to delete [" + file(".port") + "]", ex);
+		}
+	}
+
+	/**
+	 * Publishes the port of the daemon.
+	 * @param port port of the daemon
+	 */
+	public void writePort(int port) {
+		try {
+			Path tmp = Files.createTempFile(this.base.getParent(), "port", ".tmp");
+			Files.write(tmp, String.valueOf(port).getBytes(StandardCharsets.UTF_8));
+			Files.move(tmp, file(".port"), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Failed to write [" + file(".port") + "]", ex);
+		}
+	}
+
+	/**
+	 * Withdraws the port of the daemon if no JVM is attached to it and none is attaching.
+	 * The daemon should stop when it returns {@code true}.
+	 * @return {@code true} if no JVM is attached to the daemon
+	 */
+	public boolean detachDaemonIfUnused() {
+		try (FileChannel lockChannel = channel(".lock"); FileLock lock = tryLock(lockChannel)) {
+			if (lock == null) {
+				return false;
+			}
+			try (FileChannel clientsChannel = channel(".clients");
+					FileLock clients = tryLock(clientsChannel)) {
+				if (clients == null) {
+					return false;
+				}
+				deletePort();
+				return true;
+			}
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Failed to check the clients of [" + this.base + "]", ex);
+		}
+	}
+
+	// the lock might be held within this JVM too
+	private FileLock tryLock(FileChannel channel) throws IOException {
+		try {
+			return channel.tryLock();
+		}
+		catch (OverlappingFileLockException ex) {
+			return null;
+		}
+	}
+
+	private FileChannel channel(String extension) throws IOException {
+		Files.createDirectories(this.base.getParent());
+		return FileChannel.open(file(extension), StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+	}
+
+	private Path file(String extension) {
+		return this.base.resolveSibling(this.base.getFileName() + extension);
+	}
+
+	@Override
+	public String toString() {
+		return this.base.toString();
+	}
+
+}
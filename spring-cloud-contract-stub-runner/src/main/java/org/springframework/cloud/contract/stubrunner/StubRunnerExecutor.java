@@ -27,6 +27,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ScheduledFuture;
 
 import groovy.json.JsonOutput;
 import org.apache.commons.logging.Log;
@@ -39,7 +40,6 @@ import org.springframework.cloud.contract.spec.internal.FromFileProperty;
 import org.springframework.cloud.contract.spec.internal.Headers;
 import org.springframework.cloud.contract.spec.internal.OutputMessage;
 import org.springframework.cloud.contract.stubrunner.AvailablePortScanner.PortCallback;
-import org.springframework.cloud.contract.stubrunner.provider.wiremock.WireMockHttpServerStub;
 import org.springframework.cloud.contract.verifier.converter.YamlContract;
 import org.springframework.cloud.contract.verifier.converter.YamlContractConverter;
 import org.springframework.cloud.contract.verifier.messaging.MessageVerifierSender;
@@ -54,6 +54,11 @@ class StubRunnerExecutor implements StubFinder {
 
 	static final Set<StubServer> STUB_SERVERS = Collections.synchronizedSet(new HashSet<>());
 
+	/**
+	 * Set to {@code true} to start the stub servers on first use.
+	 */
+	static final String LAZY_START_PROPERTY = "stubs.lazy-start.enabled";
+
 	private static final Log log = LogFactory.getLog(StubRunnerExecutor.class);
 
 	private final AvailablePortScanner portScanner;
@@ -64,6 +69,10 @@ class StubRunnerExecutor implements StubFinder {
 
 	private StubServer stubServer;
 
+	private ScheduledFuture<?> idleCheck;
+
+	private StubRepositoryWatcher stubWatcher;
+
 	private final YamlContractConverter yamlContractConverter = new YamlContractConverter();
 
 	StubRunnerExecutor(AvailablePortScanner portScanner, MessageVerifierSender<?> messageVerifierSender,
@@ -104,11 +113,26 @@ class StubRunnerExecutor implements StubFinder {
 	}
 
 	public void shutdown() {
+		if (this.idleCheck != null) {
+			this.idleCheck.cancel(false);
+		}
+		if (this.stubWatcher != null) {
+			this.stubWatcher.close();
+		}
 		if (this.stubServer != null) {
 			this.stubServer.stop();
 		}
 	}
 
+	/**
+	 * Drops the requests recorded by the stub server and the state of its scenarios.
+	 */
+	void reset() {
+		if (this.stubServer != null) {
+			this.stubServer.reset();
+		}
+	}
+
 	String registeredMappings() {
 		return this.stubServer.registeredMappings();
 	}
@@ -275,18 +299,19 @@ class StubRunnerExecutor implements StubFinder {
 	}
 
 	private URL returnStubUrlIfMatches(boolean condition) {
-		return condition ? this.stubServer.getStubUrl() : null;
+		return condition ? this.stubServer.ensureStarted().getStubUrl() : null;
 	}
 
 	private StubServer startStubServers(HttpServerStubConfigurer configurer, final StubRunnerOptions stubRunnerOptions,
 			final StubConfiguration stubConfiguration, StubRepository repository) {
 		final List<File> mappings = repository.getStubs();
-		final Collection<Contract> contracts = repository.contracts;
+		final Collection<Contract> contracts = repository.getContracts();
 		Integer port = stubRunnerOptions.port(stubConfiguration);
 		boolean randomPort = randomPort(port);
 		HttpServerStubConfiguration configuration = new HttpServerStubConfiguration(configurer, stubRunnerOptions,
 				stubConfiguration, port, randomPort);
-		if (!hasRequest(contracts) && mappings.isEmpty()) {
+		// contracts are parsed lazily, check them only when there are no mappings
+		if (mappings.isEmpty() && !hasRequest(contracts)) {
 			if (log.isDebugEnabled()) {
 				log.debug("There are no HTTP related contracts. Won't start any servers");
 			}
@@ -294,24 +319,57 @@ class StubRunnerExecutor implements StubFinder {
 				.start(configuration);
 			return this.stubServer;
 		}
-		if (!randomPort) {
-			this.stubServer = new StubServer(stubConfiguration, mappings, contracts, httpServerStub())
+		if (startLazily(stubRunnerOptions)) {
+			int lazyPort = randomPort ? this.portScanner.reserveFreePort() : port;
+			this.stubServer = new StubServer(stubConfiguration, mappings, contracts, httpServerStub(repository)).startLazily(
+					new HttpServerStubConfiguration(configurer, stubRunnerOptions, stubConfiguration, lazyPort,
+							randomPort),
+					() -> this.portScanner.releaseReservation(lazyPort));
+		}
+		else if (!randomPort) {
+			this.stubServer = new StubServer(stubConfiguration, mappings, contracts, httpServerStub(repository))
 				.start(configuration);
 		}
 		else {
 			this.stubServer = this.portScanner.tryToExecuteWithFreePort(new PortCallback<StubServer>() {
 				@Override
 				public StubServer call(int availablePort) {
-					return new StubServer(stubConfiguration, mappings, contracts, httpServerStub())
+					return new StubServer(stubConfiguration, mappings, contracts, httpServerStub(repository))
 						.start(new HttpServerStubConfiguration(configurer, stubRunnerOptions, stubConfiguration,
 								availablePort, true));
 				}
 			});
 		}
 		STUB_SERVERS.add(this.stubServer);
+		StubIdleEvictor idleEvictor = StubIdleEvictor.fromOptions(stubRunnerOptions);
+		if (idleEvictor != null && !hasCustomConfigurer(stubRunnerOptions, "idle stub servers will not be stopped")) {
+			this.idleCheck = idleEvictor.watch(this.stubServer, this.portScanner);
+		}
+		if (StubRepositoryWatcher.isEnabled(stubRunnerOptions)) {
+			this.stubWatcher = StubRepositoryWatcher.watch(repository, this.stubServer);
+		}
 		return this.stubServer;
 	}
 
+	private boolean startLazily(StubRunnerOptions stubRunnerOptions) {
+		if (!Boolean.parseBoolean(
+				StubRunnerPropertyUtils.getProperty(stubRunnerOptions.getProperties(), LAZY_START_PROPERTY))) {
+			return false;
+		}
+		return !hasCustomConfigurer(stubRunnerOptions, "the stub servers will not be started lazily");
+	}
+
+	// a custom configurer might e.g. switch to https on another port than the published
+	// one, so servers can't be started later on the published port
+	private boolean hasCustomConfigurer(StubRunnerOptions stubRunnerOptions, String consequence) {
+		if (stubRunnerOptions
+			.getHttpServerStubConfigurer() != HttpServerStubConfigurer.NoOpHttpServerStubConfigurer.class) {
+			log.warn("A custom HTTP server stub configurer is set, " + consequence);
+			return true;
+		}
+		return false;
+	}
+
 	private boolean randomPort(Integer port) {
 		return port == null || port == 0;
 	}
@@ -328,13 +386,22 @@ class StubRunnerExecutor implements StubFinder {
 		return false;
 	}
 
-	private HttpServerStub httpServerStub() {
+	private HttpServerStub httpServerStub(StubRepository repository) {
+		return activeHttpServerStub(this.serverStubs, repository.getDefaultHttpServerStub());
+	}
+
+	/**
+	 * @param serverStubs HTTP server stubs found on the classpath
+	 * @param defaultServerStub server stub to use when there are none
+	 * @return the HTTP server stub in which the stubs get registered
+	 */
+	static HttpServerStub activeHttpServerStub(List<HttpServerStub> serverStubs, HttpServerStub defaultServerStub) {
 		// the default impl is the WireMock one
-		if (this.serverStubs.isEmpty()) {
-			return new WireMockHttpServerStub();
+		if (serverStubs.isEmpty()) {
+			return defaultServerStub;
 		}
 		// first one wins
-		return this.serverStubs.get(0);
+		return serverStubs.get(0);
 	}
 
 }
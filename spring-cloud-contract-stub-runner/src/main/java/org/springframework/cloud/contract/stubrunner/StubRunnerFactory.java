@@ -28,6 +28,12 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -40,6 +46,7 @@ import org.springframework.cloud.contract.verifier.messaging.MessageVerifierSend
 import org.springframework.cloud.contract.verifier.wiremock.DslToWireMockClientConverter;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.support.SpringFactoriesLoader;
+import org.springframework.util.StringUtils;
 
 /**
  * Factory of StubRunners. Basing on the options and passed collaborators downloads the
@@ -49,6 +56,22 @@ class StubRunnerFactory {
 
 	private static final Log log = LogFactory.getLog(StubRunnerFactory.class);
 
+	/**
+	 * Number of threads used to download and unpack the stubs. The stubs are downloaded
+	 * one after another by default.
+	 */
+	static final String DOWNLOAD_THREADS_PROPERTY = "stubs.download-threads";
+
+	private static final int DEFAULT_DOWNLOAD_THREADS = 1;
+
+	/**
+	 * Number of threads used to convert the contracts to stubs when the stubs are
+	 * generated at runtime.
+	 */
+	static final String GENERATE_STUBS_THREADS_PROPERTY = "stubs.generate-stubs-threads";
+
+	private static final int DEFAULT_GENERATE_STUBS_THREADS = 1;
+
 	private final StubRunnerOptions stubRunnerOptions;
 
 	private final StubDownloader stubDownloader;
@@ -70,27 +93,85 @@ class StubRunnerFactory {
 			log.warn("No stubs to download have been passed. Most likely you have forgotten to pass "
 					+ "them either via annotation or a property");
 		}
+		List<StubConfiguration> dependencies = new ArrayList<>(this.stubRunnerOptions.getDependencies());
+		int poolSize = Math.min(downloadThreads(), dependencies.size());
 		Collection<StubRunner> result = new ArrayList<>();
-		for (StubConfiguration stubsConfiguration : this.stubRunnerOptions.getDependencies()) {
-			Map.Entry<StubConfiguration, File> entry = this.stubDownloader.downloadAndUnpackStubJar(stubsConfiguration);
+		if (poolSize <= 1) {
+			for (StubConfiguration stubsConfiguration : dependencies) {
+				addIfPresent(result, downloadAndCreateStubRunner(stubsConfiguration));
+			}
+			return result;
+		}
+		if (log.isDebugEnabled()) {
+			log.debug("Will download [" + dependencies.size() + "] stubs using [" + poolSize + "] threads");
+		}
+		ExecutorService executorService = Executors.newFixedThreadPool(poolSize, new StubDownloadThreadFactory());
+		try {
+			List<Future<StubRunner>> futures = new ArrayList<>();
+			for (StubConfiguration stubsConfiguration : dependencies) {
+				futures.add(executorService.submit(() -> downloadAndCreateStubRunner(stubsConfiguration)));
+			}
+			// results are collected in the order of the dependencies
+			for (Future<StubRunner> future : futures) {
+				addIfPresent(result, future.get());
+			}
+			return result;
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while downloading stubs", ex);
+		}
+		catch (ExecutionException ex) {
+			if (ex.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) ex.getCause();
+			}
+			throw new IllegalStateException(ex.getCause());
+		}
+		finally {
+			executorService.shutdownNow();
+		}
+	}
+
+	private int downloadThreads() {
+		return threads(DOWNLOAD_THREADS_PROPERTY, DEFAULT_DOWNLOAD_THREADS);
+	}
+
+	private int generateStubsThreads() {
+		return threads(GENERATE_STUBS_THREADS_PROPERTY, DEFAULT_GENERATE_STUBS_THREADS);
+	}
+
+	private int threads(String property, int defaultValue) {
+		String threads = StubRunnerPropertyUtils.getProperty(this.stubRunnerOptions.getProperties(), property);
+		if (!StringUtils.hasText(threads)) {
+			return defaultValue;
+		}
+		return Integer.parseInt(threads.trim());
+	}
+
+	private void addIfPresent(Collection<StubRunner> result, StubRunner stubRunner) {
+		if (stubRunner != null) {
+			result.add(stubRunner);
+		}
+	}
+
+	private StubRunner downloadAndCreateStubRunner(StubConfiguration stubsConfiguration) {
+		Map.Entry<StubConfiguration, File> entry = this.stubDownloader.downloadAndUnpackStubJar(stubsConfiguration);
+		if (log.isDebugEnabled()) {
+			log.debug("For stub configuration [" + stubsConfiguration + "] the downloaded entry is [" + entry + "]");
+		}
+		if (entry == null) {
+			return null;
+		}
+		Path path = resolvePath(entry.getValue());
+		File unpackedLocation = path.toFile();
+		if (this.stubRunnerOptions.isGenerateStubs()) {
 			if (log.isDebugEnabled()) {
 				log.debug(
-						"For stub configuration [" + stubsConfiguration + "] the downloaded entry is [" + entry + "]");
-			}
-			if (entry != null) {
-				Path path = resolvePath(entry.getValue());
-				File unpackedLocation = path.toFile();
-				if (this.stubRunnerOptions.isGenerateStubs()) {
-					if (log.isDebugEnabled()) {
-						log.debug(
-								"Flag to generate stubs at runtime was switched on. Will remove the current mappings and will generate new ones.");
-					}
-					generateMappingsAtRuntime(path);
-				}
-				result.add(createStubRunner(entry.getKey(), unpackedLocation));
+						"Flag to generate stubs at runtime was switched on. Will remove the current mappings and will generate new ones.");
 			}
+			generateMappingsAtRuntime(path);
 		}
-		return result;
+		return createStubRunner(entry.getKey(), unpackedLocation);
 	}
 
 	private void generateMappingsAtRuntime(Path path) {
@@ -157,7 +238,7 @@ class StubRunnerFactory {
 		File unpackedLocation = path.toFile();
 		RecursiveFilesConverter converter = new RecursiveFilesConverter(
 				subfolderIfPresent(unpackedLocation, "mappings"), subfolderIfPresent(unpackedLocation, "contracts"),
-				new ArrayList<>(), ".*", false);
+				new ArrayList<>(), ".*", false, generateStubsThreads());
 		converter.processFiles();
 	}
 
@@ -182,4 +263,24 @@ class StubRunnerFactory {
 				this.contractVerifierMessaging);
 	}
 
+	/**
+	 * Stub downloaders resolve resources and Spring factories through the context class
+	 * loader, so the worker threads get the one of the thread that created the factory.
+	 */
+	private static final class StubDownloadThreadFactory implements ThreadFactory {
+
+		private final AtomicInteger counter = new AtomicInteger();
+
+		private final ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "stub-download-" + this.counter.incrementAndGet());
+			thread.setDaemon(true);
+			thread.setContextClassLoader(this.classLoader);
+			return thread;
+		}
+
+	}
+
 }
@@ -19,8 +19,10 @@ package org.springframework.cloud.contract.stubrunner;
 import java.io.File;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.time.Duration;
 import java.util.Collection;
 import java.util.Objects;
+import java.util.function.IntFunction;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -39,24 +41,147 @@ class StubServer {
 
 	private final HttpServerStub httpServerStub;
 
+	// mappings registered on start, differ from the initial ones after a reload
+	private volatile Collection<File> currentMappings;
+
+	// configuration of a server that gets started on first use
+	private volatile HttpServerStubConfiguration pendingConfiguration;
+
+	private Runnable releasePort;
+
+	// configuration the server was last started with
+	private HttpServerStubConfiguration configuration;
+
+	// request count and time of the last observed use, to detect idle servers
+	private long lastRequestCount = -1;
+
+	private volatile long lastUse = System.currentTimeMillis();
+
 	StubServer(StubConfiguration stubConfiguration, Collection<File> mappings, Collection<Contract> contracts,
 			HttpServerStub httpServerStub) {
 		this.stubConfiguration = stubConfiguration;
 		this.mappings = mappings;
+		this.currentMappings = mappings;
 		this.httpServerStub = httpServerStub;
 		this.contracts = contracts;
 	}
 
 	public StubServer start(HttpServerStubConfiguration configuration) {
 		this.httpServerStub.start(configuration);
+		this.configuration = configuration;
 		return stubServer();
 	}
 
+	/**
+	 * Publishes the port of the server without starting it. The server gets started when
+	 * {@link #ensureStarted()} is called for the first time.
+	 * @param configuration configuration with the port at which the server will be
+	 * started
+	 * @param releasePort releases the reservation of the port, called right before the
+	 * server gets started or when it gets stopped without having been started
+	 * @return this
+	 */
+	StubServer startLazily(HttpServerStubConfiguration configuration, Runnable releasePort) {
+		this.pendingConfiguration = configuration;
+		this.releasePort = releasePort;
+		log.info("Stub server for project [" + this.stubConfiguration.toColonSeparatedDependencyNotation()
+				+ "] will be started on port " + configuration.port + " on first use");
+		return this;
+	}
+
+	/**
+	 * Starts the server if its start was deferred. Safe to call concurrently, the server
+	 * gets started only once.
+	 * @return this
+	 */
+	StubServer ensureStarted() {
+		this.lastUse = System.currentTimeMillis();
+		if (this.pendingConfiguration == null) {
+			return this;
+		}
+		synchronized (this) {
+			HttpServerStubConfiguration configuration = this.pendingConfiguration;
+			if (configuration != null) {
+				this.releasePort.run();
+				start(configuration);
+				this.pendingConfiguration = null;
+			}
+		}
+		return this;
+	}
+
+	boolean isStartPending() {
+		return this.pendingConfiguration != null;
+	}
+
+	/**
+	 * @param now current time in milliseconds
+	 * @param idleTimeout time without requests and lookups after which the server is
+	 * idle
+	 * @return {@code true} if the server is running and was not used within the timeout.
+	 * Servers that can't tell how many requests they served are never idle
+	 */
+	synchronized boolean isIdle(long now, Duration idleTimeout) {
+		if (!isRunning()) {
+			return false;
+		}
+		long requestCount = this.httpServerStub.requestCount();
+		if (requestCount < 0) {
+			return false;
+		}
+		if (requestCount != this.lastRequestCount) {
+			this.lastRequestCount = requestCount;
+			this.lastUse = Math.max(this.lastUse, now);
+			return false;
+		}
+		return now - this.lastUse >= idleTimeout.toMillis();
+	}
+
+	/**
+	 * Stops the server and drops its mappings. The server gets started again, on the same
+	 * port, on its next use.
+	 * @param reservePort reserves the port until the server gets started again, returns
+	 * the callback releasing the reservation
+	 */
+	synchronized void evict(IntFunction<Runnable> reservePort) {
+		int port = this.httpServerStub.port();
+		HttpServerStubConfiguration configuration = this.configuration;
+		this.httpServerStub.reset();
+		stop();
+		this.lastRequestCount = -1;
+		startLazily(new HttpServerStubConfiguration(configuration.configurer, configuration.stubRunnerOptions,
+				configuration.stubConfiguration, port, configuration.randomPort), reservePort.apply(port));
+	}
+
+	/**
+	 * Applies changed stub files to the running server. A server that is not running
+	 * registers the new mappings once it gets started.
+	 * @param mappings all the stub files after the change
+	 * @param changedFiles stub files that were added, modified or removed
+	 */
+	synchronized void reloadMappings(Collection<File> mappings, Collection<File> changedFiles) {
+		this.currentMappings = mappings;
+		if (isRunning()) {
+			this.httpServerStub.reloadMappings(mappings, changedFiles);
+		}
+	}
+
+	/**
+	 * Drops the requests recorded by the running server and the state of its scenarios,
+	 * keeping it running with the same mappings.
+	 */
+	synchronized void reset() {
+		if (isRunning()) {
+			this.httpServerStub.resetState(this.currentMappings);
+		}
+	}
+
 	private StubServer stubServer() {
-		this.httpServerStub.registerMappings(this.mappings);
+		Collection<File> mappings = this.currentMappings;
+		this.httpServerStub.registerMappingsInBatch(mappings);
 		log.info("Started stub server for project [" + this.stubConfiguration.toColonSeparatedDependencyNotation()
-				+ "] on port " + this.httpServerStub.port() + " with [" + this.mappings.size() + "] mappings");
-		if (this.mappings.isEmpty() && getPort() != -1) {
+				+ "] on port " + this.httpServerStub.port() + " with [" + mappings.size() + "] mappings");
+		if (mappings.isEmpty() && getPort() != -1) {
 			log.warn(
 					"There are no HTTP mappings registered, if your contracts are not messaging based then something went wrong");
 		}
@@ -68,6 +193,15 @@ class StubServer {
 	}
 
 	public void stop() {
+		if (this.pendingConfiguration != null) {
+			synchronized (this) {
+				if (this.pendingConfiguration != null) {
+					this.releasePort.run();
+					this.pendingConfiguration = null;
+				}
+			}
+			return;
+		}
 		if (log.isDebugEnabled()) {
 			log.debug("Stopping the server at port [" + this.getPort() + "]");
 		}
@@ -75,6 +209,10 @@ class StubServer {
 	}
 
 	public int getPort() {
+		HttpServerStubConfiguration pending = this.pendingConfiguration;
+		if (pending != null) {
+			return pending.port;
+		}
 		if (this.httpServerStub.isRunning()) {
 			int httpsPort = this.httpServerStub.httpsPort();
 			int httpPort = this.httpServerStub.port();
@@ -113,7 +251,7 @@ class StubServer {
 	}
 
 	String registeredMappings() {
-		return this.httpServerStub.registeredMappings();
+		return ensureStarted().httpServerStub.registeredMappings();
 	}
 
 	HttpServerStub httpServerStub() {
@@ -129,13 +267,14 @@ class StubServer {
 			return false;
 		}
 		StubServer that = (StubServer) o;
+		// the contracts are parsed lazily, comparing them would parse them
 		return Objects.equals(this.stubConfiguration, that.stubConfiguration)
-				&& Objects.equals(this.contracts, that.contracts);
+				&& Objects.equals(this.mappings, that.mappings);
 	}
 
 	@Override
 	public int hashCode() {
-		return Objects.hash(this.stubConfiguration, this.contracts);
+		return Objects.hash(this.stubConfiguration, this.mappings);
 	}
 
 	@Override
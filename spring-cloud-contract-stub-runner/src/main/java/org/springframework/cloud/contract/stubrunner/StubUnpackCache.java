@@ -0,0 +1,399 @@
+/*
+ * Copyright 2013-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.contract.stubrunner;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.StringUtils;
+
+import static org.springframework.cloud.contract.stubrunner.util.ZipCategory.unzipTo;
+
+/**
+ * Cache of unpacked stub jars shared between JVMs. Each jar is unpacked once to a folder
+ * named after the SHA-256 checksum of the jar. The jar is unpacked to a temporary folder
+ * first and then atomically moved to its final location. The unpacking of a jar is
+ * guarded by a file lock, so concurrent JVMs don't unpack the same jar twice.
+ *
+ * When the size of the cache exceeds the limit the least recently used entries get
+ * removed. A JVM holds a shared file lock on each entry it uses until the stub runner
+ * using it gets closed, entries that can't be locked exclusively are in use and are never
+ * removed. Neither are entries used recently.
+ *
+ * The unpacked stubs must not be modified, that's why the cache is not used when the
+ * stubs are generated at runtime.
+ *
+ * @author Marcin Grzejszczak
+ * @since 5.0.4
+ */
+final class StubUnpackCache {
+
+	private static final Log log = LogFactory.getLog(StubUnpackCache.class);
+
+	/**
+	 * Set to {@code true} to enable the cache.
+	 */
+	static final String ENABLED_PROPERTY = "stubs.unpack-cache.enabled";
+
+	/**
+	 * Directory of the cache.
+	 */
+	static final String DIRECTORY_PROPERTY = "stubs.unpack-cache.dir";
+
+	/**
+	 * Maximum size of the cache in megabytes.
+	 */
+	static final String MAX_SIZE_PROPERTY = "stubs.unpack-cache.max-size-mb";
+
+	private static final long DEFAULT_MAX_SIZE_MB = 1024;
+
+	private static final Duration DEFAULT_EVICTION_GRACE_PERIOD = Duration.ofMinutes(30);
+
+	private static final String COMPLETE_MARKER = ".complete";
+
+	private static final String LOCK_SUFFIX = ".lock";
+
+	private static final String TEMP_SUFFIX = ".tmp-";
+
+	private static final String DELETED_SUFFIX = ".deleted-";
+
+	private static final String EVICTION_LOCK = "eviction" + LOCK_SUFFIX;
+
+	private static final String IN_USE_LOCK_SUFFIX = ".in-use" + LOCK_SUFFIX;
+
+	// file locks are held by the whole JVM, threads have to be synchronized separately
+	private static final Map<String, Object> JVM_LOCKS = new ConcurrentHashMap<>();
+
+	// shared locks of the entries used by this JVM, a JVM can't lock a file twice
+	private static final Map<Path, EntryUsage> USAGES = new HashMap<>();
+
+	private final Path root;
+
+	private final long maxSizeInBytes;
+
+	private final Duration evictionGracePeriod;
+
+	StubUnpackCache(Path root, long maxSizeInBytes, Duration evictionGracePeriod) {
+		this.root = root;
+		this.maxSizeInBytes = maxSizeInBytes;
+		this.evictionGracePeriod = evictionGracePeriod;
+	}
+
+	/**
+	 * @param options stub runner options
+	 * @return the cache or {@code null} if it's not enabled
+	 */
+	static StubUnpackCache fromOptions(StubRunnerOptions options) {
+		Map<String, String> properties = options.getProperties();
+		if (!Boolean.parseBoolean(StubRunnerPropertyUtils.getProperty(properties, ENABLED_PROPERTY))) {
+			return null;
+		}
+		if (options.isGenerateStubs()) {
+			log.warn("Stubs are generated at runtime, the unpacked stubs will not be cached");
+			return null;
+		}
+		String directory = StubRunnerPropertyUtils.getProperty(properties, DIRECTORY_PROPERTY);
+		Path root = StringUtils.hasText(directory) ? Paths.get(directory)
+				: Paths.get(System.getProperty("java.io.tmpdir"), "spring-cloud-contract-stubs");
+		String maxSize = StubRunnerPropertyUtils.getProperty(properties, MAX_SIZE_PROPERTY);
+		long maxSizeInMb = StringUtils.hasText(maxSize) ? Long.parseLong(maxSize.trim()) : DEFAULT_MAX_SIZE_MB;
+		if (log.isDebugEnabled()) {
+			log.debug("Will cache unpacked stubs in [" + root + "] with max size of [" + maxSizeInMb + "] MB");
+		}
+		return new StubUnpackCache(root, maxSizeInMb * 1024 * 1024, DEFAULT_EVICTION_GRACE_PERIOD);
+	}
+
+	/**
+	 * Returns the folder with the unpacked jar, unpacking it if it's not yet cached.
+	 * @param jar stub jar
+	 * @return folder with the unpacked jar
+	 */
+	File unpack(File jar) {
+		try {
+			Files.createDirectories(this.root);
+			String key = checksum(jar);
+			Path entry = this.root.resolve(key);
+			Path marker = entry.resolve(COMPLETE_MARKER);
+			boolean reused = true;
+			while (!touch(entry, marker)) {
+				// not unpacked yet or evicted by another JVM in the meantime
+				reused = false;
+				withLock(key + LOCK_SUFFIX, () -> {
+					if (!Files.exists(marker)) {
+						publish(jar, key, entry);
+					}
+				});
+			}
+			if (reused) {
+				log.info("Reusing stubs of [" + jar + "] unpacked to [" + entry + "]");
+			}
+			evictIfNecessary(entry);
+			return entry.toFile();
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Failed to unpack [" + jar + "] to the stubs cache [" + this.root + "]",
+					ex);
+		}
+	}
+
+	/**
+	 * Marks the entry as used and takes its shared lock. Done under the eviction lock, so
+	 * that the entry can't get evicted between the check and the update.
+	 * @return {@code false} if the entry is not in the cache
+	 */
+	private boolean touch(Path entry, Path marker) throws IOException {
+		AtomicBoolean present = new AtomicBoolean();
+		withLock(EVICTION_LOCK, () -> {
+			if (Files.exists(marker)) {
+				Files.setLastModifiedTime(marker, FileTime.from(Instant.now()));
+				use(entry);
+				present.set(true);
+			}
+		});
+		return present.get();
+	}
+
+	private void use(Path entry) throws IOException {
+		synchronized (USAGES) {
+			Path key = entry.toAbsolutePath().normalize();
+			EntryUsage usage = USAGES.get(key);
+			if (usage == null) {
+				FileChannel channel = FileChannel.open(inUseLock(entry), StandardOpenOption.CREATE,
+						StandardOpenOption.READ, StandardOpenOption.WRITE);
+				try {
+					channel.lock(0, Long.MAX_VALUE, true);
+				}
+				catch (IOException | RuntimeException ex) {
+					channel.close();
+					throw ex;
+				}
+				usage = new EntryUsage(channel);
+				USAGES.put(key, usage);
+			}
+			usage.references++;
+		}
+	}
+
+	/**
+	 * Releases the shared lock taken when the entry was returned by
+	 * {@link #unpack(File)}, once it was released as many times as it was returned.
+	 * @param entry folder with the unpacked stubs, nothing happens if it's not an entry
+	 * of a cache
+	 */
+	static void release(File entry) {
+		synchronized (USAGES) {
+			Path key = entry.toPath().toAbsolutePath().normalize();
+			EntryUsage usage = USAGES.get(key);
+			if (usage == null || --usage.references > 0) {
+				return;
+			}
+			USAGES.remove(key);
+			try {
+				// releases the lock
+				usage.channel.close();
+			}
+			catch (IOException ex) {
+				log.warn("Failed to release the lock of the cached stubs [" + entry + "]", ex);
+			}
+		}
+	}
+
+	private void publish(File jar, String key, Path entry) throws IOException {
+		Path temp = Files.createTempDirectory(this.root, key + TEMP_SUFFIX);
+		try {
+			log.info("Unpacking stub from JAR [" + jar + "] to the stubs cache");
+			unzipTo(jar, temp.toFile());
+			long size = size(temp);
+			Files.write(temp.resolve(COMPLETE_MARKER), String.valueOf(size).getBytes(StandardCharsets.UTF_8));
+			Files.move(temp, entry, StandardCopyOption.ATOMIC_MOVE);
+			log.info("Unpacked stub from JAR [" + jar + "] to [" + entry + "]");
+		}
+		finally {
+			FileSystemUtils.deleteRecursively(temp);
+		}
+	}
+
+	private void evictIfNecessary(Path current) throws IOException {
+		withLock(EVICTION_LOCK, () -> {
+			List<CachedEntry> entries = entries();
+			long total = entries.stream().mapToLong(entry -> entry.size).sum();
+			if (total <= this.maxSizeInBytes) {
+				return;
+			}
+			Instant threshold = Instant.now().minus(this.evictionGracePeriod);
+			entries.sort(Comparator.comparing(entry -> entry.lastAccess));
+			for (CachedEntry entry : entries) {
+				if (total <= this.maxSizeInBytes) {
+					return;
+				}
+				if (entry.path.equals(current) || entry.lastAccess.isAfter(threshold)) {
+					continue;
+				}
+				if (evictUnlessInUse(entry.path)) {
+					total -= entry.size;
+				}
+			}
+		});
+	}
+
+	private boolean evictUnlessInUse(Path entry) throws IOException {
+		synchronized (USAGES) {
+			if (USAGES.containsKey(entry.toAbsolutePath().normalize())) {
+				return false;
+			}
+		}
+		try (FileChannel channel = FileChannel.open(inUseLock(entry), StandardOpenOption.CREATE,
+				StandardOpenOption.READ, StandardOpenOption.WRITE); FileLock lock = tryLock(channel)) {
+			if (lock == null) {
+				if (log.isDebugEnabled()) {
+					log.debug("Not evicting [" + entry + "] from the stubs cache, it's still in use");
+				}
+				return false;
+			}
+			if (log.isDebugEnabled()) {
+				log.debug("Evicting [" + entry + "] from the stubs cache");
+			}
+			// move first so that no one sees a partially removed entry
+			Path deleted = this.root.resolve(entry.getFileName() + DELETED_SUFFIX + System.nanoTime());
+			Files.move(entry, deleted, StandardCopyOption.ATOMIC_MOVE);
+			FileSystemUtils.deleteRecursively(deleted);
+			return true;
+		}
+	}
+
+	// a lock held elsewhere in this JVM is reported with an exception
+	private static FileLock tryLock(FileChannel channel) throws IOException {
+		try {
+			return channel.tryLock();
+		}
+		catch (OverlappingFileLockException ex) {
+			return null;
+		}
+	}
+
+	private Path inUseLock(Path entry) {
+		return this.root.resolve(entry.getFileName() + IN_USE_LOCK_SUFFIX);
+	}
+
+	private List<CachedEntry> entries() throws IOException {
+		List<CachedEntry> entries = new ArrayList<>();
+		try (Stream<Path> paths = Files.list(this.root)) {
+			for (Path path : paths.collect(Collectors.toList())) {
+				Path marker = path.resolve(COMPLETE_MARKER);
+				if (Files.isRegularFile(marker)) {
+					long size = Long.parseLong(new String(Files.readAllBytes(marker), StandardCharsets.UTF_8).trim());
+					entries.add(new CachedEntry(path, size, Files.getLastModifiedTime(marker).toInstant()));
+				}
+			}
+		}
+		return entries;
+	}
+
+	private void withLock(String lockName, LockedAction action) throws IOException {
+		Path lockFile = this.root.resolve(lockName);
+		synchronized (JVM_LOCKS.computeIfAbsent(lockFile.toAbsolutePath().toString(), name -> new Object())) {
+			try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE,
+					StandardOpenOption.WRITE); FileLock lock = channel.lock()) {
+				action.run();
+			}
+		}
+	}
+
+	private static long size(Path directory) throws IOException {
+		try (Stream<Path> paths = Files.walk(directory)) {
+			return paths.filter(Files::isRegularFile).mapToLong(path -> path.toFile().length()).sum();
+		}
+	}
+
+	private static String checksum(File jar) throws IOException {
+		try (DigestInputStream stream = new DigestInputStream(Files.newInputStream(jar.toPath()),
+				MessageDigest.getInstance("SHA-256"))) {
+			byte[] buffer = new byte[8192];
+			while (stream.read(buffer) != -1) {
+				// reading the stream updates the digest
+			}
+			return HexFormat.of().formatHex(stream.getMessageDigest().digest());
+		}
+		catch (NoSuchAlgorithmException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	private interface LockedAction {
+
+		void run() throws IOException;
+
+	}
+
+	private static final class EntryUsage {
+
+		private final FileChannel channel;
+
+		private int references;
+
+		private EntryUsage(FileChannel channel) {
+			this.channel = channel;
+		}
+
+	}
+
+	private static final class CachedEntry {
+
+		private final Path path;
+
+		private final long size;
+
+		private final Instant lastAccess;
+
+		private CachedEntry(Path path, long size, Instant lastAccess) {
+			this.path = path;
+			this.size = size;
+			this.lastAccess = lastAccess;
+		}
+
+	}
+
+}
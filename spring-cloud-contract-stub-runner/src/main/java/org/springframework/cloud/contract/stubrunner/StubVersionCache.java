@@ -0,0 +1,159 @@
+/*
+ * Copyright 2013-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.contract.stubrunner;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Properties;
+import java.util.function.Supplier;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.util.StringUtils;
+
+/**
+ * Cache of resolved dynamic stub versions (e.g. {@code +} or version ranges), shared by
+ * all processes using the same local Maven repository. Within the time to live, a stub
+ * with a dynamic version is resolved without looking up the repository metadata.
+ *
+ * The cache is stored as a properties file. Updates are guarded by a file lock and the
+ * file is replaced atomically, so readers never see a partially written file.
+ *
+ * @author Marcin Grzejszczak
+ * @since 5.0.4
+ */
+final class StubVersionCache {
+
+	private static final Log log = LogFactory.getLog(StubVersionCache.class);
+
+	/**
+	 * Time to live of the resolved versions in seconds. The cache is disabled when not
+	 * set.
+	 */
+	static final String TTL_PROPERTY = "stubs.version-cache.ttl-seconds";
+
+	private static final String CACHE_FILE = ".spring-cloud-contract" + File.separator + "stub-versions.properties";
+
+	private static final String SEPARATOR = "|";
+
+	// file locks are held by the whole JVM, threads have to be synchronized separately
+	private static final Object JVM_LOCK = new Object();
+
+	private final Path file;
+
+	private final Duration ttl;
+
+	private final Clock clock;
+
+	StubVersionCache(Path file, Duration ttl, Clock clock) {
+		this.file = file;
+		this.ttl = ttl;
+		this.clock = clock;
+	}
+
+	/**
+	 * @param options stub runner options
+	 * @param localRepository directory of the local Maven repository, resolved only when
+	 * the cache is enabled
+	 * @return the cache or {@code null} if it's not enabled
+	 */
+	static StubVersionCache fromOptions(StubRunnerOptions options, Supplier<String> localRepository) {
+		String ttl = StubRunnerPropertyUtils.getProperty(options.getProperties(), TTL_PROPERTY);
+		if (!StringUtils.hasText(ttl) || Long.parseLong(ttl.trim()) <= 0) {
+			return null;
+		}
+		Path file = new File(localRepository.get(), CACHE_FILE).toPath();
+		if (log.isDebugEnabled()) {
+			log.debug("Resolved stub versions will be cached in [" + file + "] for [" + ttl.trim() + "] seconds");
+		}
+		return new StubVersionCache(file, Duration.ofSeconds(Long.parseLong(ttl.trim())), Clock.systemUTC());
+	}
+
+	/**
+	 * @param key key of the resolved version
+	 * @return the cached version or {@code null} if it's missing or expired
+	 */
+	String get(String key) {
+		String value = read().getProperty(key);
+		if (value == null || !value.contains(SEPARATOR)) {
+			return null;
+		}
+		String version = value.substring(0, value.lastIndexOf(SEPARATOR));
+		long resolvedAt = Long.parseLong(value.substring(value.lastIndexOf(SEPARATOR) + 1));
+		if (this.clock.millis() - resolvedAt > this.ttl.toMillis()) {
+			if (log.isDebugEnabled()) {
+				log.debug("Cached version [" + version + "] for [" + key + "] has expired");
+			}
+			return null;
+		}
+		return version;
+	}
+
+	/**
+	 * Stores the resolved version. Failures are only logged, the cache is an
+	 * optimization.
+	 * @param key key of the resolved version
+	 * @param version resolved version
+	 */
+	void put(String key, String version) {
+		synchronized (JVM_LOCK) {
+			try {
+				Files.createDirectories(this.file.getParent());
+				Path lockFile = this.file.resolveSibling(this.file.getFileName() + ".lock");
+				try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE,
+						StandardOpenOption.WRITE); FileLock lock = channel.lock()) {
+					Properties properties = read();
+					properties.setProperty(key, version + SEPARATOR + this.clock.millis());
+					Path temp = Files.createTempFile(this.file.getParent(), "stub-versions", ".tmp");
+					try (OutputStream stream = Files.newOutputStream(temp)) {
+						properties.store(stream, "Resolved stub versions");
+					}
+					Files.move(temp, this.file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+				}
+			}
+			catch (IOException ex) {
+				log.warn("Failed to store the resolved version [" + version + "] for [" + key + "]", ex);
+			}
+		}
+	}
+
+	private Properties read() {
+		Properties properties = new Properties();
+		if (!Files.exists(this.file)) {
+			return properties;
+		}
+		try (InputStream stream = Files.newInputStream(this.file)) {
+			properties.load(stream);
+		}
+		catch (IOException ex) {
+			log.warn("Failed to read the resolved stub versions from [" + this.file + "]", ex);
+		}
+		return properties;
+	}
+
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright 2013-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.contract.stubrunner.junit;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.cloud.contract.stubrunner.BatchStubRunner;
+import org.springframework.cloud.contract.stubrunner.BatchStubRunnerFactory;
+import org.springframework.cloud.contract.stubrunner.StubConfiguration;
+import org.springframework.cloud.contract.stubrunner.StubRunnerOptions;
+import org.springframework.cloud.contract.stubrunner.StubRunnerPropertyUtils;
+import org.springframework.cloud.contract.verifier.messaging.MessageVerifierSender;
+import org.springframework.util.StringUtils;
+
+/**
+ * JVM wide cache of the stub runners started by the JUnit rule and extension, similar to
+ * the context cache of the Spring TestContext Framework. Test classes running the same
+ * stubs with the same options reuse the running stub servers. Once the last test class
+ * using them finishes, the servers get reset instead of being stopped. The least recently
+ * used stub runners that are not in use get stopped once there are more of them than the
+ * maximum size of the cache.
+ *
+ * Disabled by default, since the cached stub servers keep their ports bound after the
+ * test class finishes.
+ *
+ * @author Marcin Grzejszczak
+ * @since 5.0.4
+ */
+final class StubRunnerCache {
+
+	private static final Log log = LogFactory.getLog(StubRunnerCache.class);
+
+	/**
+	 * Set to {@code true} to reuse the stub runners between test classes.
+	 */
+	static final String ENABLED_PROPERTY = "stubs.junit-cache.enabled";
+
+	/**
+	 * Maximum number of cached stub runners.
+	 */
+	static final String MAX_SIZE_PROPERTY = "stubs.junit-cache.max-size";
+
+	// the stubs of the shared stub runner daemon are already shared and can't be reset
+	private static final String SHARED_DAEMON_ENABLED_PROPERTY = "stubs.shared-daemon.enabled";
+
+	private static final int DEFAULT_MAX_SIZE = 8;
+
+	// access ordered, the least recently used entry comes first
+	private static final Map<List<Object>, Entry> CACHE = new LinkedHashMap<>(16, 0.75f, true);
+
+	private StubRunnerCache() {
+		throw new IllegalStateException("Can't instantiate a utility class");
+	}
+
+	/**
+	 * Returns running stubs for the given options. Each call has to be followed by
+	 * {@link #release(BatchStubRunner)} once the test class finishes.
+	 * @param options stub runner options
+	 * @param verifierSender sender of the messages triggered by the stubs
+	 * @return running stub runner
+	 */
+	static BatchStubRunner acquire(StubRunnerOptions options, MessageVerifierSender<?> verifierSender) {
+		if (!isEnabled(options)) {
+			return start(options, verifierSender);
+		}
+		List<Object> key = key(options, verifierSender);
+		synchronized (CACHE) {
+			Entry entry = CACHE.get(key);
+			if (entry != null) {
+				if (log.isDebugEnabled()) {
+					log.debug("Reusing the cached stub runner for options " + options);
+				}
+				entry.references++;
+				return entry.stubRunner;
+			}
+			entry = new Entry(key, start(options, verifierSender), maxSize(options));
+			entry.references++;
+			CACHE.put(key, entry);
+			evictUnused(entry.maxSize);
+			return entry.stubRunner;
+		}
+	}
+
+	/**
+	 * Releases the stub runner returned by
+	 * {@link #acquire(StubRunnerOptions, MessageVerifierSender)}. A cached stub runner
+	 * that is not used anymore gets reset, any other gets closed.
+	 * @param stubRunner stub runner to release
+	 */
+	static void release(BatchStubRunner stubRunner) {
+		if (stubRunner == null) {
+			return;
+		}
+		synchronized (CACHE) {
+			Entry entry = entry(stubRunner);
+			if (entry != null) {
+				if (--entry.references == 0) {
+					stubRunner.reset();
+					evictUnused(entry.maxSize);
+				}
+				return;
+			}
+		}
+		close(stubRunner);
+	}
+
+	private static boolean isEnabled(StubRunnerOptions options) {
+		return Boolean.parseBoolean(StubRunnerPropertyUtils.getProperty(options.getProperties(), ENABLED_PROPERTY))
+				&& !Boolean.parseBoolean(
+						StubRunnerPropertyUtils.getProperty(options.getProperties(), SHARED_DAEMON_ENABLED_PROPERTY));
+	}
+
+	private static int maxSize(StubRunnerOptions options) {
+		String maxSize = StubRunnerPropertyUtils.getProperty(options.getProperties(), MAX_SIZE_PROPERTY);
+		return StringUtils.hasText(maxSize) ? Integer.parseInt(maxSize.trim()) : DEFAULT_MAX_SIZE;
+	}
+
+	private static BatchStubRunner start(StubRunnerOptions options, MessageVerifierSender<?> verifierSender) {
+		BatchStubRunner stubRunner = new BatchStubRunnerFactory(options, verifierSender).buildBatchStubRunner();
+		stubRunner.runStubs();
+		return stubRunner;
+	}
+
+	// stub configurations are compared by their notations, their equality ignores the
+	// version and the classifier
+	private static List<Object> key(StubRunnerOptions options, MessageVerifierSender<?> verifierSender) {
+		Map<String, Integer> ports = new TreeMap<>();
+		options.getStubIdsToPortMapping()
+			.forEach((stub, port) -> ports.put(stub.toColonSeparatedDependencyNotation(), port));
+		Map<String, String> properties = new TreeMap<>(
+				options.getProperties() != null ? options.getProperties() : Map.of());
+		return Arrays.asList(
+				options.getDependencies()
+					.stream()
+					.map(StubConfiguration::toColonSeparatedDependencyNotation)
+					.collect(Collectors.toList()),
+				ports, options.getStubRepositoryRootAsString(), options.getStubsMode(), options.getStubsClassifier(),
+				options.getUsername(), options.getPassword(), String.valueOf(options.getStubRunnerProxyOptions()),
+				options.isStubsPerConsumer(), options.getConsumerName(), options.getMappingsOutputFolder(),
+				options.isDeleteStubsAfterTest(), options.isGenerateStubs(), options.isFailOnNoStubs(), properties,
+				options.getHttpServerStubConfigurer(), options.getServerId(), options.getMinPortValue(),
+				options.getMaxPortValue(),
+				// the default verifier holds no state, any other one is used by its test
+				// only
+				verifierSender instanceof ExceptionThrowingMessageVerifier ? ExceptionThrowingMessageVerifier.class
+						: verifierSender);
+	}
+
+	private static Entry entry(BatchStubRunner stubRunner) {
+		for (Entry entry : CACHE.values()) {
+			if (entry.stubRunner == stubRunner) {
+				return entry;
+			}
+		}
+		return null;
+	}
+
+	private static void evictUnused(int maxSize) {
+		List<Entry> evicted = new ArrayList<>();
+		int size = CACHE.size();
+		for (Iterator<Entry> iterator = CACHE.values().iterator(); iterator.hasNext() && size > maxSize;) {
+			Entry entry = iterator.next();
+			if (entry.references == 0) {
+				iterator.remove();
+				evicted.add(entry);
+				size--;
+			}
+		}
+		for (Entry entry : evicted) {
+			if (log.isDebugEnabled()) {
+				log.debug("Evicting the least recently used stub runner of stubs " + entry.key.get(0));
+			}
+			close(entry.stubRunner);
+		}
+	}
+
+	private static void close(BatchStubRunner stubRunner) {
+		try {
+			stubRunner.close();
+		}
+		catch (IOException ex) {
+			log.warn(ex.getMessage(), ex);
+		}
+	}
+
+	private static final class Entry {
+
+		private final List<Object> key;
+
+		private final BatchStubRunner stubRunner;
+
+		private final int maxSize;
+
+		private int references;
+
+		private Entry(List<Object> key, BatchStubRunner stubRunner, int maxSize) {
+			this.key = key;
+			this.stubRunner = stubRunner;
+			this.maxSize = maxSize;
+		}
+
+	}
+
+}
@@ -16,7 +16,6 @@
 
 package org.springframework.cloud.contract.stubrunner.junit;
 
-import java.io.IOException;
 import java.net.URL;
 import java.util.Arrays;
 import java.util.Collection;
@@ -24,8 +23,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
 
-import org.apache.commons.logging.Log;
-import org.apache.commons.logging.LogFactory;
 import org.junit.jupiter.api.extension.AfterAllCallback;
 import org.junit.jupiter.api.extension.AfterEachCallback;
 import org.junit.jupiter.api.extension.BeforeAllCallback;
@@ -34,7 +31,6 @@ import org.junit.jupiter.api.extension.ExtensionContext;
 
 import org.springframework.cloud.contract.spec.Contract;
 import org.springframework.cloud.contract.stubrunner.BatchStubRunner;
-import org.springframework.cloud.contract.stubrunner.BatchStubRunnerFactory;
 import org.springframework.cloud.contract.stubrunner.HttpServerStubConfigurer;
 import org.springframework.cloud.contract.stubrunner.RunningStubs;
 import org.springframework.cloud.contract.stubrunner.StubConfiguration;
@@ -59,8 +55,6 @@ public class StubRunnerExtension implements BeforeAllCallback, AfterAllCallback,
 
 	private static final String LATEST_VERSION = "+";
 
-	private static final Log LOG = LogFactory.getLog(StubRunnerExtension.class);
-
 	StubRunnerExtension delegate = this;
 
 	private AtomicBoolean beforeAllCalled = new AtomicBoolean();
@@ -124,17 +118,11 @@ public class StubRunnerExtension implements BeforeAllCallback, AfterAllCallback,
 	}
 
 	private void before() {
-		stubFinder(new BatchStubRunnerFactory(builder().build(), verifierSender()).buildBatchStubRunner());
-		stubFinder().runStubs();
+		stubFinder(StubRunnerCache.acquire(builder().build(), verifierSender()));
 	}
 
 	private void after() {
-		try {
-			stubFinder().close();
-		}
-		catch (IOException exception) {
-			LOG.warn(exception.getMessage(), exception);
-		}
+		StubRunnerCache.release(stubFinder());
 	}
 
 	@Override
@@ -28,7 +28,6 @@ import org.junit.runners.model.Statement;
 
 import org.springframework.cloud.contract.spec.Contract;
 import org.springframework.cloud.contract.stubrunner.BatchStubRunner;
-import org.springframework.cloud.contract.stubrunner.BatchStubRunnerFactory;
 import org.springframework.cloud.contract.stubrunner.HttpServerStubConfigurer;
 import org.springframework.cloud.contract.stubrunner.RunningStubs;
 import org.springframework.cloud.contract.stubrunner.StubConfiguration;
@@ -75,12 +74,11 @@ public class StubRunnerRule implements TestRule, StubFinder, StubRunnerRuleOptio
 			public void evaluate() throws Throwable {
 				before();
 				base.evaluate();
-				StubRunnerRule.this.stubFinder().close();
+				StubRunnerCache.release(StubRunnerRule.this.stubFinder());
 			}
 
 			private void before() {
-				stubFinder(new BatchStubRunnerFactory(builder().build(), verifierSender()).buildBatchStubRunner());
-				StubRunnerRule.this.stubFinder().runStubs();
+				stubFinder(StubRunnerCache.acquire(builder().build(), verifierSender()));
 			}
 		};
 	}
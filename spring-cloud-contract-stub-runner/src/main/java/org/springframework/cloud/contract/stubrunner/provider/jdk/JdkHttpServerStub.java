@@ -0,0 +1,347 @@
+/*
+ * Copyright 2013-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.contract.stubrunner.provider.jdk;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import groovy.json.JsonSlurper;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.cloud.contract.stubrunner.HttpServerStub;
+import org.springframework.cloud.contract.stubrunner.HttpServerStubConfiguration;
+import org.springframework.cloud.contract.stubrunner.HttpServerStubConfigurer;
+import org.springframework.cloud.contract.verifier.converter.StubBundle;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * Lightweight HTTP Server Stub built on the JDK's {@link HttpServer}. It serves static
+ * WireMock mappings without starting WireMock, which makes it much cheaper to start and
+ * to keep running than the default {@code WireMockHttpServerStub}.
+ *
+ * Only static request / response pairs are supported (see {@link StaticStubMapping}),
+ * mappings using other WireMock features are skipped with a warning. There's no request
+ * journal. To use it, register it in {@code META-INF/spring.factories} under the
+ * {@code org.springframework.cloud.contract.stubrunner.HttpServerStub} key.
+ *
+ * The {@link HttpServerStubConfigurer} gets the not yet started {@link HttpServer}.
+ *
+ * @author Marcin Grzejszczak
+ * @since 5.0.4
+ */
+public class JdkHttpServerStub implements HttpServerStub {
+
+	private static final Log log = LogFactory.getLog(JdkHttpServerStub.class);
+
+	private static final int INVALID_PORT = -1;
+
+	private static final byte[] NOT_FOUND = "No matching stub mapping found".getBytes(StandardCharsets.UTF_8);
+
+	// among the mappings of the same priority the later registered one wins
+	private static final Comparator<StaticStubMapping> PRECEDENCE = Comparator
+		.comparingInt(StaticStubMapping::getPriority);
+
+	private HttpServer httpServer;
+
+	private ExecutorService executor;
+
+	private volatile List<StaticStubMapping> mappings = Collections.emptyList();
+
+	private final AtomicLong requestCount = new AtomicLong();
+
+	@Override
+	public int port() {
+		return isRunning() ? this.httpServer.getAddress().getPort() : INVALID_PORT;
+	}
+
+	@Override
+	public boolean isRunning() {
+		return this.httpServer != null;
+	}
+
+	@Override
+	public HttpServerStub start(HttpServerStubConfiguration configuration) {
+		if (isRunning()) {
+			if (log.isTraceEnabled()) {
+				log.trace("The server is already running at port [" + port() + "]");
+			}
+			return this;
+		}
+		HttpServer server;
+		try {
+			server = HttpServer.create(new InetSocketAddress(port(configuration)), 0);
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Failed to start the HTTP server stub at port [" + configuration.port + "]",
+					ex);
+		}
+		this.executor = Executors.newCachedThreadPool(new StubServerThreadFactory(port(configuration)));
+		server.setExecutor(this.executor);
+		server.createContext("/", this::handle);
+		if (configuration.configurer.isAccepted(server)) {
+			@SuppressWarnings("unchecked")
+			HttpServerStubConfigurer<HttpServer> configurer = configuration.configurer;
+			server = configurer.configure(server, configuration);
+		}
+		server.start();
+		this.httpServer = server;
+		if (log.isDebugEnabled()) {
+			log.debug("For " + configuration.toColonSeparatedDependencyNotation()
+					+ " Started JDK HTTP server stub at port [" + port() + "]");
+		}
+		return this;
+	}
+
+	private int port(HttpServerStubConfiguration configuration) {
+		return configuration.port != null ? configuration.port : 0;
+	}
+
+	@Override
+	public HttpServerStub stop() {
+		if (!isRunning()) {
+			if (log.isTraceEnabled()) {
+				log.trace("Trying to stop a non started server!");
+			}
+			return this;
+		}
+		this.httpServer.stop(0);
+		this.executor.shutdownNow();
+		this.httpServer = null;
+		return this;
+	}
+
+	@Override
+	public HttpServerStub reset() {
+		this.mappings = Collections.emptyList();
+		return this;
+	}
+
+	@Override
+	public HttpServerStub resetState(Collection<File> stubFiles) {
+		// static responses only, nothing is recorded
+		return this;
+	}
+
+	@Override
+	public HttpServerStub registerMappings(Collection<File> stubFiles) {
+		if (!isRunning()) {
+			throw new IllegalStateException("Server not started!");
+		}
+		List<StaticStubMapping> mappings = new ArrayList<>();
+		if (this.mappings.isEmpty()) {
+			mappings.add(healthCheck("/ping"));
+			mappings.add(healthCheck("/health"));
+		}
+		for (File file : stubFiles) {
+			List<Map<String, Object>> fileMappings;
+			try {
+				fileMappings = readMappings(file);
+			}
+			catch (IllegalStateException ex) {
+				if (log.isDebugEnabled()) {
+					log.debug("Failed to read the stub mapping [" + file + "]", ex);
+				}
+				continue;
+			}
+			for (Map<String, Object> mapping : fileMappings) {
+				try {
+					mappings.add(StaticStubMapping.compile(mapping));
+				}
+				catch (RuntimeException ex) {
+					log.warn("Skipping a mapping from [" + file + "] that can't be served without WireMock: "
+							+ ex.getMessage());
+				}
+			}
+		}
+		// the sort is stable, the most recently registered mappings go first
+		Collections.reverse(mappings);
+		mappings.addAll(this.mappings);
+		mappings.sort(PRECEDENCE);
+		this.mappings = Collections.unmodifiableList(mappings);
+		if (log.isDebugEnabled()) {
+			log.debug("Registered [" + mappings.size() + "] stub mappings");
+		}
+		return this;
+	}
+
+	@Override
+	public long requestCount() {
+		return this.requestCount.get();
+	}
+
+	@Override
+	public String registeredMappings() {
+		Collection<String> mappings = new ArrayList<>();
+		for (StaticStubMapping mapping : this.mappings) {
+			mappings.add(mapping.getJson());
+		}
+		return "[" + StringUtils.collectionToDelimitedString(mappings, ",\n") + "]";
+	}
+
+	@Override
+	public boolean isAccepted(File file) {
+		if (StubBundle.isBundle(file)) {
+			return true;
+		}
+		if (!file.getName().endsWith(".json")) {
+			return false;
+		}
+		try {
+			return !readMappings(file).isEmpty();
+		}
+		catch (IllegalStateException ex) {
+			return false;
+		}
+	}
+
+	private List<Map<String, Object>> readMappings(File file) {
+		if (StubBundle.isBundle(file)) {
+			List<Map<String, Object>> mappings = new ArrayList<>();
+			for (StubBundle.Entry entry : StubBundle.read(file).getEntries(StubBundle.EntryType.MAPPING)) {
+				mappings.addAll(mappings(entry.getDataAsString()));
+			}
+			return mappings;
+		}
+		try {
+			return mappings(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+		}
+		catch (IOException | RuntimeException ex) {
+			throw new IllegalStateException("Cannot read file [" + file + "]", ex);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private List<Map<String, Object>> mappings(String json) {
+		Object parsed = new JsonSlurper().parseText(json);
+		if (!(parsed instanceof Map)) {
+			return Collections.emptyList();
+		}
+		Map<String, Object> map = (Map<String, Object>) parsed;
+		if (map.get("mappings") instanceof List) {
+			return (List<Map<String, Object>>) map.get("mappings");
+		}
+		return map.containsKey("request") ? Collections.singletonList(map) : Collections.emptyList();
+	}
+
+	private StaticStubMapping healthCheck(String url) {
+		return StaticStubMapping.compile(Map.of("request", Map.of("method", "GET", "url", url), "response",
+				Map.of("status", 200, "body", "OK")));
+	}
+
+	private void handle(HttpExchange exchange) throws IOException {
+		this.requestCount.incrementAndGet();
+		try {
+			Supplier<String> body = new RequestBody(exchange);
+			String url = exchange.getRequestURI().getRawPath()
+					+ (exchange.getRequestURI().getRawQuery() != null ? "?" + exchange.getRequestURI().getRawQuery()
+							: "");
+			for (StaticStubMapping mapping : this.mappings) {
+				if (mapping.matches(exchange.getRequestMethod(), url, body,
+						name -> exchange.getRequestHeaders().get(name))) {
+					respond(exchange, mapping.getStatus(), mapping.getResponseHeaders(), mapping.getResponseBody());
+					return;
+				}
+			}
+			if (log.isDebugEnabled()) {
+				log.debug("No stub mapping matches [" + exchange.getRequestMethod() + " " + url + "]");
+			}
+			respond(exchange, 404, Collections.emptyMap(), NOT_FOUND);
+		}
+		finally {
+			exchange.close();
+		}
+	}
+
+	private void respond(HttpExchange exchange, int status, Map<String, String> headers, byte[] body)
+			throws IOException {
+		headers.forEach((name, value) -> exchange.getResponseHeaders().add(name, value));
+		boolean noBody = body.length == 0 || "HEAD".equalsIgnoreCase(exchange.getRequestMethod());
+		exchange.sendResponseHeaders(status, noBody ? -1 : body.length);
+		if (!noBody) {
+			try (OutputStream stream = exchange.getResponseBody()) {
+				stream.write(body);
+			}
+		}
+	}
+
+	private static final class RequestBody implements Supplier<String> {
+
+		private final HttpExchange exchange;
+
+		private String body;
+
+		private RequestBody(HttpExchange exchange) {
+			this.exchange = exchange;
+		}
+
+		@Override
+		public String get() {
+			if (this.body == null) {
+				try (InputStream stream = this.exchange.getRequestBody()) {
+					this.body = StreamUtils.copyToString(stream, StandardCharsets.UTF_8);
+				}
+				catch (IOException ex) {
+					throw new UncheckedIOException(ex);
+				}
+			}
+			return this.body;
+		}
+
+	}
+
+	private static final class StubServerThreadFactory implements ThreadFactory {
+
+		private final AtomicInteger counter = new AtomicInteger();
+
+		private final int port;
+
+		private StubServerThreadFactory(int port) {
+			this.port = port;
+		}
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "stub-server-" + this.port + "-" + this.counter.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+
+	}
+
+}
@@ -0,0 +1,350 @@
+/*
+ * Copyright 2013-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.contract.stubrunner.provider.jdk;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+import groovy.json.JsonOutput;
+import groovy.json.JsonSlurper;
+
+import org.springframework.util.StringUtils;
+
+/**
+ * A WireMock mapping compiled for the {@link JdkHttpServerStub}. The request patterns are
+ * compiled to predicates and the response is encoded once, when the mapping is
+ * registered.
+ *
+ * Only static mappings are supported. Mappings using features that require WireMock
+ * (e.g. JSON path body patterns, scenarios, templated responses, faults or custom
+ * matchers) are rejected with an {@link IllegalArgumentException}.
+ *
+ * @author Marcin Grzejszczak
+ * @since 5.0.4
+ */
+final class StaticStubMapping {
+
+	private static final int DEFAULT_PRIORITY = 5;
+
+	private static final Set<String> MAPPING_KEYS = Set.of("id", "uuid", "name", "request", "response", "priority",
+			"persistent", "metadata");
+
+	private static final Set<String> REQUEST_KEYS = Set.of("method", "url", "urlPath", "urlPattern",
+			"urlPathPattern", "headers", "queryParameters", "bodyPatterns");
+
+	private static final Set<String> RESPONSE_KEYS = Set.of("status", "body", "base64Body", "jsonBody", "headers",
+			"transformers", "transformerParameters");
+
+	private final String json;
+
+	private final int priority;
+
+	private final String method;
+
+	private final Predicate<RequestLine> url;
+
+	private final Map<String, Predicate<String>> headers;
+
+	private final Map<String, Predicate<String>> queryParameters;
+
+	private final List<Predicate<String>> bodyPatterns;
+
+	private final int status;
+
+	private final Map<String, String> responseHeaders;
+
+	private final byte[] responseBody;
+
+	private StaticStubMapping(Map<String, Object> mapping) {
+		this.json = JsonOutput.toJson(mapping);
+		Map<String, Object> request = section(mapping, "request", MAPPING_KEYS, REQUEST_KEYS);
+		Map<String, Object> response = section(mapping, "response", MAPPING_KEYS, RESPONSE_KEYS);
+		this.priority = mapping.get("priority") != null ? ((Number) mapping.get("priority")).intValue()
+				: DEFAULT_PRIORITY;
+		this.method = request.get("method") != null ? String.valueOf(request.get("method")) : "ANY";
+		this.url = url(request);
+		this.headers = patterns(request, "headers");
+		this.queryParameters = patterns(request, "queryParameters");
+		this.bodyPatterns = bodyPatterns(request);
+		this.status = response.get("status") != null ? ((Number) response.get("status")).intValue() : 200;
+		this.responseHeaders = responseHeaders(response);
+		this.responseBody = responseBody(response);
+	}
+
+	/**
+	 * @param mapping parsed WireMock mapping
+	 * @return the compiled mapping
+	 * @throws IllegalArgumentException when the mapping uses an unsupported feature
+	 */
+	static StaticStubMapping compile(Map<String, Object> mapping) {
+		return new StaticStubMapping(mapping);
+	}
+
+	/**
+	 * @param method HTTP method
+	 * @param url requested path with the raw query
+	 * @param bodyOnDemand supplies the request body when a body pattern has to be checked
+	 * @param headerValues returns all values of a header, matched case insensitively
+	 * @return {@code true} when the request matches this mapping
+	 */
+	boolean matches(String method, String url, Supplier<String> bodyOnDemand,
+			Function<String, List<String>> headerValues) {
+		if (!"ANY".equalsIgnoreCase(this.method) && !this.method.equalsIgnoreCase(method)) {
+			return false;
+		}
+		RequestLine requestLine = new RequestLine(url);
+		if (!this.url.test(requestLine)) {
+			return false;
+		}
+		for (Map.Entry<String, Predicate<String>> header : this.headers.entrySet()) {
+			if (!anyMatches(headerValues.apply(header.getKey()), header.getValue())) {
+				return false;
+			}
+		}
+		if (!this.queryParameters.isEmpty()) {
+			Map<String, List<String>> query = requestLine.queryParameters();
+			for (Map.Entry<String, Predicate<String>> parameter : this.queryParameters.entrySet()) {
+				if (!anyMatches(query.getOrDefault(parameter.getKey(), Collections.emptyList()),
+						parameter.getValue())) {
+					return false;
+				}
+			}
+		}
+		if (!this.bodyPatterns.isEmpty()) {
+			String body = bodyOnDemand.get();
+			for (Predicate<String> pattern : this.bodyPatterns) {
+				if (!pattern.test(body)) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	int getPriority() {
+		return this.priority;
+	}
+
+	int getStatus() {
+		return this.status;
+	}
+
+	Map<String, String> getResponseHeaders() {
+		return this.responseHeaders;
+	}
+
+	byte[] getResponseBody() {
+		return this.responseBody;
+	}
+
+	String getJson() {
+		return this.json;
+	}
+
+	// an absent value is passed as null, so that the absent pattern can match it
+	private static boolean anyMatches(List<String> values, Predicate<String> pattern) {
+		if (values == null || values.isEmpty()) {
+			return pattern.test(null);
+		}
+		return values.stream().anyMatch(pattern);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Map<String, Object> section(Map<String, Object> mapping, String name, Set<String> mappingKeys,
+			Set<String> supportedKeys) {
+		unsupported(mapping.keySet(), mappingKeys);
+		Object section = mapping.get(name);
+		if (!(section instanceof Map)) {
+			throw new IllegalArgumentException("Mapping has no [" + name + "] section");
+		}
+		unsupported(((Map<String, Object>) section).keySet(), supportedKeys);
+		return (Map<String, Object>) section;
+	}
+
+	private static void unsupported(Set<String> keys, Set<String> supportedKeys) {
+		for (String key : keys) {
+			if (!supportedKeys.contains(key)) {
+				throw new IllegalArgumentException("Mapping entry [" + key + "] is not supported");
+			}
+		}
+	}
+
+	private static Predicate<RequestLine> url(Map<String, Object> request) {
+		if (request.get("url") != null) {
+			String url = String.valueOf(request.get("url"));
+			return line -> line.url.equals(url);
+		}
+		if (request.get("urlPath") != null) {
+			String urlPath = String.valueOf(request.get("urlPath"));
+			return line -> line.path.equals(urlPath);
+		}
+		if (request.get("urlPattern") != null) {
+			Pattern pattern = Pattern.compile(String.valueOf(request.get("urlPattern")));
+			return line -> pattern.matcher(line.url).matches();
+		}
+		if (request.get("urlPathPattern") != null) {
+			Pattern pattern = Pattern.compile(String.valueOf(request.get("urlPathPattern")));
+			return line -> pattern.matcher(line.path).matches();
+		}
+		return line -> true;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Map<String, Predicate<String>> patterns(Map<String, Object> request, String name) {
+		Map<String, Object> patterns = (Map<String, Object>) request.get(name);
+		if (patterns == null) {
+			return Collections.emptyMap();
+		}
+		Map<String, Predicate<String>> compiled = new LinkedHashMap<>();
+		patterns.forEach((key, pattern) -> compiled.put(key, valuePattern((Map<String, Object>) pattern)));
+		return compiled;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static List<Predicate<String>> bodyPatterns(Map<String, Object> request) {
+		List<Object> patterns = (List<Object>) request.get("bodyPatterns");
+		if (patterns == null) {
+			return Collections.emptyList();
+		}
+		List<Predicate<String>> compiled = new ArrayList<>();
+		for (Object pattern : patterns) {
+			compiled.add(valuePattern((Map<String, Object>) pattern));
+		}
+		return compiled;
+	}
+
+	private static Predicate<String> valuePattern(Map<String, Object> pattern) {
+		if (pattern.size() != 1) {
+			throw new IllegalArgumentException("Pattern " + pattern + " is not supported");
+		}
+		Map.Entry<String, Object> entry = pattern.entrySet().iterator().next();
+		String expected = String.valueOf(entry.getValue());
+		switch (entry.getKey()) {
+			case "equalTo":
+				return expected::equals;
+			case "contains":
+				return value -> value != null && value.contains(expected);
+			case "matches":
+				Pattern matches = Pattern.compile(expected);
+				return value -> value != null && matches.matcher(value).matches();
+			case "doesNotMatch":
+				Pattern doesNotMatch = Pattern.compile(expected);
+				return value -> value != null && !doesNotMatch.matcher(value).matches();
+			case "absent":
+				return Objects::isNull;
+			case "equalToJson":
+				Object expectedJson = entry.getValue() instanceof String ? parse(expected) : entry.getValue();
+				if (expectedJson == null) {
+					throw new IllegalArgumentException("Pattern [" + expected + "] is not a valid JSON");
+				}
+				return value -> value != null && expectedJson.equals(parse(value));
+			default:
+				throw new IllegalArgumentException("Pattern [" + entry.getKey() + "] is not supported");
+		}
+	}
+
+	private static Object parse(String json) {
+		try {
+			return new JsonSlurper().parseText(json);
+		}
+		catch (RuntimeException ex) {
+			return null;
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Map<String, String> responseHeaders(Map<String, Object> response) {
+		Map<String, Object> headers = (Map<String, Object>) response.get("headers");
+		Map<String, String> compiled = new LinkedHashMap<>();
+		if (headers != null) {
+			headers.forEach((name, value) -> compiled.put(name, value instanceof List
+					? StringUtils.collectionToCommaDelimitedString((List<Object>) value) : String.valueOf(value)));
+		}
+		return Collections.unmodifiableMap(compiled);
+	}
+
+	private static byte[] responseBody(Map<String, Object> response) {
+		String body;
+		if (response.get("base64Body") != null) {
+			return Base64.getDecoder().decode(String.valueOf(response.get("base64Body")));
+		}
+		else if (response.get("jsonBody") != null) {
+			body = JsonOutput.toJson(response.get("jsonBody"));
+		}
+		else {
+			body = response.get("body") != null ? String.valueOf(response.get("body")) : "";
+		}
+		// templates would be rendered by WireMock, a static body renders to itself
+		if (response.get("transformers") != null && body.contains("{{")) {
+			throw new IllegalArgumentException("Templated responses are not supported");
+		}
+		return body.getBytes(StandardCharsets.UTF_8);
+	}
+
+	@Override
+	public String toString() {
+		return this.json;
+	}
+
+	private static final class RequestLine {
+
+		private final String url;
+
+		private final String path;
+
+		private final String query;
+
+		private RequestLine(String url) {
+			this.url = url;
+			int queryStart = url.indexOf('?');
+			this.path = queryStart >= 0 ? url.substring(0, queryStart) : url;
+			this.query = queryStart >= 0 ? url.substring(queryStart + 1) : "";
+		}
+
+		private Map<String, List<String>> queryParameters() {
+			Map<String, List<String>> parameters = new LinkedHashMap<>();
+			for (String parameter : this.query.split("&")) {
+				if (parameter.isEmpty()) {
+					continue;
+				}
+				int separator = parameter.indexOf('=');
+				String name = decode(separator >= 0 ? parameter.substring(0, separator) : parameter);
+				String value = separator >= 0 ? decode(parameter.substring(separator + 1)) : "";
+				parameters.computeIfAbsent(name, key -> new ArrayList<>()).add(value);
+			}
+			return parameters;
+		}
+
+		private static String decode(String value) {
+			return URLDecoder.decode(value, StandardCharsets.UTF_8);
+		}
+
+	}
+
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2013-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.contract.stubrunner.provider.wiremock;
+
+import com.github.tomakehurst.wiremock.core.Options;
+import com.github.tomakehurst.wiremock.http.ThreadPoolFactory;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import wiremock.org.eclipse.jetty.util.thread.QueuedThreadPool;
+import wiremock.org.eclipse.jetty.util.thread.ThreadPool;
+import wiremock.org.eclipse.jetty.util.thread.ThreadPoolBudget;
+
+import org.springframework.cloud.contract.stubrunner.StubRunnerOptions;
+import org.springframework.cloud.contract.stubrunner.StubRunnerPropertyUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * Hands out a single Jetty thread pool shared by all the stub servers of the JVM,
+ * instead of a pool with its own idle threads per stub server. Only the threads are
+ * shared, each stub server still has its own Jetty server, port, mappings and request
+ * journal. The stub servers don't manage the shared pool, stopping a server leaves it
+ * running. Idle threads of the pool get released after a minute. The pool is sized by
+ * the first stub server that uses it.
+ *
+ * @author Marcin Grzejszczak
+ * @since 5.0.4
+ */
+final class SharedThreadPoolFactory implements ThreadPoolFactory {
+
+	private static final Log log = LogFactory.getLog(SharedThreadPoolFactory.class);
+
+	/**
+	 * Set to {@code true} to share a thread pool between the stub servers.
+	 */
+	static final String ENABLED_PROPERTY = "stubs.shared-thread-pool.enabled";
+
+	/**
+	 * Maximum number of threads of the shared pool.
+	 */
+	static final String MAX_THREADS_PROPERTY = "stubs.shared-thread-pool.max-threads";
+
+	/**
+	 * Number of Jetty acceptors used together with the shared pool. Acceptors and
+	 * selectors of each server occupy a thread of the shared pool for as long as the
+	 * server runs.
+	 */
+	static final int ACCEPTORS = 1;
+
+	private static final int DEFAULT_MAX_THREADS = 500;
+
+	private static final int MIN_THREADS = 4;
+
+	private static final int IDLE_TIMEOUT_MILLIS = 60_000;
+
+	private static QueuedThreadPool sharedPool;
+
+	private final int maxThreads;
+
+	private SharedThreadPoolFactory(int maxThreads) {
+		this.maxThreads = maxThreads;
+	}
+
+	/**
+	 * @param options stub runner options, can be {@code null}
+	 * @return the factory or {@code null} if it's not enabled
+	 */
+	static SharedThreadPoolFactory fromOptions(StubRunnerOptions options) {
+		if (options == null || !Boolean
+			.parseBoolean(StubRunnerPropertyUtils.getProperty(options.getProperties(), ENABLED_PROPERTY))) {
+			return null;
+		}
+		String maxThreads = StubRunnerPropertyUtils.getProperty(options.getProperties(), MAX_THREADS_PROPERTY);
+		return new SharedThreadPoolFactory(
+				StringUtils.hasText(maxThreads) ? Integer.parseInt(maxThreads.trim()) : DEFAULT_MAX_THREADS);
+	}
+
+	@Override
+	public ThreadPool buildThreadPool(Options options) {
+		return new UnmanagedThreadPool(sharedPool(this.maxThreads));
+	}
+
+	private static synchronized QueuedThreadPool sharedPool(int maxThreads) {
+		if (sharedPool == null) {
+			QueuedThreadPool pool = new QueuedThreadPool(maxThreads, MIN_THREADS, IDLE_TIMEOUT_MILLIS);
+			pool.setName("stub-servers");
+			pool.setDaemon(true);
+			try {
+				pool.start();
+			}
+			catch (Exception ex) {
+				throw new IllegalStateException("Failed to start the shared stub servers thread pool", ex);
+			}
+			if (log.isDebugEnabled()) {
+				log.debug("Started a thread pool with max [" + maxThreads + "] threads shared by the stub servers");
+			}
+			sharedPool = pool;
+		}
+		else if (sharedPool.getMaxThreads() != maxThreads) {
+			log.warn("The thread pool shared by the stub servers was already started with max ["
+					+ sharedPool.getMaxThreads() + "] threads, the requested max [" + maxThreads
+					+ "] threads is ignored. Set [" + MAX_THREADS_PROPERTY + "] to the same value for all the stubs");
+		}
+		return sharedPool;
+	}
+
+	/**
+	 * Not being a life cycle, the pool is not started or stopped together with the
+	 * server. Being sized, the acceptors and selectors of the servers lease their threads
+	 * from the budget of the shared pool, so a server that doesn't fit in the pool fails
+	 * to start instead of starving the others.
+	 */
+	private static final class UnmanagedThreadPool implements ThreadPool.SizedThreadPool {
+
+		private final QueuedThreadPool delegate;
+
+		private UnmanagedThreadPool(QueuedThreadPool delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public void execute(Runnable task) {
+			this.delegate.execute(task);
+		}
+
+		// the server joins its pool when it gets stopped, the shared pool keeps running
+		@Override
+		public void join() {
+		}
+
+		@Override
+		public int getThreads() {
+			return this.delegate.getThreads();
+		}
+
+		@Override
+		public int getIdleThreads() {
+			return this.delegate.getIdleThreads();
+		}
+
+		@Override
+		public boolean isLowOnThreads() {
+			return this.delegate.isLowOnThreads();
+		}
+
+		@Override
+		public int getMinThreads() {
+			return this.delegate.getMinThreads();
+		}
+
+		@Override
+		public int getMaxThreads() {
+			return this.delegate.getMaxThreads();
+		}
+
+		@Override
+		public void setMinThreads(int threads) {
+			throw new UnsupportedOperationException("The thread pool is shared by all the stub servers");
+		}
+
+		@Override
+		public void setMaxThreads(int threads) {
+			throw new UnsupportedOperationException(
+					"The thread pool is shared by all the stub servers, set [" + MAX_THREADS_PROPERTY + "] instead");
+		}
+
+		@Override
+		public ThreadPoolBudget getThreadPoolBudget() {
+			return this.delegate.getThreadPoolBudget();
+		}
+
+	}
+
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2013-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.contract.stubrunner.provider.wiremock;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.github.tomakehurst.wiremock.core.Options;
+import com.github.tomakehurst.wiremock.http.ThreadPoolFactory;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import wiremock.org.eclipse.jetty.util.component.AbstractLifeCycle;
+import wiremock.org.eclipse.jetty.util.thread.ThreadPool;
+
+import org.springframework.cloud.contract.stubrunner.StubRunnerOptions;
+import org.springframework.cloud.contract.stubrunner.StubRunnerPropertyUtils;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+
+/**
+ * Builds Jetty thread pools that run each task on a new virtual thread. A stub server
+ * then holds no idle platform threads, which matters when many stubs run in one JVM.
+ *
+ * @author Marcin Grzejszczak
+ * @since 5.0.4
+ */
+final class VirtualThreadPoolFactory implements ThreadPoolFactory {
+
+	private static final Log log = LogFactory.getLog(VirtualThreadPoolFactory.class);
+
+	/**
+	 * Set to {@code true} to run the stub servers on virtual threads.
+	 */
+	static final String ENABLED_PROPERTY = "stubs.virtual-threads.enabled";
+
+	/**
+	 * Number of Jetty acceptors used together with the virtual threads.
+	 */
+	static final int ACCEPTORS = 1;
+
+	private final VirtualThreadTaskExecutor executor;
+
+	private VirtualThreadPoolFactory(VirtualThreadTaskExecutor executor) {
+		this.executor = executor;
+	}
+
+	/**
+	 * @param options stub runner options, can be {@code null}
+	 * @return the factory or {@code null} if it's not enabled or virtual threads are not
+	 * supported by the JVM
+	 */
+	static VirtualThreadPoolFactory fromOptions(StubRunnerOptions options) {
+		if (options == null || !Boolean
+			.parseBoolean(StubRunnerPropertyUtils.getProperty(options.getProperties(), ENABLED_PROPERTY))) {
+			return null;
+		}
+		try {
+			return new VirtualThreadPoolFactory(new VirtualThreadTaskExecutor("stub-server-"));
+		}
+		catch (UnsupportedOperationException ex) {
+			log.warn("Virtual threads are not supported by this JVM, the stub servers will use platform threads");
+			return null;
+		}
+	}
+
+	@Override
+	public ThreadPool buildThreadPool(Options options) {
+		return new VirtualThreadPool(this.executor);
+	}
+
+	private static final class VirtualThreadPool extends AbstractLifeCycle implements ThreadPool {
+
+		private final VirtualThreadTaskExecutor executor;
+
+		private final AtomicInteger running = new AtomicInteger();
+
+		private final Object stopped = new Object();
+
+		private VirtualThreadPool(VirtualThreadTaskExecutor executor) {
+			this.executor = executor;
+		}
+
+		@Override
+		public void execute(Runnable task) {
+			this.running.incrementAndGet();
+			this.executor.execute(() -> {
+				try {
+					task.run();
+				}
+				finally {
+					this.running.decrementAndGet();
+				}
+			});
+		}
+
+		@Override
+		protected void doStop() throws Exception {
+			super.doStop();
+			synchronized (this.stopped) {
+				this.stopped.notifyAll();
+			}
+		}
+
+		@Override
+		public void join() throws InterruptedException {
+			synchronized (this.stopped) {
+				while (isRunning()) {
+					this.stopped.wait();
+				}
+			}
+		}
+
+		@Override
+		public int getThreads() {
+			return this.running.get();
+		}
+
+		@Override
+		public int getIdleThreads() {
+			// virtual threads are never pooled
+			return 0;
+		}
+
+		@Override
+		public boolean isLowOnThreads() {
+			return false;
+		}
+
+	}
+
+}
@@ -19,25 +19,31 @@ package org.springframework.cloud.contract.stubrunner.provider.wiremock;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.charset.Charset;
+import java.lang.ref.SoftReference;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 import com.github.tomakehurst.wiremock.WireMockServer;
 import com.github.tomakehurst.wiremock.client.WireMock;
+import com.github.tomakehurst.wiremock.common.Json;
 import com.github.tomakehurst.wiremock.common.JsonException;
 import com.github.tomakehurst.wiremock.common.Notifier;
 import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
 import com.github.tomakehurst.wiremock.extension.Extension;
-import com.github.tomakehurst.wiremock.security.ClientAuthenticator;
-import com.github.tomakehurst.wiremock.security.NoClientAuthenticator;
+import com.github.tomakehurst.wiremock.matching.RequestPattern;
+import com.github.tomakehurst.wiremock.stubbing.StubImport;
 import com.github.tomakehurst.wiremock.stubbing.StubMapping;
+import com.github.tomakehurst.wiremock.stubbing.StubMappingCollection;
+import com.github.tomakehurst.wiremock.verification.journal.RequestJournalDisabledException;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.slf4j.Logger;
@@ -48,6 +54,7 @@ import org.springframework.cloud.contract.stubrunner.HttpServerStub;
 import org.springframework.cloud.contract.stubrunner.HttpServerStubConfiguration;
 import org.springframework.cloud.contract.stubrunner.HttpServerStubConfigurer;
 import org.springframework.cloud.contract.verifier.builder.handlebars.HandlebarsEscapeHelper;
+import org.springframework.cloud.contract.verifier.converter.StubBundle;
 import org.springframework.cloud.contract.verifier.builder.handlebars.HandlebarsJsonPathHelper;
 import org.springframework.cloud.contract.verifier.dsl.wiremock.DefaultResponseTransformer;
 import org.springframework.cloud.contract.verifier.dsl.wiremock.SpringCloudContractRequestMatcher;
@@ -76,7 +83,11 @@ public class WireMockHttpServerStub implements HttpServerStub {
 
 	private boolean https = false;
 
-	private WireMockConfiguration wireMockConfiguration;
+	// mappings read from each of the registered files, to replace them on reload
+	private final Map<File, List<StubMapping>> fileMappings = new ConcurrentHashMap<>();
+
+	// mappings parsed while the stubs were discovered, dropped on registration
+	final Map<File, ParsedMappings> parsedMappings = new ConcurrentHashMap<>();
 
 	private WireMockConfiguration config() {
 		if (ClassUtils.isPresent("org.springframework.cloud.contract.wiremock.WireMockSpring", null)) {
@@ -127,12 +138,25 @@ public class WireMockHttpServerStub implements HttpServerStub {
 		}
 		int port = configuration.port;
 		WireMockConfiguration wireMockConfiguration = config().port(port).notifier(new Slf4jNotifier(true));
+		VirtualThreadPoolFactory virtualThreads = VirtualThreadPoolFactory
+			.fromOptions(configuration.stubRunnerOptions);
+		if (virtualThreads != null) {
+			wireMockConfiguration = wireMockConfiguration.threadPoolFactory(virtualThreads)
+				.jettyAcceptors(VirtualThreadPoolFactory.ACCEPTORS);
+		}
+		else {
+			SharedThreadPoolFactory sharedThreadPool = SharedThreadPoolFactory
+				.fromOptions(configuration.stubRunnerOptions);
+			if (sharedThreadPool != null) {
+				wireMockConfiguration = wireMockConfiguration.threadPoolFactory(sharedThreadPool)
+					.jettyAcceptors(SharedThreadPoolFactory.ACCEPTORS);
+			}
+		}
 		if (configuration.configurer.isAccepted(wireMockConfiguration)) {
 			@SuppressWarnings("unchecked")
 			HttpServerStubConfigurer<WireMockConfiguration> configurer = configuration.configurer;
 			wireMockConfiguration = configurer.configure(wireMockConfiguration, configuration);
 		}
-		this.wireMockConfiguration = wireMockConfiguration;
 		this.https = wireMockConfiguration.httpsSettings().enabled();
 		port = this.https ? wireMockConfiguration.httpsSettings().port() : wireMockConfiguration.portNumber();
 		this.wireMockServer = new WireMockServer(wireMockConfiguration);
@@ -153,9 +177,37 @@ public class WireMockHttpServerStub implements HttpServerStub {
 	@Override
 	public HttpServerStub reset() {
 		this.wireMockServer.resetAll();
+		this.fileMappings.clear();
+		SERVERS.computeIfPresent(this,
+				(server, portAndMappings) -> new PortAndMappings(portAndMappings.random, portAndMappings.port,
+						new ArrayList<>()));
+		return this;
+	}
+
+	@Override
+	public HttpServerStub resetState(Collection<File> stubFiles) {
+		this.wireMockServer.resetRequests();
+		this.wireMockServer.resetScenarios();
 		return this;
 	}
 
+	/**
+	 * @return number of requests in the request journal or {@code -1} if the server is
+	 * not running or the journal is disabled
+	 */
+	@Override
+	public long requestCount() {
+		if (!isRunning()) {
+			return -1;
+		}
+		try {
+			return this.wireMockServer.countRequestsMatching(RequestPattern.everything()).getCount();
+		}
+		catch (RequestJournalDisabledException ex) {
+			return -1;
+		}
+	}
+
 	private void cacheStubServer(boolean random, int port) {
 		SERVERS.put(this, new PortAndMappings(random, port, new ArrayList<>()));
 	}
@@ -174,6 +226,18 @@ public class WireMockHttpServerStub implements HttpServerStub {
 
 	@Override
 	public HttpServerStub registerMappings(Collection<File> stubFiles) {
+		return registerMappingsInBatch(stubFiles);
+	}
+
+	/**
+	 * Reads all the mappings and imports them, together with the health checks, into the
+	 * running server in one go. The mappings are added in process, without going through
+	 * the admin API.
+	 * @param stubFiles collection of files containing stubs
+	 * @return this
+	 */
+	@Override
+	public HttpServerStub registerMappingsInBatch(Collection<File> stubFiles) {
 		if (!isRunning()) {
 			throw new IllegalStateException("Server not started!");
 		}
@@ -181,6 +245,40 @@ public class WireMockHttpServerStub implements HttpServerStub {
 		return this;
 	}
 
+	/**
+	 * Removes the mappings read from the changed files and imports the current mappings
+	 * of the ones that still exist. Mappings of the other files and the request journal
+	 * are left untouched.
+	 * @param stubFiles all the stub files after the change
+	 * @param changedFiles stub files that were added, modified or removed
+	 * @return this
+	 */
+	@Override
+	public HttpServerStub reloadMappings(Collection<File> stubFiles, Collection<File> changedFiles) {
+		if (!isRunning()) {
+			throw new IllegalStateException("Server not started!");
+		}
+		for (File file : changedFiles) {
+			List<StubMapping> removed = this.fileMappings.remove(file);
+			if (removed != null) {
+				removed.forEach(this.wireMockServer::removeStubMapping);
+			}
+		}
+		List<File> existing = new ArrayList<>(changedFiles);
+		existing.retainAll(stubFiles);
+		Map<File, List<StubMapping>> reloaded = readStubs(existing);
+		List<StubMapping> toImport = mappings(reloaded);
+		Collections.reverse(toImport);
+		this.wireMockServer.importStubs(new StubImport(toImport, StubImport.Options.DEFAULTS));
+		this.fileMappings.putAll(reloaded);
+		if (log.isDebugEnabled()) {
+			log.debug("Reloaded [" + toImport.size() + "] stub mappings of " + changedFiles);
+		}
+		SERVERS.computeIfPresent(this, (server, portAndMappings) -> new PortAndMappings(portAndMappings.random,
+				portAndMappings.port, mappings(this.fileMappings)));
+		return this;
+	}
+
 	@Override
 	public String registeredMappings() {
 		Collection<String> mappings = new ArrayList<>();
@@ -194,14 +292,23 @@ public class WireMockHttpServerStub implements HttpServerStub {
 		return "[" + StringUtils.collectionToDelimitedString(mappings, ",\n") + "]";
 	}
 
+	/**
+	 * Checks if the file is a stub bundle or contains WireMock mappings. The mappings
+	 * parsed for the check are kept until the next registration of mappings in this
+	 * server, so that the registered files don't get parsed twice.
+	 * @param file file to check if can be accepted.
+	 * @return {@code true} if the file is a valid stub mapping
+	 */
 	@Override
 	public boolean isAccepted(File file) {
-		return file.getName().endsWith(".json") && validMapping(file);
-	}
-
-	private boolean validMapping(File file) {
+		if (StubBundle.isBundle(file)) {
+			return true;
+		}
+		if (!file.getName().endsWith(".json")) {
+			return false;
+		}
 		try {
-			getMapping(file);
+			this.parsedMappings.put(file, new ParsedMappings(file, readMappings(file)));
 			return true;
 		}
 		catch (IllegalStateException e) {
@@ -209,70 +316,107 @@ public class WireMockHttpServerStub implements HttpServerStub {
 		}
 	}
 
-	StubMapping getMapping(File file) {
+	/**
+	 * Reads the mappings from the file. The file can contain either a single mapping or
+	 * an aggregated {@code {"mappings":[...]}} collection of mappings, in which case all
+	 * of them are read at once. For a {@link StubBundle} all of its mappings are read.
+	 * Mappings already parsed by {@link #isAccepted(File)} are reused if the file hasn't
+	 * changed since.
+	 * @param file file with the mapping or mappings
+	 * @return parsed mappings
+	 */
+	List<StubMapping> getMappings(File file) {
+		if (StubBundle.isBundle(file)) {
+			return getBundledMappings(file);
+		}
+		ParsedMappings parsed = this.parsedMappings.remove(file);
+		List<StubMapping> mappings = parsed != null ? parsed.mappingsIfUpToDate(file) : null;
+		return mappings != null ? mappings : readMappings(file);
+	}
+
+	private List<StubMapping> readMappings(File file) {
 		try (InputStream stream = Files.newInputStream(file.toPath())) {
-			return StubMapping.buildFrom(StreamUtils.copyToString(stream, Charset.forName("UTF-8")));
+			String json = StreamUtils.copyToString(stream, StandardCharsets.UTF_8);
+			if (!looksLikeMapping(json)) {
+				throw new IllegalStateException("File [" + file + "] does not contain a stub mapping");
+			}
+			return Json.read(json, StubMappingCollection.class).getMappingOrMappings();
 		}
 		catch (IOException | JsonException e) {
 			throw new IllegalStateException("Cannot read file", e);
 		}
 	}
 
+	// cheap check to reject arbitrary JSON files before they get parsed
+	private static boolean looksLikeMapping(String json) {
+		return json.trim().startsWith("{") && (json.contains("\"request\"") || json.contains("\"mappings\""));
+	}
+
+	private List<StubMapping> getBundledMappings(File file) {
+		List<StubMapping> mappings = new ArrayList<>();
+		try {
+			for (StubBundle.Entry entry : StubBundle.read(file).getEntries(StubBundle.EntryType.MAPPING)) {
+				mappings.addAll(
+						Json.read(entry.getDataAsString(), StubMappingCollection.class).getMappingOrMappings());
+			}
+		}
+		catch (JsonException e) {
+			throw new IllegalStateException("Cannot read bundle", e);
+		}
+		return mappings;
+	}
+
 	private void registerStubMappings(Collection<File> stubFiles) {
-		WireMock wireMock = wireMock();
-		registerDefaultHealthChecks(wireMock);
-		registerStubs(stubFiles, wireMock);
+		Map<File, List<StubMapping>> fileMappings = readStubs(stubFiles);
+		List<StubMapping> stubMappings = mappings(fileMappings);
+		List<StubMapping> toImport = new ArrayList<>(defaultHealthChecks());
+		toImport.addAll(stubMappings);
+		// the import adds the mappings starting from the last one, reversing keeps the
+		// precedence of registering the mappings one by one - the later one wins
+		Collections.reverse(toImport);
+		this.wireMockServer.importStubs(new StubImport(toImport, StubImport.Options.DEFAULTS));
+		if (log.isDebugEnabled()) {
+			log.debug("Imported [" + stubMappings.size() + "] stub mappings");
+		}
+		this.fileMappings.putAll(fileMappings);
+		PortAndMappings portAndMappings = SERVERS.get(this);
+		SERVERS.put(this, new PortAndMappings(portAndMappings.random, portAndMappings.port, stubMappings));
 	}
 
-	private WireMock wireMock() {
-		String scheme = this.https ? "https" : "http";
-		String host = "localhost";
-		int port = port();
-		String urlPathPrefix = "";
-		String hostHeader = "";
-		String proxyHost = this.wireMockConfiguration.proxyHostHeader();
-		int proxyPort = this.wireMockConfiguration.proxyVia().port();
-		ClientAuthenticator authenticator = NoClientAuthenticator.noClientAuthenticator();
-		return new WireMock(scheme, host, port, urlPathPrefix, hostHeader, proxyHost, proxyPort, authenticator);
+	private List<StubMapping> mappings(Map<File, List<StubMapping>> fileMappings) {
+		List<StubMapping> mappings = new ArrayList<>();
+		fileMappings.values().forEach(mappings::addAll);
+		return mappings;
 	}
 
-	private void registerDefaultHealthChecks(WireMock wireMock) {
-		registerHealthCheck(wireMock, "/ping");
-		registerHealthCheck(wireMock, "/health");
+	private List<StubMapping> defaultHealthChecks() {
+		return Arrays.asList(healthCheck("/ping"), healthCheck("/health"));
 	}
 
-	private void registerStubs(Collection<File> sortedMappings, WireMock wireMock) {
-		List<StubMapping> stubMappings = new ArrayList<>();
+	private Map<File, List<StubMapping>> readStubs(Collection<File> sortedMappings) {
+		Map<File, List<StubMapping>> stubMappings = new LinkedHashMap<>();
 		for (File mappingDescriptor : sortedMappings) {
 			try {
-				stubMappings.add(registerDescriptor(wireMock, mappingDescriptor));
+				stubMappings.put(mappingDescriptor, getMappings(mappingDescriptor));
 				if (log.isDebugEnabled()) {
-					log.debug("Registered stub mappings from [" + mappingDescriptor + "]");
+					log.debug("Read stub mappings from [" + mappingDescriptor + "]");
 				}
 			}
 			catch (Exception e) {
 				if (log.isDebugEnabled()) {
-					log.debug("Failed to register the stub mapping [" + mappingDescriptor + "]", e);
+					log.debug("Failed to read the stub mapping [" + mappingDescriptor + "]", e);
 				}
 			}
 		}
-		PortAndMappings portAndMappings = SERVERS.get(this);
-		SERVERS.put(this, new PortAndMappings(portAndMappings.random, portAndMappings.port, stubMappings));
+		// files that were accepted but not registered won't be registered later on
+		this.parsedMappings.clear();
+		return stubMappings;
 	}
 
-	private StubMapping registerDescriptor(WireMock wireMock, File mappingDescriptor) {
-		StubMapping mapping = getMapping(mappingDescriptor);
-		wireMock.register(mapping);
-		return mapping;
-	}
-
-	private void registerHealthCheck(WireMock wireMock, String url) {
-		registerHealthCheck(wireMock, url, "OK");
-	}
-
-	private void registerHealthCheck(WireMock wireMock, String url, String body) {
-		wireMock.register(
-				WireMock.get(WireMock.urlEqualTo(url)).willReturn(WireMock.aResponse().withBody(body).withStatus(200)));
+	private StubMapping healthCheck(String url) {
+		return WireMock.get(WireMock.urlEqualTo(url))
+			.willReturn(WireMock.aResponse().withBody("OK").withStatus(200))
+			.build();
 	}
 
 	static class Slf4jNotifier implements Notifier {
@@ -327,3 +471,27 @@ class PortAndMappings {
 	}
 
 }
+
+class ParsedMappings {
+
+	private final long lastModified;
+
+	private final long length;
+
+	// parsed mappings of files that never get registered can be reclaimed
+	private final SoftReference<List<StubMapping>> mappings;
+
+	ParsedMappings(File file, List<StubMapping> mappings) {
+		this.lastModified = file.lastModified();
+		this.length = file.length();
+		this.mappings = new SoftReference<>(mappings);
+	}
+
+	List<StubMapping> mappingsIfUpToDate(File file) {
+		if (file.lastModified() != this.lastModified || file.length() != this.length) {
+			return null;
+		}
+		return this.mappings.get();
+	}
+
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2013-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.contract.stubrunner.server;
+
+import java.util.Arrays;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.cloud.contract.stubrunner.StubRunnerDaemonFiles;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Stub Runner Boot shared by the JVMs running the same stubs. Started by the first of
+ * them, it publishes its port once the stubs are running and stops once no JVM is
+ * attached to it anymore.
+ *
+ * The first argument is the base path of the files through which the JVMs coordinate,
+ * the other ones are passed to Stub Runner Boot.
+ *
+ * @author Marcin Grzejszczak
+ * @since 5.0.4
+ */
+public final class StubRunnerDaemon {
+
+	private static final Log log = LogFactory.getLog(StubRunnerDaemon.class);
+
+	private static final long CHECK_INTERVAL_MILLIS = 2_000;
+
+	private StubRunnerDaemon() {
+		throw new IllegalStateException("Can't instantiate a utility class");
+	}
+
+	public static void main(String[] args) throws InterruptedException {
+		StubRunnerDaemonFiles files = StubRunnerDaemonFiles.of(args[0]);
+		ConfigurableApplicationContext context = SpringApplication.run(StubRunnerBoot.class,
+				Arrays.copyOfRange(args, 1, args.length));
+		files.writePort(context.getEnvironment().getRequiredProperty("local.server.port", Integer.class));
+		while (!files.detachDaemonIfUnused()) {
+			Thread.sleep(CHECK_INTERVAL_MILLIS);
+		}
+		log.info("No JVM is attached to the stub runner daemon [" + files + "] anymore, stopping it");
+		System.exit(SpringApplication.exit(context));
+	}
+
+}
@@ -16,8 +16,15 @@
 
 package org.springframework.cloud.contract.stubrunner.server;
 
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.contract.stubrunner.StubIdleEvictor;
 import org.springframework.cloud.contract.verifier.messaging.boot.AutoConfigureMessageVerifier;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
 
@@ -36,4 +43,24 @@ class StubRunnerServerConfiguration {
 
 	}
 
+	@Configuration(proxyBeanMethods = false)
+	@ConditionalOnClass(MeterBinder.class)
+	static class StubRunnerMetricsConfiguration {
+
+		@Bean
+		MeterBinder stubRunnerServerMeterBinder() {
+			return registry -> {
+				Gauge.builder("stubrunner.stubs.active", StubIdleEvictor::activeStubServers)
+					.description("Number of running stub servers")
+					.register(registry);
+				FunctionCounter
+					.builder("stubrunner.stubs.evicted", StubIdleEvictor.class,
+							evictor -> StubIdleEvictor.evictedStubServers())
+					.description("Number of stub servers stopped because they were idle")
+					.register(registry);
+			};
+		}
+
+	}
+
 }
@@ -18,6 +18,8 @@ package org.springframework.cloud.contract.stubrunner.spring.cloud.loadbalancer;
 
 import java.io.Closeable;
 import java.net.URI;
+import java.net.URL;
+import java.util.AbstractMap;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -43,6 +45,7 @@ import org.springframework.cloud.client.loadbalancer.reactive.ReactiveLoadBalanc
 import org.springframework.cloud.contract.stubrunner.RunningStubs;
 import org.springframework.cloud.contract.stubrunner.StubConfiguration;
 import org.springframework.cloud.contract.stubrunner.StubFinder;
+import org.springframework.cloud.contract.stubrunner.StubNotFoundException;
 import org.springframework.cloud.contract.stubrunner.spring.cloud.ConditionalOnStubbedDiscoveryEnabled;
 import org.springframework.cloud.contract.stubrunner.spring.cloud.StubMapperProperties;
 import org.springframework.cloud.contract.stubrunner.spring.cloud.StubRunnerSpringCloudAutoConfiguration;
@@ -136,7 +139,9 @@ class StubbedServiceInstance implements ServiceInstance {
 
 	private final String serviceId;
 
-	static final Map<String, Map.Entry<StubConfiguration, Integer>> CACHE = new ConcurrentHashMap<>();
+	// only the stub is cached, its port is looked up each time, since the lookup starts
+	// a stub server that was not started yet or was stopped when idle
+	static final Map<String, StubConfiguration> CACHE = new ConcurrentHashMap<>();
 
 	StubbedServiceInstance(StubFinder stubFinder, StubMapperProperties stubMapperProperties, String serviceId) {
 		this.stubFinder = stubFinder;
@@ -145,17 +150,27 @@ class StubbedServiceInstance implements ServiceInstance {
 	}
 
 	private Map.Entry<StubConfiguration, Integer> stubEntry() {
-		Map.Entry<StubConfiguration, Integer> entry = CACHE.get(this.serviceId);
-		if (entry != null) {
-			return entry;
+		StubConfiguration stubConfiguration = CACHE.get(this.serviceId);
+		if (stubConfiguration == null) {
+			RunningStubs runningStubs = this.stubFinder.findAllRunningStubs();
+			String mappedServiceName = StringUtils
+				.hasText(this.stubMapperProperties.fromServiceIdToIvyNotation(this.serviceId))
+						? this.stubMapperProperties.fromServiceIdToIvyNotation(this.serviceId) : this.serviceId;
+			Map.Entry<StubConfiguration, Integer> entry = runningStubs.getEntry(mappedServiceName);
+			if (entry == null) {
+				return null;
+			}
+			stubConfiguration = entry.getKey();
+			CACHE.put(this.serviceId, stubConfiguration);
+		}
+		try {
+			URL url = this.stubFinder.findStubUrl(stubConfiguration.groupId, stubConfiguration.artifactId);
+			return new AbstractMap.SimpleEntry<>(stubConfiguration, url.getPort());
+		}
+		catch (StubNotFoundException ex) {
+			CACHE.remove(this.serviceId, stubConfiguration);
+			return null;
 		}
-		RunningStubs runningStubs = this.stubFinder.findAllRunningStubs();
-		String mappedServiceName = StringUtils
-			.hasText(this.stubMapperProperties.fromServiceIdToIvyNotation(this.serviceId))
-					? this.stubMapperProperties.fromServiceIdToIvyNotation(this.serviceId) : this.serviceId;
-		entry = runningStubs.getEntry(mappedServiceName);
-		CACHE.put(this.serviceId, entry);
-		return entry;
 	}
 
 	@Override
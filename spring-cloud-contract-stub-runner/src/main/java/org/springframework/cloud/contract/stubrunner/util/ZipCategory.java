@@ -24,6 +24,7 @@ import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.function.Predicate;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipException;
 import java.util.zip.ZipInputStream;
@@ -55,6 +56,20 @@ public final class ZipCategory {
 	 * @return a {@link Collection} of unzipped {@link File} objects.
 	 */
 	public static Collection<File> unzipTo(File self, File destination) {
+		return unzipTo(self, destination, entryName -> true);
+	}
+
+	/**
+	 * Unzips the entries of this file that match the filter. If the {@code destination}
+	 * directory is not provided, it will fall back to this file's parent directory.
+	 * @param self file
+	 * @param destination (optional), the destination directory where this file's content
+	 * will be unzipped to.
+	 * @param entryFilter returns {@code true} for names of the entries that should be
+	 * unzipped
+	 * @return a {@link Collection} of unzipped {@link File} objects.
+	 */
+	public static Collection<File> unzipTo(File self, File destination, Predicate<String> entryFilter) {
 		checkUnzipDestination(destination);
 		// if destination directory is not given, we'll fall back to the parent directory
 		// of 'self'
@@ -65,6 +80,9 @@ public final class ZipCategory {
 		try (InputStream fileInputStream = Files.newInputStream(self.toPath())) {
 			try (ZipInputStream zipInput = new ZipInputStream(fileInputStream)) {
 				for (ZipEntry entry = zipInput.getNextEntry(); entry != null; entry = zipInput.getNextEntry()) {
+					if (!entryFilter.test(entry.getName())) {
+						continue;
+					}
 					if (!entry.isDirectory()) {
 						final File destinationFile = new File(destination, entry.getName());
 						/*
@@ -16,6 +16,10 @@
 
 package org.springframework.cloud.contract.stubrunner
 
+import java.nio.channels.FileChannel
+import java.nio.channels.FileLock
+import java.nio.file.StandardOpenOption
+
 import spock.lang.Specification
 
 class AvailablePortScannerSpec extends Specification {
@@ -67,4 +71,45 @@ class AvailablePortScannerSpec extends Specification {
 			def ex = thrown(AvailablePortScanner.NoPortAvailableException)
 			ex.message == "Could not find available port in range $MIN_PORT:$MAX_PORT"
 	}
+
+	def 'should not use a port leased by another process'() {
+		given:
+			AvailablePortScanner portScanner = new AvailablePortScanner(MIN_PORT, MAX_PORT)
+			FileChannel channel = FileChannel.open(AvailablePortScanner.LEASE_FILE, StandardOpenOption.CREATE,
+					StandardOpenOption.WRITE)
+			FileLock lease = channel.lock(MIN_PORT, 1, false)
+		when:
+			List<Integer> usedPorts = (1..10).collect { portScanner.tryToExecuteWithFreePort { int port -> port } }
+		then:
+			usedPorts.every { it == MAX_PORT }
+		cleanup:
+			lease?.release()
+			channel?.close()
+	}
+
+	def 'should retry when the server fails to bind to the port'() {
+		given:
+			AvailablePortScanner portScanner = new AvailablePortScanner(MIN_PORT, MAX_PORT)
+			int attempts = 0
+		when:
+			int usedPort = portScanner.tryToExecuteWithFreePort { int port ->
+				if (attempts++ == 0) {
+					throw new IllegalStateException(new BindException("Address already in use"))
+				}
+				return port
+			}
+		then:
+			attempts == 2
+			usedPort in [MIN_PORT, MAX_PORT]
+	}
+
+	def 'should not retry on other exceptions'() {
+		given:
+			AvailablePortScanner portScanner = new AvailablePortScanner(MIN_PORT, MAX_PORT)
+		when:
+			portScanner.tryToExecuteWithFreePort { int port -> throw new IllegalStateException("boom") }
+		then:
+			thrown(IllegalStateException)
+	}
+
 }
@@ -50,6 +50,71 @@ class BatchStubRunnerSpec extends Specification {
 			exception.message == "No label with name [non existing label] was found. Here you have the list of dependencies and their labels [Dependency [a:b:c] has labels [foo]]"
 	}
 
+	def 'should start all stubs and collect their ports'() {
+		given:
+			StubRunner first = Mock(StubRunner)
+			first.runStubs() >> new RunningStubs([(new StubConfiguration('a:b')): 1000])
+			StubRunner second = Mock(StubRunner)
+			second.runStubs() >> new RunningStubs([(new StubConfiguration('c:d')): 2000])
+			BatchStubRunner batchStubRunner = new BatchStubRunner([first, second])
+		when:
+			RunningStubs runningStubs = batchStubRunner.runStubs()
+		then:
+			runningStubs.toIvyToPortMapping().values() as List == [1000, 2000]
+	}
+
+	def 'should aggregate failures of all stubs that failed to start'() {
+		given:
+			StubRunner first = Mock(StubRunner)
+			first.getStubRunnerOptions() >> concurrentStart()
+			first.runStubs() >> { throw new IllegalStateException("first") }
+			StubRunner second = Mock(StubRunner)
+			second.runStubs() >> new RunningStubs([(new StubConfiguration('c:d')): 2000])
+			StubRunner third = Mock(StubRunner)
+			third.runStubs() >> { throw new IllegalStateException("third") }
+			BatchStubRunner batchStubRunner = new BatchStubRunner([first, second, third])
+		when:
+			batchStubRunner.runStubs()
+		then:
+			IllegalStateException exception = thrown(IllegalStateException)
+			exception.message.contains("Failed to start [2] stubs")
+			exception.suppressed*.message == ["first", "third"]
+	}
+
+	def 'should stop the started stubs when other stubs failed to start'() {
+		given:
+			StubRunner first = Mock(StubRunner)
+			first.getStubRunnerOptions() >> concurrentStart()
+			first.runStubs() >> { throw new IllegalStateException("first") }
+			StubRunner second = Mock(StubRunner)
+			second.runStubs() >> new RunningStubs([(new StubConfiguration('c:d')): 2000])
+			BatchStubRunner batchStubRunner = new BatchStubRunner([first, second])
+		when:
+			batchStubRunner.runStubs()
+		then:
+			thrown(IllegalStateException)
+			0 * first.close()
+			1 * second.close()
+	}
+
+	def 'should start the stubs one after another by default'() {
+		given:
+			StubRunner first = Mock(StubRunner)
+			first.runStubs() >> { throw new IllegalStateException("first") }
+			StubRunner second = Mock(StubRunner)
+			BatchStubRunner batchStubRunner = new BatchStubRunner([first, second])
+		when:
+			batchStubRunner.runStubs()
+		then:
+			IllegalStateException exception = thrown(IllegalStateException)
+			exception.message == "first"
+			0 * second.runStubs()
+	}
+
+	private StubRunnerOptions concurrentStart() {
+		return new StubRunnerOptionsBuilder().withProperties([(BatchStubRunner.START_THREADS_PROPERTY): "2"]).build()
+	}
+
 	Collection<StubRunner> runners() {
 		StubRunner runner = Mock(StubRunner)
 		runner.findStubUrl("group", "knownArtifact") >> KNOWN_STUB_URL
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2013-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.contract.stubrunner
+
+import java.util.zip.ZipEntry
+import java.util.zip.ZipOutputStream
+
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+import spock.lang.Specification
+
+import org.springframework.cloud.contract.stubrunner.spring.StubRunnerProperties
+import org.springframework.cloud.contract.verifier.converter.StubIndex
+
+class ClasspathStubIndexSpec extends Specification {
+
+	@Rule
+	TemporaryFolder folder = new TemporaryFolder()
+
+	StubConfiguration foo = new StubConfiguration("com.example:foo:+:stubs")
+
+	def "should read the stubs of a folder in place"() {
+		given:
+			File root = folder.newFolder("classes")
+			File mapping = new File(root, "META-INF/com.example/foo/1.0.0/mappings/foo.json")
+			mapping.parentFile.mkdirs()
+			mapping.text = "{}"
+			List<String> entries = ["META-INF/com.example/foo/1.0.0/mappings/foo.json",
+									"META-INF/com.example/bar/1.0.0/mappings/bar.json"]
+			ClasspathStubIndex index = new ClasspathStubIndex(entries.collect {
+				new ClasspathStubIndex.IndexedEntry(root.toURI().toString(), it)
+			})
+		when:
+			Map.Entry<StubConfiguration, File> entry = downloader(index).downloadAndUnpackStubJar(foo)
+		then:
+			index.resources(foo).size() == 1
+			entry.value == new File(root, "META-INF/com.example/foo")
+	}
+
+	def "should copy the indexed stubs of a jar"() {
+		given:
+			File jar = new File(folder.root, "foo-stubs.jar")
+			new ZipOutputStream(new FileOutputStream(jar)).withCloseable {
+				it.putNextEntry(new ZipEntry("META-INF/com.example/foo/1.0.0/mappings/foo.json"))
+				it.write("{}".bytes)
+				it.closeEntry()
+			}
+			ClasspathStubIndex index = new ClasspathStubIndex([new ClasspathStubIndex.IndexedEntry(
+					"jar:" + jar.toURI() + "!/", "META-INF/com.example/foo/1.0.0/mappings/foo.json")])
+		when:
+			Map.Entry<StubConfiguration, File> entry = downloader(index).downloadAndUnpackStubJar(foo)
+		then:
+			index.directory(foo) == null
+			new File(entry.value, "com.example/foo/1.0.0/mappings/foo.json").text == "{}"
+	}
+
+	def "should scan the classpath unless the stub indexes are enabled"() {
+		given:
+			StubRunnerOptionsBuilder builder = new StubRunnerOptionsBuilder()
+					.withStubsMode(StubRunnerProperties.StubsMode.CLASSPATH)
+		expect:
+			(new ClasspathStubProvider().build(builder.build()) as ResourceResolvingStubDownloader).index == null
+			(new ClasspathStubProvider().build(builder.withProperties([(ClasspathStubIndex.ENABLED_PROPERTY): "true"])
+					.build()) as ResourceResolvingStubDownloader).index != null
+	}
+
+	def "should round trip the index entries"() {
+		given:
+			File index = StubIndex.write(folder.root, ["b/c.json", "a.json", "a.json"])
+		expect:
+			index.withInputStream { StubIndex.read(it) } == ["a.json", "b/c.json"]
+	}
+
+	private ResourceResolvingStubDownloader downloader(ClasspathStubIndex index) {
+		StubRunnerOptions options = new StubRunnerOptionsBuilder()
+				.withStubsMode(StubRunnerProperties.StubsMode.CLASSPATH)
+				.build()
+		return new ResourceResolvingStubDownloader(options, { o, c -> new RepoRoots() },
+				{ c -> ~"^(.*)(com.example.foo)(.*)\$" }, index)
+	}
+
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2013-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.contract.stubrunner
+
+import java.util.zip.ZipEntry
+import java.util.zip.ZipOutputStream
+
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+import spock.lang.Specification
+import spock.util.environment.RestoreSystemProperties
+
+import org.springframework.cloud.contract.stubrunner.spring.StubRunnerProperties
+
+class LocalRepositoryStubDownloaderSpec extends Specification {
+
+	@Rule
+	TemporaryFolder folder = new TemporaryFolder()
+
+	StubRunnerOptions options = new StubRunnerOptionsBuilder()
+			.withStubsMode(StubRunnerProperties.StubsMode.LOCAL)
+			.build()
+
+	def "should resolve a stub with a fixed version"() {
+		given:
+			install("1.0.0", "mappings/foo.json", "1.0.0")
+			LocalRepositoryStubDownloader downloader = new LocalRepositoryStubDownloader(options, folder.root)
+		when:
+			Map.Entry<StubConfiguration, File> entry = downloader
+					.downloadAndUnpackStubJar(new StubConfiguration("com.example:foo:1.0.0:stubs"))
+		then:
+			entry.key.version == "1.0.0"
+			new File(entry.value, "mappings/foo.json").text == "1.0.0"
+	}
+
+	def "should resolve the highest installed version from the metadata"() {
+		given:
+			install("1.0.0", "mappings/foo.json", "1.0.0")
+			install("1.2.0", "mappings/foo.json", "1.2.0")
+			install("2.0.0-SNAPSHOT", "mappings/foo.json", "2.0.0-SNAPSHOT")
+			metadata("1.0.0", "1.2.0", "2.0.0-SNAPSHOT", "3.0.0")
+			LocalRepositoryStubDownloader downloader = new LocalRepositoryStubDownloader(options, folder.root)
+		expect:
+			downloader.downloadAndUnpackStubJar(new StubConfiguration("com.example:foo:+:stubs")).key.version == "2.0.0-SNAPSHOT"
+			downloader.downloadAndUnpackStubJar(new StubConfiguration("com.example:foo:[1.0,2.0):stubs")).key.version == "1.2.0"
+	}
+
+	def "should return null when the stub is not installed"() {
+		given:
+			LocalRepositoryStubDownloader downloader = new LocalRepositoryStubDownloader(options, folder.root)
+		expect:
+			downloader.downloadAndUnpackStubJar(new StubConfiguration("com.example:foo:1.0.0:stubs")) == null
+			downloader.downloadAndUnpackStubJar(new StubConfiguration("com.example:foo:+:stubs")) == null
+	}
+
+	@RestoreSystemProperties
+	def "should read the local repository from the user settings"() {
+		given:
+			File settings = folder.newFile("settings.xml")
+			settings.text = '''<settings><localRepository>${user.home}/custom-repo</localRepository></settings>'''
+			System.clearProperty("maven.repo.local")
+			System.setProperty("org.apache.maven.user-settings", settings.absolutePath)
+		expect:
+			LocalRepositoryStubDownloaderBuilder.localRepository() == new File(System.getProperty("user.home"), "custom-repo")
+	}
+
+	def "should be used only in the local mode"() {
+		expect:
+			new LocalRepositoryStubDownloaderBuilder().build(new StubRunnerOptionsBuilder()
+					.withStubsMode(StubRunnerProperties.StubsMode.REMOTE).build()) == null
+			new LocalRepositoryStubDownloaderBuilder().build(new StubRunnerOptionsBuilder()
+					.withStubsMode(StubRunnerProperties.StubsMode.LOCAL)
+					.withProperties([(LocalRepositoryStubDownloaderBuilder.ENABLED_PROPERTY): "false"]).build()) == null
+	}
+
+	private void install(String version, String entry, String content) {
+		File jar = new File(folder.root, "com/example/foo/${version}/foo-${version}-stubs.jar")
+		jar.parentFile.mkdirs()
+		new ZipOutputStream(new FileOutputStream(jar)).withCloseable {
+			it.putNextEntry(new ZipEntry(entry))
+			it.write(content.bytes)
+			it.closeEntry()
+		}
+	}
+
+	private void metadata(String... versions) {
+		new File(folder.root, "com/example/foo/maven-metadata-local.xml").text = """<metadata>
+  <groupId>com.example</groupId>
+  <artifactId>foo</artifactId>
+  <versioning>
+    <versions>
+${versions.collect { "      <version>${it}</version>" }.join("\n")}
+    </versions>
+  </versioning>
+</metadata>"""
+	}
+
+}
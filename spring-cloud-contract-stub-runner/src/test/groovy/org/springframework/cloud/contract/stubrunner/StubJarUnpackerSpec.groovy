@@ -0,0 +1,85 @@
+/*
+ * Copyright 2013-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.contract.stubrunner
+
+import java.util.zip.ZipEntry
+import java.util.zip.ZipOutputStream
+
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+import spock.lang.Specification
+
+import org.springframework.cloud.contract.stubrunner.provider.wiremock.WireMockHttpServerStub
+import org.springframework.cloud.contract.verifier.converter.StubBundle
+import org.springframework.cloud.contract.verifier.converter.StubBundleWriter
+
+class StubJarUnpackerSpec extends Specification {
+
+	private static final String MAPPING = "com/example/stubs/mappings/foo.json"
+
+	private static final String BUNDLE = "com/example/stubs/" + StubBundle.BUNDLE_FILE_NAME
+
+	@Rule
+	TemporaryFolder folder = new TemporaryFolder()
+
+	def "should not unpack the mappings stored in a bundle read by the HTTP server stub"() {
+		when:
+			File unpacked = new StubJarUnpacker(null, new WireMockHttpServerStub()).unpack(jarWithBundle())
+		then:
+			new File(unpacked, BUNDLE).exists()
+			!new File(unpacked, MAPPING).exists()
+	}
+
+	def "should unpack the mappings stored in a bundle when the HTTP server stub doesn't read bundles"() {
+		given:
+			HttpServerStub httpServerStub = Stub(HttpServerStub) {
+				isAccepted(_) >> false
+			}
+		when:
+			File unpacked = new StubJarUnpacker(null, httpServerStub).unpack(jarWithBundle())
+		then:
+			new File(unpacked, BUNDLE).exists()
+			new File(unpacked, MAPPING).exists()
+	}
+
+	def "should unpack all files when the bundles are not used"() {
+		when:
+			File unpacked = new StubJarUnpacker(null, null).unpack(jarWithBundle())
+		then:
+			new File(unpacked, BUNDLE).exists()
+			new File(unpacked, MAPPING).exists()
+	}
+
+	private File jarWithBundle() {
+		File stubs = folder.newFolder("stubs")
+		File mapping = new File(stubs, MAPPING)
+		mapping.parentFile.mkdirs()
+		mapping.text = '{"request":{"method":"GET","url":"/foo"},"response":{"status":200,"body":"foo"}}'
+		File bundles = folder.newFolder("bundles")
+		new StubBundleWriter().writeBundles(stubs, bundles)
+		File jar = folder.newFile("stubs.jar")
+		new ZipOutputStream(new FileOutputStream(jar)).withCloseable { zip ->
+			[(MAPPING): mapping, (BUNDLE): new File(bundles, BUNDLE)].each { String name, File file ->
+				zip.putNextEntry(new ZipEntry(name))
+				zip.write(file.bytes)
+				zip.closeEntry()
+			}
+		}
+		return jar
+	}
+
+}
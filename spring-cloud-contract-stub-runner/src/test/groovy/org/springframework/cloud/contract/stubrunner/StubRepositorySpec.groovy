@@ -16,9 +16,18 @@
 
 package org.springframework.cloud.contract.stubrunner
 
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
 import spock.lang.Specification
 
+import org.springframework.cloud.contract.verifier.converter.StubBundle
+import org.springframework.cloud.contract.verifier.converter.StubBundleWriter
+
 class StubRepositorySpec extends Specification {
+
+	@Rule
+	TemporaryFolder folder = new TemporaryFolder()
+
 	public static
 	final File REPOSITORY_LOCATION = new File('src/test/resources/repository')
 
@@ -61,4 +70,62 @@ class StubRepositorySpec extends Specification {
 		then:
 			descriptors.size() == expectedDescriptorsSize
 	}
+
+	def 'should parse the contracts only when they are accessed'() {
+		given:
+			File mapping = new File(folder.root, "mappings/foo.json")
+			mapping.parentFile.mkdirs()
+			mapping.text = '{"request":{"method":"GET","url":"/foo"},"response":{"status":200}}'
+			File contract = new File(folder.root, "contracts/broken.groovy")
+			contract.parentFile.mkdirs()
+			contract.text = "this is not a contract {"
+		when:
+			StubRepository repository = new StubRepository(folder.root, [], new StubRunnerOptionsBuilder().build(),
+					null)
+		then:
+			repository.stubs.size() == 1
+		when:
+			repository.contracts.size()
+		then:
+			thrown(Exception)
+	}
+
+	def 'should serve the stubs and read the contracts of a bundle without the plain files'() {
+		given:
+			File stubs = folder.newFolder("stubs")
+			File mapping = new File(stubs, "mappings/foo.json")
+			mapping.parentFile.mkdirs()
+			mapping.text = '{"request":{"method":"GET","url":"/foo"},"response":{"status":200,"body":"foo"}}'
+			File contract = new File(stubs, "contracts/bar.groovy")
+			contract.parentFile.mkdirs()
+			contract.text = """\
+org.springframework.cloud.contract.spec.Contract.make {
+	request {
+		method 'GET'
+		url '/bar'
+	}
+	response {
+		status OK()
+	}
+}
+"""
+			File repositoryLocation = folder.newFolder("repository")
+			new StubBundleWriter().writeBundles(stubs, repositoryLocation)
+			File bundle = new File(repositoryLocation, StubBundle.BUNDLE_FILE_NAME)
+			StubRunnerOptions options = new StubRunnerOptionsBuilder().build()
+			StubRunnerExecutor executor = new StubRunnerExecutor(new AvailablePortScanner(18999, 19999))
+		when:
+			StubRepository repository = new StubRepository(repositoryLocation, [], options, null)
+		then:
+			repositoryLocation.list() as List == [StubBundle.BUNDLE_FILE_NAME]
+			repository.stubs == [bundle]
+			repository.contracts*.request*.url*.clientValue == ["/bar"]
+		when:
+			executor.runStubs(options, repository, new StubConfiguration("group:artifact", "stubs"))
+		then:
+			new URL(executor.findStubUrl("group", "artifact"), "/foo").text == "foo"
+		cleanup:
+			executor?.shutdown()
+	}
+
 }
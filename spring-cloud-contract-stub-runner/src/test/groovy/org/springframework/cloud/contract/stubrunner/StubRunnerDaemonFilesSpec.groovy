@@ -0,0 +1,71 @@
+/*
+ * Copyright 2013-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.contract.stubrunner
+
+import spock.lang.Specification
+
+class StubRunnerDaemonFilesSpec extends Specification {
+
+	def 'should let the daemon stop only once no JVM is attached to it'() {
+		given:
+			File directory = File.createTempDir()
+			directory.deleteOnExit()
+			StubRunnerDaemonFiles files = StubRunnerDaemonFiles.of(new File(directory, "daemon").absolutePath)
+			files.writePort(12345)
+		when:
+			Closeable client = files.attachClient()
+		then:
+			!files.detachDaemonIfUnused()
+			files.readPort() == 12345
+		when:
+			client.close()
+		then:
+			files.detachDaemonIfUnused()
+			files.readPort() == null
+	}
+
+	def 'should share the daemon only between the same options'() {
+		expect:
+			StubRunnerDaemonFiles.key(options("a:b:1.0")) == StubRunnerDaemonFiles.key(options("a:b:1.0"))
+			StubRunnerDaemonFiles.key(options("a:b:1.0")) != StubRunnerDaemonFiles.key(options("a:b:2.0"))
+	}
+
+	def 'should pass the options to the daemon without letting it attach to itself or stop its stubs'() {
+		given:
+			StubRunnerOptions options = new StubRunnerOptionsBuilder()
+					.withStubs("a:b:1.0:stubs:18090")
+					.withStubsMode("REMOTE")
+					.withProperties([(SharedStubRunner.ENABLED_PROPERTY): "true", "foo.bar": "baz",
+									 (StubRunnerExecutor.LAZY_START_PROPERTY): "true",
+									 (StubIdleEvictor.IDLE_TIMEOUT_PROPERTY): "60"])
+					.build()
+		when:
+			Map<String, Object> properties = SharedStubRunner.daemonProperties(options)
+		then:
+			properties["spring.cloud.contract.stubrunner.ids"] == ["a:b:1.0:stubs:18090"]
+			properties["spring.cloud.contract.stubrunner.stubs-mode"] == "REMOTE"
+			properties["spring.cloud.contract.stubrunner.properties[foo.bar]"] == "baz"
+			properties["spring.cloud.contract.stubrunner.properties[${SharedStubRunner.ENABLED_PROPERTY}]".toString()] == "false"
+			properties["spring.cloud.contract.stubrunner.properties[${StubRunnerExecutor.LAZY_START_PROPERTY}]".toString()] == "false"
+			!properties.containsKey("spring.cloud.contract.stubrunner.properties[${StubIdleEvictor.IDLE_TIMEOUT_PROPERTY}]".toString())
+	}
+
+	private StubRunnerOptions options(String stub) {
+		return new StubRunnerOptionsBuilder().withStubs(stub).build()
+	}
+
+}
@@ -16,10 +16,12 @@
 
 package org.springframework.cloud.contract.stubrunner
 
+import java.time.Duration
 import java.util.concurrent.TimeUnit
 
 import groovy.json.JsonOutput
 import spock.lang.Specification
+import spock.util.concurrent.PollingConditions
 
 import org.springframework.cloud.contract.stubrunner.util.StubsParser
 import org.springframework.cloud.contract.verifier.converter.YamlContract
@@ -88,6 +90,101 @@ class StubRunnerExecutorSpec extends Specification {
 			executor.shutdown()
 	}
 
+	def 'should start a lazily started stub on the published port when its URL is looked up'() {
+		given:
+			StubRunnerExecutor executor = new StubRunnerExecutor(portScanner)
+			stubRunnerOptions = new StubRunnerOptionsBuilder()
+					.withProperties([(StubRunnerExecutor.LAZY_START_PROPERTY): "true"])
+					.build()
+		when:
+			RunningStubs runningStubs = executor.runStubs(stubRunnerOptions, repository, stub)
+		then:
+			int port = runningStubs.getPort("group:artifact")
+			port >= MIN_PORT
+			port <= MAX_PORT
+			!executor.stubServer.isRunning()
+			executor.findAllRunningStubs().getPort("group:artifact") == port
+			!executor.stubServer.isRunning()
+		when:
+			URL url = executor.findStubUrl("group", "artifact")
+		then:
+			url == "http://localhost:${port}".toURL()
+			executor.stubServer.isRunning()
+			"OK" == new URL("${url}/health").text
+		cleanup:
+			executor.shutdown()
+	}
+
+	def 'should stop an idle stub server and start it again on the same port when it is looked up'() {
+		given:
+			StubRunnerExecutor executor = new StubRunnerExecutor(portScanner)
+			executor.runStubs(stubRunnerOptions, repository, stub)
+			int port = executor.findStubUrl("group", "artifact").port
+			StubIdleEvictor evictor = new StubIdleEvictor(Duration.ZERO)
+			long evicted = StubIdleEvictor.evictedStubServers()
+		when:
+			// the first check only records the number of served requests
+			evictor.evictIfIdle(executor.stubServer, portScanner)
+			evictor.evictIfIdle(executor.stubServer, portScanner)
+		then:
+			!executor.stubServer.isRunning()
+			StubIdleEvictor.evictedStubServers() == evicted + 1
+			executor.findAllRunningStubs().getPort("group:artifact") == port
+		when:
+			URL url = executor.findStubUrl("group", "artifact")
+		then:
+			url.port == port
+			executor.stubServer.isRunning()
+		cleanup:
+			executor.shutdown()
+	}
+
+	def 'should apply changed mapping files to the running stub server'() {
+		given:
+			File stubs = File.createTempDir()
+			stubs.deleteOnExit()
+			File foo = new File(stubs, "foo.json")
+			foo.text = mapping("/foo", "foo")
+			StubRunnerOptions stubRunnerOptions = new StubRunnerOptionsBuilder()
+					.withProperties([(StubRepositoryWatcher.ENABLED_PROPERTY): "true"])
+					.build()
+			StubRepository repository = new StubRepository(stubs, [], stubRunnerOptions, null)
+			StubRunnerExecutor executor = new StubRunnerExecutor(portScanner)
+			executor.runStubs(stubRunnerOptions, repository, stub)
+			String url = executor.findStubUrl("group", "artifact").toString()
+			PollingConditions conditions = new PollingConditions(timeout: 10)
+		when:
+			foo.text = mapping("/foo", "changed")
+			new File(stubs, "bar.json").text = mapping("/bar", "bar")
+		then:
+			conditions.eventually {
+				assert get("${url}/foo") == "changed"
+				assert get("${url}/bar") == "bar"
+			}
+		when:
+			foo.delete()
+		then:
+			conditions.eventually {
+				assert get("${url}/foo") == null
+			}
+			get("${url}/bar") == "bar"
+		cleanup:
+			executor.shutdown()
+	}
+
+	private String mapping(String url, String body) {
+		return JsonOutput.toJson([request: [method: "GET", url: url], response: [status: 200, body: body]])
+	}
+
+	private String get(String url) {
+		try {
+			return new URL(url).text
+		}
+		catch (IOException e) {
+			return null
+		}
+	}
+
 	def 'should ensure that triggered contracts have properly parsed message body when a message is sent'() {
 		given:
 			StubRunnerExecutor executor = new StubRunnerExecutor(portScanner, new AssertingStubMessages(), [])
@@ -67,6 +67,32 @@ class StubRunnerFactorySpec extends Specification {
 			stubRunners.size() == 2
 	}
 
+	def "Should download stubs in parallel and keep the order of the dependencies"() {
+		given:
+			folder.newFolder("mappings")
+			folder.newFile("hello.json").text = MAPPING
+			Set<String> threads = Collections.synchronizedSet(new HashSet<String>())
+			StubDownloader parallelDownloader = { StubConfiguration configuration ->
+				threads << Thread.currentThread().name
+				Thread.sleep(50)
+				return new AbstractMap.SimpleEntry(configuration, folder.root)
+			} as StubDownloader
+			StubRunnerOptions options = new StubRunnerOptionsBuilder()
+					.withStubs("a:b,c:d,e:f,g:h")
+					.withProperties([(StubRunnerFactory.DOWNLOAD_THREADS_PROPERTY): threadCount])
+					.build()
+		when:
+			Collection<StubRunner> stubRunners = new StubRunnerFactory(options, parallelDownloader, new NoOpStubMessages())
+					.createStubsFromServiceConfiguration()
+		then:
+			stubRunners*.stubsConfiguration*.artifactId == ["b", "d", "f", "h"]
+			threads.size() == expectedThreads
+		where:
+			threadCount || expectedThreads
+			"1"         || 1
+			"4"         || 4
+	}
+
 	private List<StubRunner> collectOnlyPresentValues(Collection<StubRunner> stubRunners) {
 		return stubRunners.findAll { it != null }
 	}
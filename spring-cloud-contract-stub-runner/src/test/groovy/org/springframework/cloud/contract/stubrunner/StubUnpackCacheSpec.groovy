@@ -0,0 +1,150 @@
+/*
+ * Copyright 2013-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.contract.stubrunner
+
+import java.nio.channels.FileChannel
+import java.nio.file.StandardOpenOption
+import java.time.Duration
+import java.util.zip.ZipEntry
+import java.util.zip.ZipOutputStream
+
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+import spock.lang.Specification
+
+class StubUnpackCacheSpec extends Specification {
+
+	@Rule
+	TemporaryFolder folder = new TemporaryFolder()
+
+	def "should unpack a jar only once and reuse it in other instances"() {
+		given:
+			File jar = jar("foo.jar", "mappings/foo.json", "foo")
+			File cacheDir = folder.newFolder("cache")
+		when:
+			File first = new StubUnpackCache(cacheDir.toPath(), Long.MAX_VALUE, Duration.ZERO).unpack(jar)
+			new File(first, "mappings/foo.json").text = "changed"
+			File second = new StubUnpackCache(cacheDir.toPath(), Long.MAX_VALUE, Duration.ZERO).unpack(jar)
+		then:
+			first == second
+			new File(second, "mappings/foo.json").text == "changed"
+			cacheDir.listFiles().findAll { it.isDirectory() } == [first]
+	}
+
+	def "should unpack a jar again when its entry got evicted by another JVM"() {
+		given:
+			File jar = jar("foo.jar", "mappings/foo.json", "foo")
+			StubUnpackCache cache = new StubUnpackCache(folder.newFolder("cache").toPath(), Long.MAX_VALUE,
+					Duration.ZERO)
+			File first = cache.unpack(jar)
+		when:
+			first.deleteDir()
+			File second = cache.unpack(jar)
+		then:
+			second == first
+			new File(second, "mappings/foo.json").text == "foo"
+	}
+
+	def "should use different entries for jars with different content"() {
+		given:
+			StubUnpackCache cache = new StubUnpackCache(folder.newFolder("cache").toPath(), Long.MAX_VALUE,
+					Duration.ZERO)
+		when:
+			File foo = cache.unpack(jar("foo.jar", "mappings/foo.json", "foo"))
+			File bar = cache.unpack(jar("bar.jar", "mappings/foo.json", "bar"))
+		then:
+			foo != bar
+			new File(foo, "mappings/foo.json").text == "foo"
+			new File(bar, "mappings/foo.json").text == "bar"
+	}
+
+	def "should evict the least recently used entries when the cache is too big"() {
+		given:
+			StubUnpackCache cache = new StubUnpackCache(folder.newFolder("cache").toPath(), 4, Duration.ZERO)
+		when:
+			File foo = cache.unpack(jar("foo.jar", "mappings/foo.json", "foo"))
+			StubUnpackCache.release(foo)
+			File bar = cache.unpack(jar("bar.jar", "mappings/bar.json", "bar"))
+		then:
+			!foo.exists()
+			new File(bar, "mappings/bar.json").text == "bar"
+		cleanup:
+			StubUnpackCache.release(bar)
+	}
+
+	def "should not evict entries that are still in use"() {
+		given:
+			StubUnpackCache cache = new StubUnpackCache(folder.newFolder("cache").toPath(), 4, Duration.ZERO)
+		when:
+			File foo = cache.unpack(jar("foo.jar", "mappings/foo.json", "foo"))
+			File bar = cache.unpack(jar("bar.jar", "mappings/bar.json", "bar"))
+		then:
+			new File(foo, "mappings/foo.json").text == "foo"
+			new File(bar, "mappings/bar.json").text == "bar"
+		when:
+			StubUnpackCache.release(foo)
+			cache.unpack(jar("baz.jar", "mappings/baz.json", "baz"))
+		then:
+			!foo.exists()
+			bar.exists()
+	}
+
+	def "should not evict entries locked by another JVM"() {
+		given:
+			File cacheDir = folder.newFolder("cache")
+			StubUnpackCache cache = new StubUnpackCache(cacheDir.toPath(), 4, Duration.ZERO)
+			File foo = cache.unpack(jar("foo.jar", "mappings/foo.json", "foo"))
+			StubUnpackCache.release(foo)
+		and:
+			FileChannel channel = FileChannel.open(new File(cacheDir, foo.name + ".in-use.lock").toPath(),
+					StandardOpenOption.READ, StandardOpenOption.WRITE)
+			channel.lock(0, Long.MAX_VALUE, true)
+		when:
+			cache.unpack(jar("bar.jar", "mappings/bar.json", "bar"))
+		then:
+			new File(foo, "mappings/foo.json").text == "foo"
+		cleanup:
+			channel?.close()
+	}
+
+	def "should not evict recently used entries"() {
+		given:
+			StubUnpackCache cache = new StubUnpackCache(folder.newFolder("cache").toPath(), 4, Duration.ofHours(1))
+		when:
+			File foo = cache.unpack(jar("foo.jar", "mappings/foo.json", "foo"))
+			File bar = cache.unpack(jar("bar.jar", "mappings/bar.json", "bar"))
+		then:
+			new File(foo, "mappings/foo.json").text == "foo"
+			new File(bar, "mappings/bar.json").text == "bar"
+	}
+
+	def "should be disabled by default"() {
+		expect:
+			StubUnpackCache.fromOptions(new StubRunnerOptionsBuilder().build()) == null
+	}
+
+	private File jar(String name, String entry, String content) {
+		File jar = new File(folder.root, name)
+		new ZipOutputStream(new FileOutputStream(jar)).withCloseable {
+			it.putNextEntry(new ZipEntry(entry))
+			it.write(content.bytes)
+			it.closeEntry()
+		}
+		return jar
+	}
+
+}
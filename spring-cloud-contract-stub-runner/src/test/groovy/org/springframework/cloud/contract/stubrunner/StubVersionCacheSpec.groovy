@@ -0,0 +1,66 @@
+/*
+ * Copyright 2013-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.contract.stubrunner
+
+import java.nio.file.Path
+import java.time.Clock
+import java.time.Duration
+import java.time.Instant
+import java.time.ZoneOffset
+
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+import spock.lang.Specification
+
+class StubVersionCacheSpec extends Specification {
+
+	@Rule
+	TemporaryFolder folder = new TemporaryFolder()
+
+	def "should share resolved versions between instances"() {
+		given:
+			Path file = new File(folder.root, "cache/stub-versions.properties").toPath()
+			Clock clock = Clock.fixed(Instant.now(), ZoneOffset.UTC)
+		when:
+			new StubVersionCache(file, Duration.ofMinutes(1), clock).put("a:b:stubs:+@repo", "1.0.0")
+		then:
+			new StubVersionCache(file, Duration.ofMinutes(1), clock).get("a:b:stubs:+@repo") == "1.0.0"
+			new StubVersionCache(file, Duration.ofMinutes(1), clock).get("a:b:stubs:[1,2)@repo") == null
+	}
+
+	def "should not return expired versions"() {
+		given:
+			Path file = new File(folder.root, "stub-versions.properties").toPath()
+			Instant now = Instant.now()
+			new StubVersionCache(file, Duration.ofMinutes(1), Clock.fixed(now, ZoneOffset.UTC)).put("key", "1.0.0")
+		expect:
+			new StubVersionCache(file, Duration.ofMinutes(1), Clock.fixed(now.plusSeconds(30), ZoneOffset.UTC))
+				.get("key") == "1.0.0"
+			new StubVersionCache(file, Duration.ofMinutes(1), Clock.fixed(now.plusSeconds(61), ZoneOffset.UTC))
+				.get("key") == null
+	}
+
+	def "should be disabled when the time to live is not set"() {
+		expect:
+			StubVersionCache.fromOptions(new StubRunnerOptionsBuilder().build(),
+					{ throw new AssertionError("The local repository should not be resolved") }) == null
+			StubVersionCache.fromOptions(
+					new StubRunnerOptionsBuilder().withProperties([(StubVersionCache.TTL_PROPERTY): "60"]).build(),
+					{ folder.root.absolutePath }) != null
+	}
+
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2013-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.contract.stubrunner.junit
+
+import groovy.json.JsonSlurper
+import spock.lang.Specification
+
+import org.springframework.cloud.contract.stubrunner.BatchStubRunner
+import org.springframework.cloud.contract.stubrunner.StubRunnerOptions
+import org.springframework.cloud.contract.stubrunner.StubRunnerOptionsBuilder
+import org.springframework.cloud.contract.stubrunner.spring.StubRunnerProperties
+
+/**
+ * @author Marcin Grzejszczak
+ */
+class StubRunnerCacheSpec extends Specification {
+
+	def 'should reuse the running stubs between test classes and stop the least recently used ones'() {
+		given:
+			StubRunnerOptions options = options(["stubs.junit-cache.enabled": "true",
+												 "stubs.junit-cache.max-size": "1", "spec": "first"])
+		when:
+			BatchStubRunner first = StubRunnerCache.acquire(options, new ExceptionThrowingMessageVerifier())
+			BatchStubRunner second = StubRunnerCache.acquire(options, new ExceptionThrowingMessageVerifier())
+		then:
+			first.is(second)
+		when:
+			URL url = first.findStubUrl("bootService")
+			new URL(url, "/ping").text
+			StubRunnerCache.release(first)
+			StubRunnerCache.release(second)
+		then:
+			mappings(url).contains("mappings")
+			requests(url).isEmpty()
+		when:
+			BatchStubRunner other = StubRunnerCache.acquire(options(["stubs.junit-cache.enabled": "true",
+																	  "stubs.junit-cache.max-size": "1", "spec": "second"]),
+					new ExceptionThrowingMessageVerifier())
+		then:
+			!other.is(first)
+		when:
+			mappings(url)
+		then:
+			thrown(IOException)
+		cleanup:
+			StubRunnerCache.release(other)
+	}
+
+	def 'should start and stop the stubs for each test class by default'() {
+		given:
+			StubRunnerOptions options = options(["spec": "disabled"])
+		when:
+			BatchStubRunner first = StubRunnerCache.acquire(options, new ExceptionThrowingMessageVerifier())
+			BatchStubRunner second = StubRunnerCache.acquire(options, new ExceptionThrowingMessageVerifier())
+		then:
+			!first.is(second)
+		when:
+			URL url = first.findStubUrl("bootService")
+			StubRunnerCache.release(first)
+			StubRunnerCache.release(second)
+		and:
+			mappings(url)
+		then:
+			thrown(IOException)
+	}
+
+	private StubRunnerOptions options(Map<String, String> properties) {
+		return new StubRunnerOptionsBuilder()
+				.withStubsMode(StubRunnerProperties.StubsMode.REMOTE)
+				.withStubRepositoryRoot(StubRunnerCacheSpec.getResource("/m2repo/repository").toURI().toString())
+				.withStubs("org.springframework.cloud.contract.verifier.stubs:bootService")
+				.withProperties(properties)
+				.build()
+	}
+
+	private String mappings(URL url) {
+		return new URL(url, "/__admin/mappings").text
+	}
+
+	private List requests(URL url) {
+		return new JsonSlurper().parseText(new URL(url, "/__admin/requests").text).requests as List
+	}
+
+}
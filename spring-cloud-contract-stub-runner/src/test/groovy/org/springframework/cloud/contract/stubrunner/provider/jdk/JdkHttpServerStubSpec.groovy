@@ -0,0 +1,133 @@
+/*
+ * Copyright 2013-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.contract.stubrunner.provider.jdk
+
+import spock.lang.Specification
+
+import org.springframework.cloud.contract.stubrunner.HttpServerStubConfiguration
+import org.springframework.cloud.contract.stubrunner.HttpServerStubConfigurer
+import org.springframework.cloud.test.TestSocketUtils
+import org.springframework.http.HttpEntity
+import org.springframework.http.HttpHeaders
+import org.springframework.http.HttpMethod
+import org.springframework.http.ResponseEntity
+import org.springframework.web.client.HttpClientErrorException
+import org.springframework.web.client.RestTemplate
+
+class JdkHttpServerStubSpec extends Specification {
+
+	public static final File AGGREGATED_MAPPINGS = new File('src/test/resources/aggregated-mappings.json')
+	public static final File ARBITRARY_JSON = new File('src/test/resources/arbitrary.json')
+	public static final File PDF = new File('src/test/resources/request.pdf')
+
+	JdkHttpServerStub httpServerStub = new JdkHttpServerStub().start(new HttpServerStubConfiguration(
+			HttpServerStubConfigurer.NoOpHttpServerStubConfigurer.INSTANCE, null, null,
+			TestSocketUtils.findAvailableTcpPort())) as JdkHttpServerStub
+
+	def cleanup() {
+		httpServerStub.stop()
+	}
+
+	def 'should serve the mappings of an aggregated mappings file together with the health checks'() {
+		when:
+			httpServerStub.registerMappings([AGGREGATED_MAPPINGS])
+		then:
+			"foo" == get("/foo")
+			"bar" == get("/bar")
+			"OK" == get("/health")
+			"OK" == get("/ping")
+	}
+
+	def 'should let the later mapping win unless the earlier one has a higher priority'() {
+		given:
+			File first = mapping('"priority":1,"request":{"method":"GET","url":"/prio"},"response":{"status":200,"body":"first"}')
+			File second = mapping('"request":{"method":"GET","url":"/prio"},"response":{"status":200,"body":"second"}')
+			File third = mapping('"request":{"method":"GET","url":"/foo"},"response":{"status":200,"body":"third"}')
+		when:
+			httpServerStub.registerMappings([AGGREGATED_MAPPINGS, first, second, third])
+		then:
+			"first" == get("/prio")
+			"third" == get("/foo")
+	}
+
+	def 'should match query parameters, headers and bodies'() {
+		given:
+			File file = mapping('''"request":{"method":"POST","urlPath":"/users",
+				"queryParameters":{"name":{"equalTo":"john doe"}},
+				"headers":{"Content-Type":{"matches":"application/json.*"},"X-Absent":{"absent":true}},
+				"bodyPatterns":[{"equalToJson":"{\\"a\\":1,\\"b\\":[1,2]}"}]},
+				"response":{"status":201,"jsonBody":{"id":1},"headers":{"Content-Type":"application/json"}}''')
+			HttpHeaders headers = new HttpHeaders()
+			headers.add("Content-Type", "application/json")
+		when:
+			httpServerStub.registerMappings([file])
+		and:
+			ResponseEntity<String> response = new RestTemplate().exchange(
+					"http://localhost:${httpServerStub.port()}/users?name=john%20doe", HttpMethod.POST,
+					new HttpEntity<>('{"b":[1,2],"a":1}', headers), String)
+		then:
+			response.statusCode.value() == 201
+			response.body == '{"id":1}'
+			response.headers.getFirst("Content-Type") == "application/json"
+		when:
+			new RestTemplate().exchange("http://localhost:${httpServerStub.port()}/users?name=jane", HttpMethod.POST,
+					new HttpEntity<>('{"b":[1,2],"a":1}', headers), String)
+		then:
+			HttpClientErrorException.NotFound e = thrown(HttpClientErrorException.NotFound)
+	}
+
+	def 'should skip mappings that can not be served without WireMock'() {
+		given:
+			File templated = mapping('"request":{"method":"GET","url":"/foo"},"response":{"status":200,"body":"{{request.url}}","transformers":["response-template"]}')
+			File scenario = mapping('"scenarioName":"x","request":{"method":"GET","url":"/foo"},"response":{"status":200,"body":"scenario"}')
+		when:
+			httpServerStub.registerMappings([AGGREGATED_MAPPINGS, templated, scenario])
+		then:
+			"foo" == get("/foo")
+			!httpServerStub.registeredMappings().contains("scenario")
+	}
+
+	def 'should remove all mappings on reset'() {
+		given:
+			httpServerStub.registerMappings([AGGREGATED_MAPPINGS])
+		when:
+			httpServerStub.reset()
+		and:
+			get("/foo")
+		then:
+			thrown(HttpClientErrorException.NotFound)
+	}
+
+	def 'should accept only files with mappings'() {
+		expect:
+			httpServerStub.isAccepted(AGGREGATED_MAPPINGS)
+			!httpServerStub.isAccepted(ARBITRARY_JSON)
+			!httpServerStub.isAccepted(PDF)
+	}
+
+	private String get(String path) {
+		return new RestTemplate().getForObject("http://localhost:${httpServerStub.port()}${path}", String)
+	}
+
+	private File mapping(String content) {
+		File file = File.createTempFile("mapping", ".json")
+		file.deleteOnExit()
+		file.text = "{${content}}"
+		return file
+	}
+
+}
@@ -21,11 +21,15 @@ import com.github.tomakehurst.wiremock.stubbing.StubMapping
 import org.junit.Rule
 import spock.lang.Ignore
 import spock.lang.Specification
+import spock.lang.Timeout
+import wiremock.org.eclipse.jetty.util.thread.ThreadPool
 
 import org.springframework.boot.resttestclient.TestRestTemplate
 import org.springframework.boot.test.system.OutputCaptureRule
 import org.springframework.cloud.contract.stubrunner.HttpServerStubConfiguration
 import org.springframework.cloud.contract.stubrunner.HttpServerStubConfigurer
+import org.springframework.cloud.contract.stubrunner.StubRunnerOptions
+import org.springframework.cloud.contract.stubrunner.StubRunnerOptionsBuilder
 import org.springframework.cloud.test.TestSocketUtils
 import org.springframework.http.HttpEntity
 import org.springframework.http.HttpMethod
@@ -37,6 +41,7 @@ class WireMockHttpServerStubSpec extends Specification {
 	public static final File ARBITRARY_JSON = new File('src/test/resources/sample_response.json')
 	public static final File PDF = new File('src/test/resources/request.pdf')
 	public static final File BROKEN_MAPPING = new File('src/test/resources/broken.json')
+	public static final File AGGREGATED_MAPPINGS = new File('src/test/resources/aggregated-mappings.json')
 
 	@Rule
 	OutputCaptureRule capture = new OutputCaptureRule()
@@ -46,7 +51,7 @@ class WireMockHttpServerStubSpec extends Specification {
 			WireMockHttpServerStub mappingDescriptor = new WireMockHttpServerStub().start(new HttpServerStubConfiguration(HttpServerStubConfigurer.NoOpHttpServerStubConfigurer.INSTANCE, null,
 					null, TestSocketUtils.findAvailableTcpPort())) as WireMockHttpServerStub
 		when:
-			StubMapping mapping = mappingDescriptor.getMapping(MAPPING_DESCRIPTOR)
+			StubMapping mapping = mappingDescriptor.getMappings(MAPPING_DESCRIPTOR).first()
 		then:
 			with(mapping) {
 				assert request.method == RequestMethod.GET
@@ -87,6 +92,144 @@ class WireMockHttpServerStubSpec extends Specification {
 			mappingDescriptor?.stop()
 	}
 
+	def 'should register all mappings from an aggregated mappings file'() {
+		given:
+			WireMockHttpServerStub httpServerStub = new WireMockHttpServerStub().start(new HttpServerStubConfiguration(HttpServerStubConfigurer.NoOpHttpServerStubConfigurer.INSTANCE, null,
+					null, TestSocketUtils.findAvailableTcpPort())) as WireMockHttpServerStub
+		expect:
+			httpServerStub.isAccepted(AGGREGATED_MAPPINGS)
+			httpServerStub.getMappings(AGGREGATED_MAPPINGS).size() == 2
+		when:
+			httpServerStub.registerMappings([AGGREGATED_MAPPINGS])
+		then:
+			"foo" == new RestTemplate().getForObject("http://localhost:${httpServerStub.port()}/foo", String)
+			"bar" == new RestTemplate().getForObject("http://localhost:${httpServerStub.port()}/bar", String)
+		cleanup:
+			httpServerStub?.stop()
+	}
+
+	def 'should register all mappings in one batch keeping the precedence of the later ones'() {
+		given:
+			WireMockHttpServerStub httpServerStub = new WireMockHttpServerStub().start(new HttpServerStubConfiguration(HttpServerStubConfigurer.NoOpHttpServerStubConfigurer.INSTANCE, null,
+					null, TestSocketUtils.findAvailableTcpPort())) as WireMockHttpServerStub
+			File first = mapping("/foo", "first")
+			File second = mapping("/foo", "second")
+		when:
+			httpServerStub.registerMappingsInBatch([AGGREGATED_MAPPINGS, first, second])
+		then:
+			"second" == new RestTemplate().getForObject("http://localhost:${httpServerStub.port()}/foo", String)
+			"bar" == new RestTemplate().getForObject("http://localhost:${httpServerStub.port()}/bar", String)
+			"OK" == new RestTemplate().getForObject("http://localhost:${httpServerStub.port()}/health", String)
+			WireMockHttpServerStub.SERVERS.get(httpServerStub).mappings.size() == 4
+		cleanup:
+			httpServerStub?.stop()
+	}
+
+	def 'should serve the mappings when running on virtual threads'() {
+		given:
+			StubRunnerOptions options = new StubRunnerOptionsBuilder()
+					.withProperties([(VirtualThreadPoolFactory.ENABLED_PROPERTY): "true"])
+					.build()
+			WireMockHttpServerStub httpServerStub = new WireMockHttpServerStub().start(new HttpServerStubConfiguration(HttpServerStubConfigurer.NoOpHttpServerStubConfigurer.INSTANCE, options,
+					null, TestSocketUtils.findAvailableTcpPort())) as WireMockHttpServerStub
+		when:
+			httpServerStub.registerMappings([AGGREGATED_MAPPINGS])
+		then:
+			"foo" == new RestTemplate().getForObject("http://localhost:${httpServerStub.port()}/foo", String)
+			"bar" == new RestTemplate().getForObject("http://localhost:${httpServerStub.port()}/bar", String)
+		cleanup:
+			httpServerStub?.stop()
+	}
+
+	def 'should keep serving the mappings when another server sharing the thread pool stops'() {
+		given:
+			StubRunnerOptions options = new StubRunnerOptionsBuilder()
+					.withProperties([(SharedThreadPoolFactory.ENABLED_PROPERTY): "true"])
+					.build()
+			WireMockHttpServerStub first = new WireMockHttpServerStub().start(new HttpServerStubConfiguration(HttpServerStubConfigurer.NoOpHttpServerStubConfigurer.INSTANCE, options,
+					null, TestSocketUtils.findAvailableTcpPort())) as WireMockHttpServerStub
+			WireMockHttpServerStub second = new WireMockHttpServerStub().start(new HttpServerStubConfiguration(HttpServerStubConfigurer.NoOpHttpServerStubConfigurer.INSTANCE, options,
+					null, TestSocketUtils.findAvailableTcpPort())) as WireMockHttpServerStub
+			first.registerMappings([AGGREGATED_MAPPINGS])
+			second.registerMappings([AGGREGATED_MAPPINGS])
+		when:
+			first.stop()
+		then:
+			"foo" == new RestTemplate().getForObject("http://localhost:${second.port()}/foo", String)
+		cleanup:
+			first?.stop()
+			second?.stop()
+	}
+
+	def 'should expose the size and the thread budget of the shared thread pool'() {
+		given:
+			StubRunnerOptions options = new StubRunnerOptionsBuilder()
+					.withProperties([(SharedThreadPoolFactory.ENABLED_PROPERTY): "true"])
+					.build()
+		when:
+			ThreadPool threadPool = SharedThreadPoolFactory.fromOptions(options).buildThreadPool(null)
+		then:
+			threadPool instanceof ThreadPool.SizedThreadPool
+			(threadPool as ThreadPool.SizedThreadPool).maxThreads > 0
+			(threadPool as ThreadPool.SizedThreadPool).threadPoolBudget != null
+	}
+
+	def 'should warn when the shared thread pool was started with another size'() {
+		when:
+			["7", "8"].each {
+				SharedThreadPoolFactory.fromOptions(new StubRunnerOptionsBuilder()
+						.withProperties([(SharedThreadPoolFactory.ENABLED_PROPERTY): "true",
+										 (SharedThreadPoolFactory.MAX_THREADS_PROPERTY): it])
+						.build()).buildThreadPool(null)
+			}
+		then:
+			capture.toString().contains("threads is ignored")
+	}
+
+	@Timeout(30)
+	def 'should stop a server sharing the thread pool without waiting for the pool to stop'() {
+		given:
+			StubRunnerOptions options = new StubRunnerOptionsBuilder()
+					.withProperties([(SharedThreadPoolFactory.ENABLED_PROPERTY): "true"])
+					.build()
+			WireMockHttpServerStub httpServerStub = new WireMockHttpServerStub().start(new HttpServerStubConfiguration(HttpServerStubConfigurer.NoOpHttpServerStubConfigurer.INSTANCE, options,
+					null, TestSocketUtils.findAvailableTcpPort())) as WireMockHttpServerStub
+		when:
+			httpServerStub.stop()
+		then:
+			!httpServerStub.isRunning()
+	}
+
+	def 'should reuse the mappings parsed while accepting the file'() {
+		given:
+			WireMockHttpServerStub httpServerStub = new WireMockHttpServerStub()
+			File file = mapping("/foo", "foo")
+		and:
+			httpServerStub.isAccepted(file)
+			StubMapping parsed = httpServerStub.parsedMappings.get(file).mappingsIfUpToDate(file).first()
+		expect:
+			httpServerStub.getMappings(file).first().is(parsed)
+			!httpServerStub.parsedMappings.containsKey(file)
+			!httpServerStub.getMappings(file).first().is(parsed)
+	}
+
+	def 'should drop the mappings parsed while accepting files once mappings get registered'() {
+		given:
+			WireMockHttpServerStub httpServerStub = new WireMockHttpServerStub().start(new HttpServerStubConfiguration(HttpServerStubConfigurer.NoOpHttpServerStubConfigurer.INSTANCE, null,
+					null, TestSocketUtils.findAvailableTcpPort())) as WireMockHttpServerStub
+			File registered = mapping("/foo", "foo")
+			File notRegistered = mapping("/bar", "bar")
+		and:
+			httpServerStub.isAccepted(registered)
+			httpServerStub.isAccepted(notRegistered)
+		when:
+			httpServerStub.registerMappings([registered])
+		then:
+			httpServerStub.parsedMappings.isEmpty()
+		cleanup:
+			httpServerStub.stop()
+	}
+
 	def 'should accept a valid mapping'() {
 		given:
 			WireMockHttpServerStub httpServerStub = new WireMockHttpServerStub()
@@ -122,4 +265,12 @@ class WireMockHttpServerStubSpec extends Specification {
 		then:
 			!accepted
 	}
+
+	private File mapping(String url, String body) {
+		File file = File.createTempFile("mapping", ".json")
+		file.deleteOnExit()
+		file.text = """{"request":{"method":"GET","url":"${url}"},"response":{"status":200,"body":"${body}"}}"""
+		return file
+	}
+
 }
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2013-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.contract.stubrunner.server
+
+import spock.lang.Specification
+import spock.lang.Timeout
+
+import org.springframework.cloud.contract.stubrunner.BatchStubRunner
+import org.springframework.cloud.contract.stubrunner.BatchStubRunnerFactory
+import org.springframework.cloud.contract.stubrunner.StubRunnerOptions
+import org.springframework.cloud.contract.stubrunner.StubRunnerOptionsBuilder
+import org.springframework.cloud.contract.stubrunner.spring.StubRunnerProperties
+
+/**
+ * @author Marcin Grzejszczak
+ */
+class StubRunnerDaemonSpec extends Specification {
+
+	@Timeout(180)
+	def 'should look up and call the stubs run by the shared stub runner daemon'() {
+		given:
+			StubRunnerOptions options = new StubRunnerOptionsBuilder()
+					.withStubsMode(StubRunnerProperties.StubsMode.REMOTE)
+					.withStubRepositoryRoot(StubRunnerDaemonSpec.getResource("/m2repo/repository").toURI().toString())
+					.withStubs("org.springframework.cloud.contract.verifier.stubs:bootService")
+					// lazily started stubs would never be started by the daemon
+					.withProperties(["stubs.shared-daemon.enabled": "true", "stubs.lazy-start.enabled": "true",
+									 "spec": UUID.randomUUID().toString()])
+					.build()
+		when:
+			BatchStubRunner first = new BatchStubRunnerFactory(options).buildBatchStubRunner()
+			BatchStubRunner second = new BatchStubRunnerFactory(options).buildBatchStubRunner()
+			URL url = first.findStubUrl("bootService")
+		then:
+			second.findStubUrl("org.springframework.cloud.contract.verifier.stubs:bootService") == url
+			new URL(url, "/ping").text == "OK"
+		when:
+			first.getContracts()
+		then:
+			thrown(UnsupportedOperationException)
+		when:
+			first.reset()
+		then:
+			thrown(UnsupportedOperationException)
+		cleanup:
+			first?.close()
+			second?.close()
+	}
+
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2013-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.contract.stubrunner.spring.cloud
+
+import java.time.Duration
+
+import spock.lang.Specification
+
+import org.springframework.cloud.contract.stubrunner.AvailablePortScanner
+import org.springframework.cloud.contract.stubrunner.StubConfiguration
+import org.springframework.cloud.contract.stubrunner.StubIdleEvictor
+import org.springframework.cloud.contract.stubrunner.StubRepository
+import org.springframework.cloud.contract.stubrunner.StubRunnerExecutor
+import org.springframework.cloud.contract.stubrunner.StubRunnerOptions
+import org.springframework.cloud.contract.stubrunner.StubRunnerOptionsBuilder
+import org.springframework.cloud.contract.stubrunner.spring.cloud.loadbalancer.StubbedServiceInstance
+
+class EvictedStubLookupSpec extends Specification {
+
+	StubRunnerOptions options = new StubRunnerOptionsBuilder().build()
+
+	AvailablePortScanner portScanner = new AvailablePortScanner(18999, 19999)
+
+	StubRunnerExecutor executor = new StubRunnerExecutor(portScanner)
+
+	def setup() {
+		executor.runStubs(options, new StubRepository(new File('src/test/resources/repository'), [], options, null),
+				new StubConfiguration("group:artifact", "stubs"))
+	}
+
+	def cleanup() {
+		executor.shutdown()
+		StubbedServiceInstance.CACHE.clear()
+	}
+
+	def 'should start an evicted stub server again when it is resolved through the load balancer'() {
+		given:
+			int port = new StubbedServiceInstance(executor, new StubMapperProperties(), "artifact").port
+		and:
+			evict()
+		when:
+			URI uri = new StubbedServiceInstance(executor, new StubMapperProperties(), "artifact").uri
+		then:
+			uri.port == port
+			executor.stubServer.isRunning()
+			"OK" == new URL("${uri}/health").text
+	}
+
+	def 'should start an evicted stub server again when it is resolved through the discovery client'() {
+		given:
+			StubRunnerDiscoveryClient discoveryClient = new StubRunnerDiscoveryClient(executor, new StubMapperProperties())
+			int port = discoveryClient.getInstances("artifact").first().port
+		and:
+			evict()
+		when:
+			URI uri = discoveryClient.getInstances("artifact").first().uri
+		then:
+			uri.port == port
+			executor.stubServer.isRunning()
+			"OK" == new URL("${uri}/health").text
+	}
+
+	private void evict() {
+		StubIdleEvictor evictor = new StubIdleEvictor(Duration.ZERO)
+		// the first check only records the number of served requests
+		evictor.evictIfIdle(executor.stubServer, portScanner)
+		evictor.evictIfIdle(executor.stubServer, portScanner)
+		assert !executor.stubServer.isRunning()
+	}
+
+}
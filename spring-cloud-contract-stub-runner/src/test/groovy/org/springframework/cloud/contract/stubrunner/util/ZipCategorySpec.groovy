@@ -36,6 +36,17 @@ class ZipCategorySpec extends Specification {
 			}?.text?.trim() == 'test'
 	}
 
+	def 'should unzip only the entries matching the filter'() {
+		given:
+			File zipFile = new File(ZipCategorySpec.classLoader.getResource('file.zip').toURI())
+			File tempDir = File.createTempDir()
+			tempDir.deleteOnExit()
+		when:
+			ZipCategory.unzipTo(zipFile, tempDir, { String name -> name != 'file.txt' } as java.util.function.Predicate<String>)
+		then:
+			!new File(tempDir, 'file.txt').exists()
+	}
+
 	def 'should not allow malicious traversal'() throws Exception {
 		given:
 			File zipFile = new File(ZipCategorySpec.classLoader.getResource('zip/zip-malicious-traversal.zip').toURI())
@@ -22,14 +22,23 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -43,7 +52,10 @@ import org.springframework.util.MultiValueMap;
 import org.springframework.util.StringUtils;
 
 /**
- * Recursively converts contracts into their stub representations.
+ * Recursively converts contracts into their stub representations. The contracts can be
+ * converted in parallel - the stubs are always written in the order in which the
+ * contracts were found, so the output does not depend on the number of threads. The stubs
+ * are written while the contracts are converted, not all of them are kept in memory.
  *
  * @since 1.1.0
  */
@@ -51,6 +63,9 @@ public class RecursiveFilesConverter {
 
 	private static final Log log = LogFactory.getLog(RecursiveFilesConverter.class);
 
+	// converted contracts waiting to be written, per thread
+	private static final int IN_FLIGHT_PER_THREAD = 2;
+
 	private final StubGeneratorProvider holder;
 
 	private final File outMappingsDir;
@@ -63,14 +78,27 @@ public class RecursiveFilesConverter {
 
 	private final boolean excludeBuildFolders;
 
+	private final int threads;
+
 	public RecursiveFilesConverter(File stubsOutputDir, File contractsDslDir, List<String> excludedFiles,
-			String includedContracts, boolean excludeBuildFolders, StubGeneratorProvider holder) {
+			String includedContracts, boolean excludeBuildFolders, StubGeneratorProvider holder, int threads) {
 		this.outMappingsDir = stubsOutputDir;
 		this.contractsDslDir = contractsDslDir;
 		this.excludedFiles = excludedFiles;
 		this.includedContracts = includedContracts;
 		this.excludeBuildFolders = excludeBuildFolders;
 		this.holder = holder == null ? new StubGeneratorProvider() : holder;
+		this.threads = Math.max(1, threads);
+	}
+
+	public RecursiveFilesConverter(File stubsOutputDir, File contractsDslDir, List<String> excludedFiles,
+			String includedContracts, boolean excludeBuildFolders, StubGeneratorProvider holder) {
+		this(stubsOutputDir, contractsDslDir, excludedFiles, includedContracts, excludeBuildFolders, holder, 1);
+	}
+
+	public RecursiveFilesConverter(File stubsOutputDir, File contractsDslDir, List<String> excludedFiles,
+			String includedContracts, boolean excludeBuildFolders, int threads) {
+		this(stubsOutputDir, contractsDslDir, excludedFiles, includedContracts, excludeBuildFolders, null, threads);
 	}
 
 	public RecursiveFilesConverter(File stubsOutputDir, File contractsDslDir, List<String> excludedFiles,
@@ -90,68 +118,111 @@ public class RecursiveFilesConverter {
 		if (log.isDebugEnabled()) {
 			log.debug("Found the following contracts " + contracts);
 		}
+		Collection<StubGenerator> stubGenerators = holder.allOrDefault(new DslToWireMockClientConverter());
+		List<ContractToConvert> contractsToConvert = new ArrayList<>();
 		for (Map.Entry<Path, List<ContractMetadata>> entry : contracts.entrySet()) {
 			for (ContractMetadata contract : entry.getValue()) {
-				if (log.isDebugEnabled()) {
-					log.debug("Will create a stub for contract [" + contract + "]");
-				}
-				File sourceFile = contract.getPath().toFile();
-				Collection<StubGenerator> stubGenerators = holder.allOrDefault(new DslToWireMockClientConverter());
-				try {
-					String path = sourceFile.getPath();
-					if (excludeBuildFolders && (matchesPath(path, "target") || matchesPath(path, "build"))) {
-						if (log.isDebugEnabled()) {
-							log.debug("Exclude build folder is set. Path [" + path
-									+ "] contains [target] or [build] in its path");
-						}
-
-						continue;
-					}
-					if (nullOrEmpty(contract) && nullOrEmpty(stubGenerators)) {
-						continue;
-					}
-					int contractsSize = contract.getConvertedContract().size();
-					Path entryKey = entry.getKey();
+				String path = contract.getPath().toFile().getPath();
+				if (excludeBuildFolders && (matchesPath(path, "target") || matchesPath(path, "build"))) {
 					if (log.isDebugEnabled()) {
-						log.debug(
-								"Stub Generators [" + stubGenerators + "] will convert contents of [" + entryKey + "]");
-					}
-
-					for (StubGenerator stubGenerator : stubGenerators) {
-						Map<Contract, String> convertedContent = stubGenerator
-							.convertContents(last(entryKey).toString(), contract);
-						if (convertedContent == null || convertedContent.isEmpty()) {
-							continue;
-						}
-						Set<Map.Entry<Contract, String>> entrySet = convertedContent.entrySet();
-						Iterator<Map.Entry<Contract, String>> iterator = entrySet.iterator();
-						int index = 0;
-						while (iterator.hasNext()) {
-							Map.Entry<Contract, String> content = iterator.next();
-							Contract dsl = content.getKey();
-							String converted = content.getValue();
-							if (StringUtils.hasText(converted)) {
-								Path absoluteTargetPath = createAndReturnTargetDirectory(sourceFile);
-								File newJsonFile = createTargetFileWithProperName(stubGenerator, absoluteTargetPath,
-										sourceFile, contractsSize, index, dsl);
-								Files.write(newJsonFile.toPath(), Collections.singletonList(converted),
-										StandardCharsets.UTF_8);
-							}
-							index = index + 1;
-						}
-
+						log.debug("Exclude build folder is set. Path [" + path
+								+ "] contains [target] or [build] in its path");
 					}
-
+					continue;
 				}
-				catch (Exception e) {
-					throw new ConversionContractVerifierException(
-							"Unable to make conversion of " + sourceFile.getName(), e);
+				if (nullOrEmpty(contract) && nullOrEmpty(stubGenerators)) {
+					continue;
 				}
-
+				contractsToConvert.add(new ContractToConvert(entry.getKey(), contract));
 			}
+		}
+		convertAndWrite(contractsToConvert, stubGenerators);
+	}
 
+	/**
+	 * Converts the contracts, in parallel if more than one thread was configured, and
+	 * writes each result as soon as the results of all the preceding contracts were
+	 * written, so that the stubs are always written in the same order with the same
+	 * names. Only a couple of results per thread are held in memory.
+	 */
+	private void convertAndWrite(List<ContractToConvert> contractsToConvert,
+			Collection<StubGenerator> stubGenerators) {
+		int poolSize = Math.min(this.threads, contractsToConvert.size());
+		if (poolSize <= 1) {
+			for (ContractToConvert contract : contractsToConvert) {
+				convert(contract, stubGenerators).write();
+			}
+			return;
+		}
+		if (log.isDebugEnabled()) {
+			log.debug("Will convert [" + contractsToConvert.size() + "] contracts using [" + poolSize + "] threads");
+		}
+		ExecutorService executorService = Executors.newFixedThreadPool(poolSize, new StubGenerationThreadFactory());
+		try {
+			Deque<Future<ConvertedContract>> inFlight = new ArrayDeque<>();
+			for (ContractToConvert contract : contractsToConvert) {
+				if (inFlight.size() >= poolSize * IN_FLIGHT_PER_THREAD) {
+					inFlight.poll().get().write();
+				}
+				inFlight.add(executorService.submit(() -> convert(contract, stubGenerators)));
+			}
+			while (!inFlight.isEmpty()) {
+				inFlight.poll().get().write();
+			}
 		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while converting contracts", ex);
+		}
+		catch (ExecutionException ex) {
+			if (ex.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) ex.getCause();
+			}
+			throw new IllegalStateException(ex.getCause());
+		}
+		finally {
+			executorService.shutdownNow();
+		}
+	}
 
+	private ConvertedContract convert(ContractToConvert contractToConvert, Collection<StubGenerator> stubGenerators) {
+		ContractMetadata contract = contractToConvert.contract;
+		if (log.isDebugEnabled()) {
+			log.debug("Will create a stub for contract [" + contract + "]");
+		}
+		File sourceFile = contract.getPath().toFile();
+		ConvertedContract convertedContract = new ConvertedContract(sourceFile);
+		try {
+			int contractsSize = contract.getConvertedContract().size();
+			Path entryKey = contractToConvert.entryKey;
+			if (log.isDebugEnabled()) {
+				log.debug("Stub Generators [" + stubGenerators + "] will convert contents of [" + entryKey + "]");
+			}
+			for (StubGenerator stubGenerator : stubGenerators) {
+				Map<Contract, String> convertedContent = stubGenerator.convertContents(last(entryKey).toString(),
+						contract);
+				if (convertedContent == null || convertedContent.isEmpty()) {
+					continue;
+				}
+				Set<Map.Entry<Contract, String>> entrySet = convertedContent.entrySet();
+				Iterator<Map.Entry<Contract, String>> iterator = entrySet.iterator();
+				int index = 0;
+				while (iterator.hasNext()) {
+					Map.Entry<Contract, String> content = iterator.next();
+					Contract dsl = content.getKey();
+					String converted = content.getValue();
+					if (StringUtils.hasText(converted)) {
+						convertedContract.stubs.add(new ConvertedStub(
+								generateName(dsl, contractsSize, stubGenerator, sourceFile, index), converted));
+					}
+					index = index + 1;
+				}
+			}
+		}
+		catch (Exception e) {
+			throw new ConversionContractVerifierException("Unable to make conversion of " + sourceFile.getName(), e);
+		}
+		return convertedContract;
 	}
 
 	private static <T> T last(Iterable<T> self) {
@@ -190,14 +261,6 @@ public class RecursiveFilesConverter {
 		return absoluteTargetPath;
 	}
 
-	private File createTargetFileWithProperName(StubGenerator stubGenerator, Path absoluteTargetPath, File sourceFile,
-			int contractsSize, int index, Contract dsl) {
-		String name = generateName(dsl, contractsSize, stubGenerator, sourceFile, index);
-		File newJsonFile = new File(absoluteTargetPath.toFile(), name);
-		log.info("Creating new stub [" + newJsonFile.getPath() + "]");
-		return newJsonFile;
-	}
-
 	private String generateName(Contract dsl, int contractsSize, StubGenerator converter, File sourceFile, int index) {
 		String generatedName = converter.generateOutputFileNameForInput(sourceFile.getName());
 		boolean hasDot = NamesUtil.hasDot(generatedName);
@@ -211,4 +274,73 @@ public class RecursiveFilesConverter {
 		return index + "_" + generatedName;
 	}
 
+	private static final class ContractToConvert {
+
+		private final Path entryKey;
+
+		private final ContractMetadata contract;
+
+		private ContractToConvert(Path entryKey, ContractMetadata contract) {
+			this.entryKey = entryKey;
+			this.contract = contract;
+		}
+
+	}
+
+	private static final class ConvertedStub {
+
+		private final String name;
+
+		private final String content;
+
+		private ConvertedStub(String name, String content) {
+			this.name = name;
+			this.content = content;
+		}
+
+	}
+
+	private final class ConvertedContract {
+
+		private final File sourceFile;
+
+		private final List<ConvertedStub> stubs = new ArrayList<>();
+
+		private ConvertedContract(File sourceFile) {
+			this.sourceFile = sourceFile;
+		}
+
+		private void write() {
+			if (this.stubs.isEmpty()) {
+				return;
+			}
+			try {
+				Path absoluteTargetPath = createAndReturnTargetDirectory(this.sourceFile);
+				for (ConvertedStub stub : this.stubs) {
+					File newJsonFile = new File(absoluteTargetPath.toFile(), stub.name);
+					log.info("Creating new stub [" + newJsonFile.getPath() + "]");
+					Files.write(newJsonFile.toPath(), Collections.singletonList(stub.content), StandardCharsets.UTF_8);
+				}
+			}
+			catch (Exception e) {
+				throw new ConversionContractVerifierException(
+						"Unable to make conversion of " + this.sourceFile.getName(), e);
+			}
+		}
+
+	}
+
+	private static final class StubGenerationThreadFactory implements ThreadFactory {
+
+		private final AtomicInteger counter = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "stub-generation-" + this.counter.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+
+	}
+
 }
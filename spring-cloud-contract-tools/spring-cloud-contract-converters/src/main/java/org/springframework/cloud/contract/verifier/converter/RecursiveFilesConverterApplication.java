@@ -28,7 +28,7 @@ public final class RecursiveFilesConverterApplication {
 	}
 
 	public static void main(String[] args) {
-		if (args.length != 5) {
+		if (args.length < 5 || args.length > 7) {
 			throw new RuntimeException("Invalid number of arguments");
 		}
 
@@ -37,10 +37,17 @@ public final class RecursiveFilesConverterApplication {
 		List<String> excludedFiles = Arrays.asList(StringUtils.commaDelimitedListToStringArray(args[2]));
 		String includedContracts = args[3];
 		boolean excludeBuildFolders = Boolean.parseBoolean(args[4]);
+		int threads = args.length >= 6 ? Integer.parseInt(args[5]) : 1;
+		boolean generateStubBundle = args.length == 7 && Boolean.parseBoolean(args[6]);
 
 		RecursiveFilesConverter converter = new RecursiveFilesConverter(stubsOutputDir, contractsDslDir, excludedFiles,
-				includedContracts, excludeBuildFolders);
+				includedContracts, excludeBuildFolders, threads);
 		converter.processFiles();
+		if (generateStubBundle) {
+			// the bundle is stored next to the mappings and points to their parent folder
+			new StubBundleWriter().write(stubsOutputDir.getParentFile(),
+					new File(stubsOutputDir, StubBundle.BUNDLE_FILE_NAME), "..");
+		}
 	}
 
 }
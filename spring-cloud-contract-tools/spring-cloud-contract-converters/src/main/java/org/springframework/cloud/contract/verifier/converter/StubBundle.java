@@ -0,0 +1,259 @@
+/*
+ * Copyright 2013-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.contract.verifier.converter;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Indexed representation of the stubs of a single stub jar, stored in a single file.
+ * Contains the minified WireMock mappings and the sources of the contracts, so that
+ * consumers don't have to walk the unpacked jar to find them. Both are stored as text,
+ * the HTTP server stub still parses the mappings when they get registered and the
+ * contracts are still parsed when they're first needed.
+ *
+ * The layout of the file is:
+ *
+ * <pre>
+ * int     magic number
+ * short   version
+ * string  path to the stubs root, relative to the bundle's directory
+ * int     number of entries
+ * entry*  type (byte), name (string), offset (int), length (int)
+ * byte*   data of the entries
+ * </pre>
+ *
+ * Strings are stored as their length in bytes followed by their UTF-8 representation.
+ * Offsets are relative to the beginning of the data section. Names are paths relative to
+ * the stubs root.
+ *
+ * @author Marcin Grzejszczak
+ * @since 5.0.4
+ */
+public final class StubBundle {
+
+	/**
+	 * Name of the bundle file.
+	 */
+	public static final String BUNDLE_FILE_NAME = "stubs.bundle";
+
+	static final int MAGIC = 0x53434342;
+
+	static final short VERSION = 2;
+
+	private final File file;
+
+	private final File root;
+
+	private final List<Entry> entries;
+
+	private StubBundle(File file, File root, List<Entry> entries) {
+		this.file = file;
+		this.root = root;
+		this.entries = entries;
+	}
+
+	/**
+	 * @param file file to check
+	 * @return {@code true} when the file is a stub bundle
+	 */
+	public static boolean isBundle(File file) {
+		if (!file.isFile() || !BUNDLE_FILE_NAME.equals(file.getName())) {
+			return false;
+		}
+		try (InputStream stream = Files.newInputStream(file.toPath())) {
+			byte[] magic = new byte[4];
+			return stream.read(magic) == 4 && ByteBuffer.wrap(magic).getInt() == MAGIC;
+		}
+		catch (IOException ex) {
+			return false;
+		}
+	}
+
+	/**
+	 * Reads the whole bundle into memory, so the file can be deleted once the bundle was
+	 * read.
+	 * @param file bundle file
+	 * @return the read bundle
+	 */
+	public static StubBundle read(File file) {
+		try {
+			ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+			if (buffer.getInt() != MAGIC) {
+				throw new IllegalStateException("File [" + file + "] is not a stub bundle");
+			}
+			short version = buffer.getShort();
+			if (version != VERSION) {
+				throw new IllegalStateException(
+						"Unsupported stub bundle version [" + version + "] of file [" + file + "]");
+			}
+			File root = new File(file.getParentFile(), readString(buffer)).toPath().normalize().toFile();
+			int size = buffer.getInt();
+			List<IndexEntry> index = new ArrayList<>(size);
+			for (int i = 0; i < size; i++) {
+				index.add(new IndexEntry(EntryType.values()[buffer.get()], readString(buffer), buffer.getInt(),
+						buffer.getInt()));
+			}
+			int dataStart = buffer.position();
+			List<Entry> entries = new ArrayList<>(size);
+			for (IndexEntry indexEntry : index) {
+				byte[] data = new byte[indexEntry.length];
+				buffer.get(dataStart + indexEntry.offset, data);
+				entries.add(new Entry(indexEntry.type, indexEntry.name, data));
+			}
+			return new StubBundle(file, root, Collections.unmodifiableList(entries));
+		}
+		catch (IOException | RuntimeException ex) {
+			throw new IllegalStateException("Failed to read the stub bundle [" + file + "]", ex);
+		}
+	}
+
+	private static String readString(ByteBuffer buffer) {
+		byte[] bytes = new byte[buffer.getInt()];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * @return the bundle file
+	 */
+	public File getFile() {
+		return this.file;
+	}
+
+	/**
+	 * @return the stubs root directory against which the entry names are resolved
+	 */
+	public File getRoot() {
+		return this.root;
+	}
+
+	/**
+	 * @return all entries of the bundle
+	 */
+	public List<Entry> getEntries() {
+		return this.entries;
+	}
+
+	/**
+	 * @param type type of entries
+	 * @return entries of the given type
+	 */
+	public List<Entry> getEntries(EntryType type) {
+		return this.entries.stream().filter(entry -> entry.type == type).collect(Collectors.toList());
+	}
+
+	/**
+	 * @param entry entry of this bundle
+	 * @return the file from which the entry was created
+	 */
+	public File fileOf(Entry entry) {
+		return new File(this.root, entry.name);
+	}
+
+	/**
+	 * Type of a bundle entry.
+	 */
+	public enum EntryType {
+
+		/**
+		 * A minified WireMock mapping or an aggregated collection of mappings.
+		 */
+		MAPPING,
+
+		/**
+		 * A YAML contract file, read without evaluating any DSL.
+		 */
+		CONTRACT,
+
+		/**
+		 * A contract file in any other format. It is parsed by the contract converter
+		 * that accepts the file, so it is parsed from the original file when that one
+		 * is present.
+		 */
+		CONTRACT_SOURCE
+
+	}
+
+	/**
+	 * Single entry of the bundle.
+	 */
+	public static final class Entry {
+
+		private final EntryType type;
+
+		private final String name;
+
+		private final byte[] data;
+
+		Entry(EntryType type, String name, byte[] data) {
+			this.type = type;
+			this.name = name;
+			this.data = data;
+		}
+
+		public EntryType getType() {
+			return this.type;
+		}
+
+		public String getName() {
+			return this.name;
+		}
+
+		public byte[] getData() {
+			return this.data;
+		}
+
+		public String getDataAsString() {
+			return new String(this.data, StandardCharsets.UTF_8);
+		}
+
+		@Override
+		public String toString() {
+			return "Entry{" + "type=" + this.type + ", name='" + this.name + '\'' + ", size=" + this.data.length + '}';
+		}
+
+	}
+
+	private static final class IndexEntry {
+
+		private final EntryType type;
+
+		private final String name;
+
+		private final int offset;
+
+		private final int length;
+
+		private IndexEntry(EntryType type, String name, int offset, int length) {
+			this.type = type;
+			this.name = name;
+			this.offset = offset;
+			this.length = length;
+		}
+
+	}
+
+}
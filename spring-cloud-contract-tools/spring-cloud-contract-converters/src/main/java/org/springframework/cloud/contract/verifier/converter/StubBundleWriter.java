@@ -0,0 +1,203 @@
+/*
+ * Copyright 2013-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.contract.verifier.converter;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.cloud.contract.verifier.util.ContractScanner;
+import org.springframework.cloud.contract.verifier.wiremock.DslToWireMockClientConverter;
+
+/**
+ * Writes a {@link StubBundle} for a directory containing the {@code mappings} and the
+ * {@code contracts} of a stub jar.
+ *
+ * @author Marcin Grzejszczak
+ * @since 5.0.4
+ */
+public class StubBundleWriter {
+
+	private static final Log log = LogFactory.getLog(StubBundleWriter.class);
+
+	private static final String MAPPINGS_FOLDER = "mappings";
+
+	private static final String CONTRACTS_FOLDER = "contracts";
+
+	private final DslToWireMockClientConverter wireMockConverter = new DslToWireMockClientConverter();
+
+	/**
+	 * Finds all stub roots (directories with a {@code mappings} or {@code contracts}
+	 * subfolder) below the given directory and writes a bundle for each of them into the
+	 * output directory, keeping the relative paths.
+	 * @param stubsDirectory directory with the generated stubs
+	 * @param outputDirectory directory to which the bundles should be written
+	 * @return written bundle files
+	 */
+	public List<File> writeBundles(File stubsDirectory, File outputDirectory) {
+		List<File> bundles = new ArrayList<>();
+		Path root = stubsDirectory.toPath();
+		for (Path stubRoot : stubRoots(root)) {
+			File bundle = outputDirectory.toPath()
+				.resolve(root.relativize(stubRoot))
+				.resolve(StubBundle.BUNDLE_FILE_NAME)
+				.toFile();
+			write(stubRoot.toFile(), bundle, "");
+			bundles.add(bundle);
+		}
+		return bundles;
+	}
+
+	/**
+	 * Writes a bundle with the stubs found in the stubs root.
+	 * @param stubRoot directory containing the {@code mappings} and {@code contracts}
+	 * folders
+	 * @param bundleFile file to write the bundle to
+	 * @param rootPath path to the stubs root relative to the directory in which the bundle
+	 * will be read
+	 */
+	public void write(File stubRoot, File bundleFile, String rootPath) {
+		Path root = stubRoot.toPath();
+		List<StubBundle.Entry> entries = new ArrayList<>();
+		entries.addAll(mappingEntries(root));
+		entries.addAll(contractEntries(root));
+		try {
+			Files.createDirectories(bundleFile.getParentFile().toPath());
+			try (OutputStream stream = Files.newOutputStream(bundleFile.toPath())) {
+				writeTo(stream, rootPath, entries);
+			}
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Failed to write the stub bundle [" + bundleFile + "]", ex);
+		}
+		if (log.isDebugEnabled()) {
+			log.debug("Written stub bundle [" + bundleFile + "] with [" + entries.size() + "] entries");
+		}
+	}
+
+	private List<StubBundle.Entry> mappingEntries(Path root) {
+		List<StubBundle.Entry> entries = new ArrayList<>();
+		for (Path path : files(root.resolve(MAPPINGS_FOLDER))) {
+			File file = path.toFile();
+			if (!file.getName().endsWith(".json") || !this.wireMockConverter.canReadStubMapping(file)) {
+				continue;
+			}
+			String minified = this.wireMockConverter.aggregateMappings(Collections.singletonList(file));
+			entries.add(new StubBundle.Entry(StubBundle.EntryType.MAPPING, relativePath(root, path),
+					minified.getBytes(StandardCharsets.UTF_8)));
+		}
+		return entries;
+	}
+
+	// the original sources are stored, converting the contracts to YAML is lossy for the
+	// DSLs that have features YAML lacks
+	private List<StubBundle.Entry> contractEntries(Path root) {
+		List<StubBundle.Entry> entries = new ArrayList<>();
+		for (Path path : files(root.resolve(CONTRACTS_FOLDER))) {
+			File file = path.toFile();
+			StubBundle.EntryType type;
+			if (YamlContractConverter.INSTANCE.isAccepted(file)) {
+				type = StubBundle.EntryType.CONTRACT;
+			}
+			else if (!ContractScanner.collectContractDescriptors(file).isEmpty()) {
+				type = StubBundle.EntryType.CONTRACT_SOURCE;
+			}
+			else {
+				continue;
+			}
+			entries.add(new StubBundle.Entry(type, relativePath(root, path), bytes(path)));
+		}
+		return entries;
+	}
+
+	private byte[] bytes(Path path) {
+		try {
+			return Files.readAllBytes(path);
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Failed to read the contract [" + path + "]", ex);
+		}
+	}
+
+	private List<Path> files(Path directory) {
+		if (!Files.isDirectory(directory)) {
+			return Collections.emptyList();
+		}
+		try (Stream<Path> paths = Files.walk(directory)) {
+			return paths.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	private List<Path> stubRoots(Path root) {
+		try (Stream<Path> paths = Files.walk(root)) {
+			return paths.filter(Files::isDirectory)
+				.filter(path -> Files.isDirectory(path.resolve(MAPPINGS_FOLDER))
+						|| Files.isDirectory(path.resolve(CONTRACTS_FOLDER)))
+				.sorted()
+				.collect(Collectors.toList());
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	private String relativePath(Path root, Path path) {
+		return root.relativize(path).toString().replace(File.separatorChar, '/');
+	}
+
+	private void writeTo(OutputStream stream, String rootPath, List<StubBundle.Entry> entries) throws IOException {
+		DataOutputStream output = new DataOutputStream(stream);
+		output.writeInt(StubBundle.MAGIC);
+		output.writeShort(StubBundle.VERSION);
+		writeString(output, rootPath);
+		output.writeInt(entries.size());
+		int offset = 0;
+		for (StubBundle.Entry entry : entries) {
+			output.writeByte(entry.getType().ordinal());
+			writeString(output, entry.getName());
+			output.writeInt(offset);
+			output.writeInt(entry.getData().length);
+			offset += entry.getData().length;
+		}
+		for (StubBundle.Entry entry : entries) {
+			output.write(entry.getData());
+		}
+		output.flush();
+	}
+
+	private void writeString(DataOutputStream output, String value) throws IOException {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		output.writeInt(bytes.length);
+		output.write(bytes);
+	}
+
+}
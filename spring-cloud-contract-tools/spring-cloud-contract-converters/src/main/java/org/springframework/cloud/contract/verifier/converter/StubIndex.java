@@ -0,0 +1,89 @@
+/*
+ * Copyright 2013-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.contract.verifier.converter;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Index of the files of a stub jar, stored in the jar under {@link #LOCATION}. It lets
+ * the stub runner find the stubs of a dependency on the classpath without scanning
+ * every jar.
+ *
+ * The index is a UTF-8 text file with one entry per line. Each entry is the path of a
+ * file relative to the root of the jar, using {@code /} as separator.
+ *
+ * @author Marcin Grzejszczak
+ * @since 5.0.4
+ */
+public final class StubIndex {
+
+	/**
+	 * Location of the index inside of the stub jar.
+	 */
+	public static final String LOCATION = "META-INF/spring-cloud-contract/stubs.idx";
+
+	private StubIndex() {
+		throw new IllegalStateException("Can't instantiate a utility class");
+	}
+
+	/**
+	 * Writes the index to {@link #LOCATION} below the given root.
+	 * @param root directory that will be added to the root of the jar
+	 * @param entries paths of the files of the jar
+	 * @return the written index file
+	 */
+	public static File write(File root, Collection<String> entries) {
+		File index = new File(root, LOCATION.replace('/', File.separatorChar));
+		try {
+			Files.createDirectories(index.getParentFile().toPath());
+			Files.write(index.toPath(), entries.stream().sorted().distinct().collect(Collectors.toList()),
+					StandardCharsets.UTF_8);
+			return index;
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Failed to write the stub index [" + index + "]", ex);
+		}
+	}
+
+	/**
+	 * @param stream stream of the index, closed by the caller
+	 * @return entries of the index
+	 * @throws IOException when the index can't be read
+	 */
+	public static List<String> read(InputStream stream) throws IOException {
+		List<String> entries = new ArrayList<>();
+		BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8));
+		String line;
+		while ((line = reader.readLine()) != null) {
+			if (!line.isBlank()) {
+				entries.add(line.trim());
+			}
+		}
+		return entries;
+	}
+
+}
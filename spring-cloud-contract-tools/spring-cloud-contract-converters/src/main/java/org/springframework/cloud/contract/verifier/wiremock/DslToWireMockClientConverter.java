@@ -16,6 +16,11 @@
 
 package org.springframework.cloud.contract.verifier.wiremock;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
@@ -25,6 +30,11 @@ import java.util.NoSuchElementException;
 import java.util.stream.Collectors;
 
 import com.github.tomakehurst.wiremock.stubbing.StubMapping;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.databind.node.ArrayNode;
+import tools.jackson.databind.node.ObjectNode;
 
 import org.springframework.cloud.contract.spec.Contract;
 import org.springframework.cloud.contract.verifier.dsl.wiremock.WireMockStubStrategy;
@@ -39,6 +49,43 @@ import org.springframework.util.StringUtils;
  */
 public class DslToWireMockClientConverter extends DslToWireMockConverter {
 
+	/**
+	 * Name of the file that contains all the mappings of a directory when the stubs are
+	 * aggregated.
+	 */
+	public static final String AGGREGATED_MAPPINGS_FILE_NAME = "aggregated-mappings.json";
+
+	private static final JsonMapper MAPPER = new JsonMapper();
+
+	/**
+	 * Aggregates the given WireMock mapping files into a single minified
+	 * {@code {"mappings":[...]}} document. WireMock reads such a document the same way as
+	 * a directory of single mapping files.
+	 * @param mappingFiles files containing either a single mapping or an already
+	 * aggregated collection of mappings
+	 * @return minified JSON with all the mappings
+	 */
+	public String aggregateMappings(Collection<File> mappingFiles) {
+		ObjectNode root = MAPPER.createObjectNode();
+		ArrayNode mappings = root.putArray("mappings");
+		for (File mappingFile : mappingFiles) {
+			try {
+				JsonNode mapping = MAPPER.readTree(new String(Files.readAllBytes(mappingFile.toPath()),
+						StandardCharsets.UTF_8));
+				if (mapping.has("mappings")) {
+					mappings.addAll((ArrayNode) mapping.get("mappings"));
+				}
+				else {
+					mappings.add(mapping);
+				}
+			}
+			catch (IOException | JacksonException ex) {
+				throw new IllegalStateException("Cannot aggregate the mapping [" + mappingFile + "]", ex);
+			}
+		}
+		return MAPPER.writeValueAsString(root);
+	}
+
 	private String convertASingleContract(String rootName, ContractMetadata contract, Contract dsl) {
 		StubMapping stubMapping = new WireMockStubStrategy(rootName, contract, dsl).toWireMockClientStub();
 		StubMapping mapping = postProcessStubMapping(stubMapping, dsl);
@@ -22,8 +22,10 @@ import java.io.InputStream;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 
+import com.github.tomakehurst.wiremock.common.Json;
 import com.github.tomakehurst.wiremock.common.JsonException;
 import com.github.tomakehurst.wiremock.stubbing.StubMapping;
+import com.github.tomakehurst.wiremock.stubbing.StubMappingCollection;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
@@ -58,7 +60,7 @@ public abstract class DslToWireMockConverter implements StubGenerator<StubMappin
 			return false;
 		}
 		try (InputStream stream = Files.newInputStream(mapping.toPath())) {
-			StubMapping.buildFrom(StreamUtils.copyToString(stream, Charset.forName("UTF-8")));
+			Json.read(StreamUtils.copyToString(stream, Charset.forName("UTF-8")), StubMappingCollection.class);
 			return true;
 		}
 		catch (IOException | JsonException e) {
@@ -92,6 +92,31 @@ class RecursiveFilesConverterSpec extends Specification {
 			createdFiles.each { assert it.text.contains("uuid") }
 	}
 
+	def "should produce the same stubs when converting contracts in parallel"() {
+		given:
+			File originalSourceRootDirectory = new File(this.getClass()
+															.getResource("/converter/source").toURI())
+			File contractsDslDir = tmpFolder.newFolder("source")
+			File sequentialOutputDir = tmpFolder.newFolder("sequential")
+			File parallelOutputDir = tmpFolder.newFolder("parallel")
+			FileSystemUtils
+					.copyRecursively(originalSourceRootDirectory, contractsDslDir)
+		when:
+			new RecursiveFilesConverter(sequentialOutputDir, contractsDslDir, new ArrayList<>(), ".*", false, 1).processFiles()
+			new RecursiveFilesConverter(parallelOutputDir, contractsDslDir, new ArrayList<>(), ".*", false, 4).processFiles()
+		then:
+			Collection<File> parallelFiles = [] as List
+			parallelOutputDir.
+					eachFileRecurse(FileType.FILES) { parallelFiles << it }
+			getRelativePathsForFilesInDirectory(parallelFiles, parallelOutputDir) == EXPECTED_TARGET_FILES
+		and:
+			parallelFiles.each { File file ->
+				Path relativePath = Paths.get(parallelOutputDir.toURI()).relativize(Paths.get(file.toURI()))
+				File sequentialFile = sequentialOutputDir.toPath().resolve(relativePath).toFile()
+				assert stripUuid(file.text) == stripUuid(sequentialFile.text)
+			}
+	}
+
 	def "should recursively convert matching files with exlusions"() {
 		given:
 			File originalSourceRootDirectory = new File(this.getClass()
@@ -205,6 +230,41 @@ org.springframework.cloud.contract.spec.Contract.make {
 			stubsOutputDir.list().toList().isEmpty()
 	}
 
+	def "should write each stub before converting the next contract when using a single thread"() {
+		given:
+			File contractsDslDir = tmpFolder.newFolder("source")
+			["first", "second"].each {
+				new File(contractsDslDir, "${it}.groovy").text = """
+				org.springframework.cloud.contract.spec.Contract.make {
+					request {
+						url "/${it}"
+						method "GET"
+					}
+					response {
+						status OK()
+					}
+				}
+				"""
+			}
+			File stubsOutputDir = tmpFolder.newFolder("target")
+		and:
+			List<Integer> writtenStubsPerConversion = []
+			StubGenerator stubGenerator = Stub(StubGenerator)
+			stubGenerator.canReadStubMapping(_) >> true
+			stubGenerator.convertContents(_, _) >> { String rootName, ContractMetadata content ->
+				writtenStubsPerConversion << (stubsOutputDir.list()?.length ?: 0)
+				return [(content.convertedContract.first()): "stub"]
+			}
+			stubGenerator.generateOutputFileNameForInput(_) >> { String inputFileName -> "${inputFileName}.json" }
+		and:
+			RecursiveFilesConverter recursiveFilesConverter = new RecursiveFilesConverter(stubsOutputDir, contractsDslDir, new ArrayList<>(), ".*", false, new StubGeneratorProvider([stubGenerator]), 1)
+		when:
+			recursiveFilesConverter.processFiles()
+		then:
+			writtenStubsPerConversion == [0, 1]
+			stubsOutputDir.list().length == 2
+	}
+
 	private static Set<Path> getRelativePathsForFilesInDirectory(Collection<File> createdFiles, File targetRootDirectory) {
 		Path rootSourcePath = Paths.get(targetRootDirectory.toURI())
 		Set<Path> relativizedCreatedFiles = createdFiles.collect { File file ->
@@ -213,6 +273,10 @@ org.springframework.cloud.contract.spec.Contract.make {
 		return relativizedCreatedFiles
 	}
 
+	private static String stripUuid(String stub) {
+		return stub.replaceAll('"(uuid|id)" : "[^"]*"', "")
+	}
+
 	private StubGenerator stubGenerator(String stub) {
 		return new StubGenerator() {
 
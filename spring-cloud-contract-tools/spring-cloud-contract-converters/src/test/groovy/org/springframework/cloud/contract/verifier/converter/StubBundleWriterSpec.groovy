@@ -0,0 +1,107 @@
+/*
+ * Copyright 2013-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.contract.verifier.converter
+
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+import spock.lang.Specification
+
+import org.springframework.cloud.contract.spec.Contract
+import org.springframework.util.FileSystemUtils
+
+class StubBundleWriterSpec extends Specification {
+
+	@Rule
+	public TemporaryFolder tmpFolder = new TemporaryFolder()
+
+	def "should write a bundle with the mappings and contracts of a stub root"() {
+		given:
+			File stubRoot = stubRoot()
+			File output = tmpFolder.newFolder("bundles")
+		when:
+			List<File> bundles = new StubBundleWriter().writeBundles(new File(tmpFolder.root, "stubs"), output)
+		then:
+			bundles == [new File(output, "com/example/stubs/" + StubBundle.BUNDLE_FILE_NAME)]
+			StubBundle.isBundle(bundles.first())
+		when:
+			StubBundle bundle = StubBundle.read(bundles.first())
+		then:
+			bundle.getEntries(StubBundle.EntryType.MAPPING)*.name as Set == ["mappings/Account creating.json",
+																				"mappings/Test route.json"] as Set
+			bundle.getEntries(StubBundle.EntryType.MAPPING).every { !it.dataAsString.contains("\n") }
+			bundle.getEntries(StubBundle.EntryType.CONTRACT)*.name as Set == ["contracts/Account creating.yml",
+																				 "contracts/Test route.yml"] as Set
+	}
+
+	def "should read the same contracts from the bundle as from the contract files"() {
+		given:
+			File stubRoot = stubRoot()
+			File bundleFile = new File(stubRoot, "mappings/" + StubBundle.BUNDLE_FILE_NAME)
+		when:
+			new StubBundleWriter().write(stubRoot, bundleFile, "..")
+			StubBundle bundle = StubBundle.read(bundleFile)
+		then:
+			bundle.root == stubRoot
+			bundle.getEntries(StubBundle.EntryType.CONTRACT).each {
+				File contractFile = bundle.fileOf(it)
+				assert contractFile.exists()
+				Collection<Contract> fromBundle = YamlContractConverter.INSTANCE.convertFrom(it.data, contractFile)
+				Collection<Contract> fromFile = YamlContractConverter.INSTANCE.convertFrom(contractFile)
+				assert fromBundle*.request*.url*.clientValue == fromFile*.request*.url*.clientValue
+				assert fromBundle*.response*.status*.clientValue == fromFile*.response*.status*.clientValue
+			}
+	}
+
+	def "should store the original source of the contracts"() {
+		given:
+			File stubRoot = stubRoot()
+			File dsl = new File(this.getClass().getResource("/converter/source/dir2/dsl2.groovy").toURI())
+			File contract = new File(stubRoot, "contracts/dsl2.groovy")
+			contract.bytes = dsl.bytes
+			File bundleFile = new File(stubRoot, "mappings/" + StubBundle.BUNDLE_FILE_NAME)
+		when:
+			new StubBundleWriter().write(stubRoot, bundleFile, "..")
+			StubBundle bundle = StubBundle.read(bundleFile)
+		then:
+			bundle.getEntries(StubBundle.EntryType.CONTRACT_SOURCE)*.name == ["contracts/dsl2.groovy"]
+			bundle.getEntries(StubBundle.EntryType.CONTRACT_SOURCE).first().data == dsl.bytes
+			bundle.getEntries(StubBundle.EntryType.CONTRACT).every {
+				it.data == bundle.fileOf(it).bytes
+			}
+	}
+
+	def "should not treat other files as bundles"() {
+		given:
+			File file = tmpFolder.newFile(StubBundle.BUNDLE_FILE_NAME)
+			file.text = "{}"
+		expect:
+			!StubBundle.isBundle(file)
+	}
+
+	private File stubRoot() {
+		File contracts = new File(this.getClass().getResource("/converter/dir3").toURI())
+		File stubRoot = new File(tmpFolder.newFolder("stubs"), "com/example/stubs")
+		File contractsDir = new File(stubRoot, "contracts")
+		File mappingsDir = new File(stubRoot, "mappings")
+		contractsDir.mkdirs()
+		mappingsDir.mkdirs()
+		FileSystemUtils.copyRecursively(contracts, contractsDir)
+		new RecursiveFilesConverter(mappingsDir, contractsDir, new ArrayList<>(), ".*", false).processFiles()
+		return stubRoot
+	}
+
+}
@@ -1274,4 +1274,27 @@ class DslToWireMockClientConverterSpec extends Specification {
 					}''', json, false)
 	}
 
+	def "should aggregate mappings into a single minified file"() {
+		given:
+			def converter = new DslToWireMockClientConverter()
+			File first = tmpFolder.newFile("first.json")
+			first.text = '''{
+  "request" : { "url" : "/foo", "method" : "GET" },
+  "response" : { "status" : 200 }
+}'''
+			File second = tmpFolder.newFile("second.json")
+			second.text = '''{ "mappings" : [ { "request" : { "url" : "/bar", "method" : "GET" }, "response" : { "status" : 201 } } ] }'''
+		when:
+			String aggregated = converter.aggregateMappings([first, second])
+		then:
+			!aggregated.contains("\n")
+			JSONAssert.assertEquals('''{"mappings":[
+				{"request":{"url":"/foo","method":"GET"},"response":{"status":200}},
+				{"request":{"url":"/bar","method":"GET"},"response":{"status":201}}]}''', aggregated, true)
+		and:
+			File aggregatedFile = tmpFolder.newFile(DslToWireMockClientConverter.AGGREGATED_MAPPINGS_FILE_NAME)
+			aggregatedFile.text = aggregated
+			converter.canReadStubMapping(aggregatedFile)
+	}
+
 }
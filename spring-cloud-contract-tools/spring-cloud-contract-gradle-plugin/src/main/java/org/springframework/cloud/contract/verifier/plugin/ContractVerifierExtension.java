@@ -198,6 +198,18 @@ public class ContractVerifierExtension implements Serializable {
 	 */
 	private final Property<Boolean> excludeBuildFolders;
 
+	/**
+	 * Number of threads used to convert contracts into stubs. Stubs are always written in
+	 * the same order, regardless of the number of threads.
+	 */
+	private final Property<Integer> stubsGenerationThreads;
+
+	/**
+	 * If set to {@code true} then a stub bundle, a single file with the minified mappings
+	 * and the contract sources, is generated next to the mappings.
+	 */
+	private final Property<Boolean> generateStubBundle;
+
 	/**
 	 * If set to {@code false} will NOT delete stubs from a temporary folder after running
 	 * tests
@@ -255,6 +267,8 @@ public class ContractVerifierExtension implements Serializable {
 		this.packageWithBaseClasses = objects.property(String.class);
 		this.baseClassMappings = objects.newInstance(BaseClassMapping.class);
 		this.excludeBuildFolders = objects.property(Boolean.class).convention(false);
+		this.stubsGenerationThreads = objects.property(Integer.class).convention(1);
+		this.generateStubBundle = objects.property(Boolean.class).convention(false);
 		this.deleteStubsAfterTest = objects.property(Boolean.class).convention(true);
 		this.convertToYaml = objects.property(Boolean.class).convention(false);
 		this.contractsProperties = objects.mapProperty(String.class, String.class).convention(new HashMap<>());
@@ -501,6 +515,22 @@ public class ContractVerifierExtension implements Serializable {
 		this.excludeBuildFolders.set(excludeBuildFolders);
 	}
 
+	public Property<Integer> getStubsGenerationThreads() {
+		return stubsGenerationThreads;
+	}
+
+	public void setStubsGenerationThreads(int stubsGenerationThreads) {
+		this.stubsGenerationThreads.set(stubsGenerationThreads);
+	}
+
+	public Property<Boolean> getGenerateStubBundle() {
+		return generateStubBundle;
+	}
+
+	public void setGenerateStubBundle(boolean generateStubBundle) {
+		this.generateStubBundle.set(generateStubBundle);
+	}
+
 	public Property<Boolean> getDeleteStubsAfterTest() {
 		return deleteStubsAfterTest;
 	}
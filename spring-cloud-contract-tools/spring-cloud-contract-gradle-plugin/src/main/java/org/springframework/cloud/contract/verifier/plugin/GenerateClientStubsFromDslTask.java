@@ -35,6 +35,7 @@ import org.gradle.api.tasks.CacheableTask;
 import org.gradle.api.tasks.Classpath;
 import org.gradle.api.tasks.Input;
 import org.gradle.api.tasks.InputDirectory;
+import org.gradle.api.tasks.Internal;
 import org.gradle.api.tasks.OutputDirectory;
 import org.gradle.api.tasks.PathSensitive;
 import org.gradle.api.tasks.PathSensitivity;
@@ -64,6 +65,10 @@ class GenerateClientStubsFromDslTask extends DefaultTask {
 
 	private final Property<Boolean> excludeBuildFolders;
 
+	private final Property<Integer> stubsGenerationThreads;
+
+	private final Property<Boolean> generateStubBundle;
+
 	private final ConfigurableFileCollection classpath;
 
 	private final DirectoryProperty stubsOutputDir;
@@ -80,6 +85,8 @@ class GenerateClientStubsFromDslTask extends DefaultTask {
 		contractsDslDir = objects.directoryProperty();
 		excludedFiles = objects.listProperty(String.class);
 		excludeBuildFolders = objects.property(Boolean.class);
+		stubsGenerationThreads = objects.property(Integer.class);
+		generateStubBundle = objects.property(Boolean.class);
 		classpath = objects.fileCollection();
 
 		stubsOutputDir = objects.directoryProperty();
@@ -102,7 +109,8 @@ class GenerateClientStubsFromDslTask extends DefaultTask {
 				exec.getMainClass().set("org.springframework.cloud.contract.verifier.converter.RecursiveFilesConverterApplication");
 				exec.classpath(classpath);
 				exec.args(quoteAndEscape(output.getAbsolutePath()), quoteAndEscape(contractsDslDir.get().getAsFile().getAbsolutePath()),
-						quoteAndEscape(StringUtils.collectionToCommaDelimitedString(excludedFiles.get())), quoteAndEscape(".*"), excludeBuildFolders.get());
+						quoteAndEscape(StringUtils.collectionToCommaDelimitedString(excludedFiles.get())), quoteAndEscape(".*"), excludeBuildFolders.get(),
+						stubsGenerationThreads.getOrElse(1), generateStubBundle.getOrElse(false));
 				exec.setStandardOutput(os);
 				exec.setErrorOutput(os);
 			});
@@ -132,6 +140,16 @@ class GenerateClientStubsFromDslTask extends DefaultTask {
 		return excludeBuildFolders;
 	}
 
+	@Internal
+	public Property<Integer> getStubsGenerationThreads() {
+		return stubsGenerationThreads;
+	}
+
+	@Input
+	public Property<Boolean> getGenerateStubBundle() {
+		return generateStubBundle;
+	}
+
 	@Classpath
 	public ConfigurableFileCollection getClasspath() {
 		return classpath;
@@ -340,6 +340,8 @@ public class SpringCloudContractVerifierGradlePlugin implements Plugin<Project>
 							.convention(copyContracts.flatMap(ContractsCopyTask::getCopiedContractsFolder));
 					generateClientStubs.getExcludedFiles().convention(extension.getExcludedFiles());
 					generateClientStubs.getExcludeBuildFolders().convention(extension.getExcludeBuildFolders());
+					generateClientStubs.getStubsGenerationThreads().convention(extension.getStubsGenerationThreads());
+					generateClientStubs.getGenerateStubBundle().convention(extension.getGenerateStubBundle());
 					generateClientStubs.getClasspath()
 							.from(project.getConfigurations().getByName(CONTRACT_TEST_GENERATOR_RUNTIME_CLASSPATH_CONFIGURATION_NAME));
 
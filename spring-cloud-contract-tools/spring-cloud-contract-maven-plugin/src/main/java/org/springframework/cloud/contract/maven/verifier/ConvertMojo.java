@@ -193,6 +193,13 @@ public class ConvertMojo extends AbstractMojo {
 	@Parameter(property = "incrementalContractStubs", defaultValue = "true")
 	private boolean incrementalContractStubs = true;
 
+	/**
+	 * Number of threads used to convert contracts into stubs. Stubs are always written
+	 * in the same order, regardless of the number of threads.
+	 */
+	@Parameter(property = "stubsGenerationThreads", defaultValue = "1")
+	private int stubsGenerationThreads = 1;
+
 	@Parameter(defaultValue = "${mojoExecution}", readonly = true, required = true)
 	private MojoExecution mojoExecution;
 
@@ -237,7 +244,7 @@ public class ConvertMojo extends AbstractMojo {
 		logSetup(config, contractsDslDir);
 		RecursiveFilesConverter converter = new RecursiveFilesConverter(config.getStubsOutputDir(),
 				config.getContractsDslDir(), config.getExcludedFiles(), config.getIncludedContracts(),
-				config.isExcludeBuildFolders());
+				config.isExcludeBuildFolders(), this.stubsGenerationThreads);
 		converter.processFiles();
 		leftOverPrevention.deleteLeftOvers();
 	}
@@ -17,9 +17,25 @@
 package org.springframework.cloud.contract.maven.verifier;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.apache.maven.execution.MavenSession;
 import org.apache.maven.plugin.AbstractMojo;
@@ -34,6 +50,14 @@ import org.apache.maven.project.MavenProject;
 import org.apache.maven.project.MavenProjectHelper;
 import org.codehaus.plexus.archiver.Archiver;
 import org.codehaus.plexus.archiver.jar.JarArchiver;
+import org.codehaus.plexus.archiver.util.DefaultFileSet;
+import org.codehaus.plexus.components.io.fileselectors.FileSelector;
+import org.codehaus.plexus.util.SelectorUtils;
+
+import org.springframework.cloud.contract.verifier.converter.StubBundleWriter;
+import org.springframework.cloud.contract.verifier.converter.StubIndex;
+import org.springframework.cloud.contract.verifier.wiremock.DslToWireMockClientConverter;
+import org.springframework.util.FileSystemUtils;
 
 import static org.springframework.cloud.contract.maven.verifier.ChangeDetector.inputFilesChangeDetected;
 
@@ -105,6 +129,49 @@ public class GenerateStubsMojo extends AbstractMojo {
 	@Parameter(property = "failOnNoContracts", defaultValue = "true")
 	private boolean failOnNoContracts;
 
+	/**
+	 * If set to {@code true} then all WireMock mappings of a directory are packaged as a
+	 * single, minified {@code {"mappings":[...]}} file instead of one file per contract.
+	 * This reduces the number of entries in the stubs jar and the time it takes to read
+	 * them on the consumer side.
+	 */
+	@Parameter(property = "aggregateMappings", defaultValue = "false")
+	private boolean aggregateMappings;
+
+	/**
+	 * If set to {@code true} then a stub bundle is added to the stubs jar for each stubs
+	 * root. The bundle is a single file with the minified mappings and the contract
+	 * sources, so that consumers don't need to walk the plain files. The mappings and
+	 * contracts are still parsed by the consumers. The plain files are still packaged
+	 * and used as a fallback.
+	 */
+	@Parameter(property = "generateStubBundle", defaultValue = "false")
+	private boolean generateStubBundle;
+
+	/**
+	 * If set to {@code true} then an index of the files of the stubs jar is stored under
+	 * {@code META-INF/spring-cloud-contract/stubs.idx}. Stub Runner uses it in the
+	 * {@code CLASSPATH} stubs mode to find the stubs without scanning the classpath.
+	 */
+	@Parameter(property = "generateStubIndex", defaultValue = "true")
+	private boolean generateStubIndex = true;
+
+	/**
+	 * If set to {@code false} then the entries of the stubs jar are stored without
+	 * compression. Stub jars consist mostly of small text files, so a stored jar is
+	 * produced and extracted faster at the cost of its size.
+	 */
+	@Parameter(property = "compressStubsJar", defaultValue = "true")
+	private boolean compressStubsJar = true;
+
+	/**
+	 * Timestamp for reproducible stubs jars, in ISO 8601 format or as seconds since the
+	 * epoch. When set, the entries of the stubs jar are sorted and get this timestamp and
+	 * normalized permissions, so that the same stubs always result in the same jar.
+	 */
+	@Parameter(defaultValue = "${project.build.outputTimestamp}")
+	private String outputTimestamp;
+
 	public void execute() throws MojoExecutionException, MojoFailureException {
 		if (this.skip || this.jarSkip) {
 			getLog().info("Skipping Spring Cloud Contract Verifier execution: spring.cloud.contract.verifier.skip="
@@ -140,9 +207,24 @@ public class GenerateStubsMojo extends AbstractMojo {
 		getLog().info(
 				"Files matching this pattern will be excluded from " + "stubs generation " + Arrays.toString(excludes));
 		try {
-			this.archiver.addDirectory(stubsOutputDir, new String[] { "**/*.*" },
-					excludedFilesEmpty() ? new String[0] : this.excludedFiles);
-			this.archiver.setCompress(true);
+			List<String> indexEntries = new ArrayList<>();
+			if (this.generateStubBundle) {
+				addStubBundles(stubsOutputDir, indexEntries);
+			}
+			Set<String> aggregatedMappings = this.aggregateMappings
+					? addAggregatedMappings(stubsOutputDir, excludes, indexEntries) : Collections.emptySet();
+			DefaultFileSet stubs = DefaultFileSet.fileSet(stubsOutputDir)
+				.includeExclude(new String[] { "**/*.*" }, excludes);
+			stubs.setFileSelectors(new FileSelector[] {
+					file -> !aggregatedMappings.contains(file.getName().replace(File.separatorChar, '/')) });
+			this.archiver.addFileSet(stubs);
+			if (this.generateStubIndex) {
+				indexEntries.addAll(packagedFiles(stubsOutputDir, excludes, aggregatedMappings));
+				addStubIndex(indexEntries);
+			}
+			this.archiver.setCompress(this.compressStubsJar);
+			parseOutputTimestamp(this.outputTimestamp).map(FileTime::from)
+				.ifPresent(this.archiver::configureReproducibleBuild);
 			this.archiver.setDestFile(stubsJarFile);
 			this.archiver.addConfiguredManifest(ManifestCreator.createManifest(this.project));
 			this.archiver.createArchive();
@@ -152,6 +234,124 @@ public class GenerateStubsMojo extends AbstractMojo {
 		}
 	}
 
+	private void addStubBundles(File stubsOutputDir, List<String> indexEntries) throws IOException {
+		File bundlesDir = new File(this.projectBuildDirectory, this.classifier + "-bundle");
+		FileSystemUtils.deleteRecursively(bundlesDir);
+		List<File> bundles = new StubBundleWriter().writeBundles(stubsOutputDir, bundlesDir);
+		if (!bundles.isEmpty()) {
+			getLog().info("Created stub bundles " + bundles);
+			this.archiver.addDirectory(bundlesDir, new String[] { "**/*.*" }, new String[0]);
+			indexEntries.addAll(packagedFiles(bundlesDir, new String[0], Collections.emptySet()));
+		}
+	}
+
+	private void addStubIndex(List<String> indexEntries) {
+		File indexDir = new File(this.projectBuildDirectory, this.classifier + "-index");
+		FileSystemUtils.deleteRecursively(indexDir);
+		File index = StubIndex.write(indexDir, indexEntries);
+		if (getLog().isDebugEnabled()) {
+			getLog().debug("Created stub index [" + index + "] with [" + indexEntries.size() + "] entries");
+		}
+		this.archiver.addDirectory(indexDir, new String[] { "**/*.*" }, new String[0]);
+	}
+
+	/**
+	 * Paths, relative to the directory, of the files that get packaged.
+	 */
+	private List<String> packagedFiles(File directory, String[] excludes, Set<String> skipped) throws IOException {
+		Path root = directory.toPath();
+		try (Stream<Path> paths = Files.walk(root)) {
+			return paths.filter(Files::isRegularFile)
+				.map(path -> relativePath(root, path))
+				.filter(relativePath -> SelectorUtils.matchPath("**/*.*", relativePath))
+				.filter(relativePath -> !skipped.contains(relativePath) && !excluded(relativePath, excludes))
+				.collect(Collectors.toList());
+		}
+	}
+
+	/**
+	 * Aggregates the mappings of each directory into a single file that gets added to the
+	 * archive. Returns the paths, relative to the stubs directory, of the aggregated
+	 * mapping files, which must not be packaged. They're looked up in a set, one exclude
+	 * pattern per mapping would make the packaging quadratic in the number of files.
+	 */
+	private Set<String> addAggregatedMappings(File stubsOutputDir, String[] excludes, List<String> indexEntries)
+			throws IOException {
+		DslToWireMockClientConverter converter = new DslToWireMockClientConverter();
+		Path root = stubsOutputDir.toPath();
+		Map<Path, List<File>> mappingsPerDirectory = new TreeMap<>();
+		try (Stream<Path> paths = Files.walk(root)) {
+			for (Path path : paths.filter(Files::isRegularFile).sorted().collect(Collectors.toList())) {
+				File file = path.toFile();
+				String relativePath = relativePath(root, path);
+				if (isWireMockMapping(relativePath) && !excluded(relativePath, excludes)
+						&& converter.canReadStubMapping(file)) {
+					mappingsPerDirectory.computeIfAbsent(root.relativize(path.getParent()), p -> new ArrayList<>())
+						.add(file);
+				}
+			}
+		}
+		if (mappingsPerDirectory.isEmpty()) {
+			return Collections.emptySet();
+		}
+		File aggregatedDir = new File(this.projectBuildDirectory, "aggregated-" + this.classifier);
+		FileSystemUtils.deleteRecursively(aggregatedDir);
+		Set<String> aggregatedMappings = new HashSet<>();
+		for (Map.Entry<Path, List<File>> entry : mappingsPerDirectory.entrySet()) {
+			Path aggregatedFile = aggregatedDir.toPath()
+				.resolve(entry.getKey())
+				.resolve(DslToWireMockClientConverter.AGGREGATED_MAPPINGS_FILE_NAME);
+			Files.createDirectories(aggregatedFile.getParent());
+			Files.write(aggregatedFile,
+					converter.aggregateMappings(entry.getValue()).getBytes(StandardCharsets.UTF_8));
+			for (File file : entry.getValue()) {
+				aggregatedMappings.add(relativePath(root, file.toPath()));
+			}
+			if (getLog().isDebugEnabled()) {
+				getLog().debug("Aggregated [" + entry.getValue().size() + "] mappings into [" + aggregatedFile + "]");
+			}
+		}
+		this.archiver.addDirectory(aggregatedDir, new String[] { "**/*.*" }, new String[0]);
+		indexEntries.addAll(packagedFiles(aggregatedDir, new String[0], Collections.emptySet()));
+		return aggregatedMappings;
+	}
+
+	private boolean isWireMockMapping(String relativePath) {
+		return relativePath.endsWith(".json")
+				&& !relativePath.endsWith(DslToWireMockClientConverter.AGGREGATED_MAPPINGS_FILE_NAME)
+				&& ("/" + relativePath).contains(ConvertMojo.MAPPINGS_PATH + "/");
+	}
+
+	private boolean excluded(String relativePath, String[] excludes) {
+		return Arrays.stream(excludes).anyMatch(pattern -> SelectorUtils.matchPath(pattern, relativePath));
+	}
+
+	private String relativePath(Path root, Path path) {
+		return root.relativize(path).toString().replace(File.separatorChar, '/');
+	}
+
+	/**
+	 * Parses the timestamp the way Maven does, without depending on maven-archiver, which
+	 * is not on the runtime classpath of the plugin. A single character value disables
+	 * reproducible builds.
+	 */
+	static Optional<Instant> parseOutputTimestamp(String outputTimestamp) {
+		if (outputTimestamp == null || outputTimestamp.trim().length() < 2) {
+			return Optional.empty();
+		}
+		String value = outputTimestamp.trim();
+		try {
+			if (value.chars().allMatch(Character::isDigit)) {
+				return Optional.of(Instant.ofEpochSecond(Long.parseLong(value)));
+			}
+			return Optional.of(OffsetDateTime.parse(value).toInstant());
+		}
+		catch (NumberFormatException | DateTimeParseException ex) {
+			throw new IllegalArgumentException("Invalid project.build.outputTimestamp value [" + outputTimestamp
+					+ "], expected an ISO 8601 date or seconds since the epoch", ex);
+		}
+	}
+
 	private boolean stubsOutputMissing(File stubsOutputDir) {
 		return !stubsOutputDir.exists();
 	}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2013-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.contract.maven.verifier;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+
+import org.apache.maven.api.plugin.testing.Basedir;
+import org.apache.maven.api.plugin.testing.InjectMojo;
+import org.apache.maven.api.plugin.testing.MojoExtension;
+import org.codehaus.plexus.archiver.jar.JarArchiver;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.assertj.core.api.BDDAssertions.thenThrownBy;
+
+class GenerateStubsMojoIntegrationTests extends AbstractProjectIntegrationTests {
+
+	@Test
+	@InjectMojo(goal = "generateStubs", pom = "pom.xml")
+	@Basedir("src/test/projects/generatedStubs")
+	void shouldCreateTheSameStubsJarWhenOutputTimestampIsSet(GenerateStubsMojo mojo) throws Exception {
+		Path targetDir = Path.of(MojoExtension.getBasedir(), "target");
+		Path mapping = targetDir.resolve("stubs/META-INF/com.example/sample/0.1/mappings/hello.json");
+		Files.createDirectories(mapping.getParent());
+		Files.writeString(mapping, "{\"request\":{\"method\":\"GET\",\"url\":\"/hello\"},\"response\":{\"status\":200}}");
+		setupBuildPaths(mojo, targetDir);
+		MojoExtension.setVariableValueToObject(mojo, "projectBuildDirectory", targetDir.toFile());
+		MojoExtension.setVariableValueToObject(mojo, "projectFinalName", "sample");
+		MojoExtension.setVariableValueToObject(mojo, "stubsDirectory", targetDir.resolve("stubs").toFile());
+		MojoExtension.setVariableValueToObject(mojo, "incrementalContractStubsJar", false);
+		MojoExtension.setVariableValueToObject(mojo, "outputTimestamp", "2024-01-01T00:00:00Z");
+		Path stubsJar = targetDir.resolve("sample-stubs.jar");
+
+		MojoExtension.setVariableValueToObject(mojo, "archiver", new JarArchiver());
+		mojo.execute();
+		byte[] first = Files.readAllBytes(stubsJar);
+		Files.setLastModifiedTime(mapping, FileTime.from(Instant.now().plusSeconds(3600)));
+		MojoExtension.setVariableValueToObject(mojo, "archiver", new JarArchiver());
+		mojo.execute();
+
+		then(Files.readAllBytes(stubsJar)).isEqualTo(first);
+	}
+
+	@Test
+	@Basedir("src/test/projects/generatedStubs")
+	void shouldParseOutputTimestamp() {
+		then(GenerateStubsMojo.parseOutputTimestamp(null)).isEmpty();
+		then(GenerateStubsMojo.parseOutputTimestamp("-")).isEmpty();
+		then(GenerateStubsMojo.parseOutputTimestamp("1704067200")).contains(Instant.parse("2024-01-01T00:00:00Z"));
+		then(GenerateStubsMojo.parseOutputTimestamp("2024-01-01T01:00:00+01:00"))
+			.contains(Instant.parse("2024-01-01T00:00:00Z"));
+		thenThrownBy(() -> GenerateStubsMojo.parseOutputTimestamp("yesterday"))
+			.isInstanceOf(IllegalArgumentException.class);
+	}
+
+}
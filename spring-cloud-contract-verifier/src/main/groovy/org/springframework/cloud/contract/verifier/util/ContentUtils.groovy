@@ -87,6 +87,10 @@ class ContentUtils {
 		}
 	}
 
+	private static final ContentTypeCache CLIENT_CONTENT_TYPE_CACHE = new ContentTypeCache()
+
+	private static final ContentTypeCache CONTENT_TYPE_FROM_CONTENT_CACHE = new ContentTypeCache()
+
 	private static final Pattern TEMPORARY_PATTERN_HOLDER = Pattern.
 			compile('.*REGEXP>>(.*)<<.*')
 	private static final Pattern TEMPORARY_EXECUTION_PATTERN_HOLDER = Pattern.
@@ -180,7 +184,19 @@ class ContentUtils {
 		}
 	}
 
+	/**
+	 * Guesses the {@link ContentType} of the body by trying to parse it. The result is
+	 * memoized per body instance, since the same body is inspected many times while
+	 * tests and stubs are generated.
+	 *
+	 * @param bodyAsValue - body to analyze
+	 * @return detected content type
+	 */
 	static ContentType getClientContentType(Object bodyAsValue) {
+		return CLIENT_CONTENT_TYPE_CACHE.computeIfAbsent(bodyAsValue, { Object body -> detectClientContentType(body) })
+	}
+
+	private static ContentType detectClientContentType(Object bodyAsValue) {
 		if (bodyAsValue instanceof GString) {
 			return getClientContentType((GString) bodyAsValue)
 		}
@@ -494,7 +510,18 @@ class ContentUtils {
 		return ContentType.TEXT
 	}
 
+	/**
+	 * Recognizes the {@link ContentType} from the content itself. The result is memoized
+	 * per body instance.
+	 *
+	 * @param object - body to analyze
+	 * @return recognized content type
+	 */
 	static ContentType recognizeContentTypeFromContent(Object object) {
+		return CONTENT_TYPE_FROM_CONTENT_CACHE.computeIfAbsent(object, { Object body -> doRecognizeContentTypeFromContent(body) })
+	}
+
+	private static ContentType doRecognizeContentTypeFromContent(Object object) {
 		if (object instanceof FromFileProperty) {
 			FromFileProperty property = (FromFileProperty) object;
 			if (property.isJson()) {
@@ -16,7 +16,9 @@
 
 package org.springframework.cloud.contract.verifier.converter;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.nio.charset.StandardCharsets;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
@@ -73,6 +75,17 @@ public class YamlContractConverter implements ContractConverter<List<YamlContrac
 		return this.yamlToContracts.convertFrom(file);
 	}
 
+	/**
+	 * Converts contracts stored as YAML in memory.
+	 * @param yaml YAML representation of the contracts
+	 * @param contractFile file from which the contracts originate, used to resolve files
+	 * referenced from the contracts
+	 * @return converted contracts
+	 */
+	public Collection<Contract> convertFrom(byte[] yaml, File contractFile) {
+		return this.yamlToContracts.convertFrom(new ByteArrayInputStream(yaml), contractFile);
+	}
+
 	@Override
 	public List<YamlContract> convertTo(Collection<Contract> contracts) {
 		return this.contractsToYaml.convertTo(contracts);
@@ -93,6 +106,26 @@ public class YamlContractConverter implements ContractConverter<List<YamlContrac
 		}
 	}
 
+	/**
+	 * Writes the contracts as a single, multi document YAML.
+	 * @param contracts contracts to write
+	 * @return YAML representation of the contracts
+	 */
+	public byte[] write(List<YamlContract> contracts) {
+		StringBuilder yaml = new StringBuilder();
+		for (YamlContract contract : contracts) {
+			String document = this.mapper.writeValueAsString(contract);
+			if (!document.startsWith("---")) {
+				yaml.append("---\n");
+			}
+			yaml.append(document);
+			if (!document.endsWith("\n")) {
+				yaml.append("\n");
+			}
+		}
+		return yaml.toString().getBytes(StandardCharsets.UTF_8);
+	}
+
 	protected String name(YamlContract contract) {
 		return StringUtils.defaultIfEmpty(contract.name, String.valueOf(Math.abs((contract.hashCode())))) + ".yml";
 	}
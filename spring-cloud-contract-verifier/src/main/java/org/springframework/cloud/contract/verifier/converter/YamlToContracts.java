@@ -19,6 +19,7 @@ package org.springframework.cloud.contract.verifier.converter;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URISyntaxException;
 import java.net.URL;
@@ -74,12 +75,25 @@ import static org.springframework.cloud.contract.verifier.util.ContentUtils.eval
 class YamlToContracts {
 
 	Collection<Contract> convertFrom(File contractFile) {
+		try {
+			return convertFrom(Files.newInputStream(contractFile.toPath()), contractFile);
+		}
+		catch (IOException e) {
+			throw new IllegalStateException("Exception occurred while processing the file [" + contractFile + "]", e);
+		}
+	}
+
+	/**
+	 * Converts the YAML read from the stream. The contract file is used to resolve the
+	 * files referenced from the contract and to name the contracts.
+	 */
+	Collection<Contract> convertFrom(InputStream yaml, File contractFile) {
 		ClassLoader classLoader = YamlContractConverter.class.getClassLoader();
 		YAMLMapper mapper = YAMLMapper.builder()
 			.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, true)
 			.build();
-		try {
-			Iterable<Object> iterables = new Yaml().loadAll(Files.newInputStream(contractFile.toPath()));
+		try (InputStream stream = yaml) {
+			Iterable<Object> iterables = new Yaml().loadAll(stream);
 			Collection<Contract> contracts = new ArrayList<>();
 			int counter = 0;
 			for (Object document : iterables) {
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2013-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.contract.verifier.util;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Memoizes the {@link ContentType} detected for a given body value. Detection parses
+ * the body as JSON and XML, which for big bodies is expensive, and the same body is
+ * inspected many times while tests and stubs are generated for a contract.
+ *
+ * Entries are keyed by the identity of the body value and are weakly referenced, so
+ * they are released together with the contract that holds the body.
+ *
+ * @author Marcin Grzejszczak
+ * @since 5.0.4
+ */
+final class ContentTypeCache {
+
+	private final Map<IdentityKey, ContentType> cache = new ConcurrentHashMap<>();
+
+	private final ReferenceQueue<Object> queue = new ReferenceQueue<>();
+
+	/**
+	 * Returns the cached {@link ContentType} for the given body or computes and stores
+	 * it.
+	 * @param body body value, {@code null} values are never cached
+	 * @param detector function used to detect the content type on a cache miss
+	 * @return detected content type
+	 */
+	ContentType computeIfAbsent(Object body, Function<Object, ContentType> detector) {
+		if (body == null) {
+			return detector.apply(null);
+		}
+		expungeStaleEntries();
+		ContentType cached = this.cache.get(new IdentityKey(body, null));
+		if (cached != null) {
+			return cached;
+		}
+		ContentType contentType = detector.apply(body);
+		if (contentType != null) {
+			this.cache.putIfAbsent(new IdentityKey(body, this.queue), contentType);
+		}
+		return contentType;
+	}
+
+	int size() {
+		expungeStaleEntries();
+		return this.cache.size();
+	}
+
+	void clear() {
+		this.cache.clear();
+	}
+
+	private void expungeStaleEntries() {
+		Reference<?> reference;
+		while ((reference = this.queue.poll()) != null) {
+			this.cache.remove(reference);
+		}
+	}
+
+	private static final class IdentityKey extends WeakReference<Object> {
+
+		private final int hash;
+
+		private IdentityKey(Object referent, ReferenceQueue<Object> queue) {
+			super(referent, queue);
+			this.hash = System.identityHashCode(referent);
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (!(o instanceof IdentityKey)) {
+				return false;
+			}
+			Object referent = get();
+			return referent != null && referent == ((IdentityKey) o).get();
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hash;
+		}
+
+	}
+
+}
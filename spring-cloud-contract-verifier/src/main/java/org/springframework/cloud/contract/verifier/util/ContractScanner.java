@@ -20,10 +20,19 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -66,27 +75,87 @@ public final class ContractScanner {
 	 * @return collection of converted contracts
 	 */
 	public static Collection<Contract> collectContractDescriptors(File rootDirectory, Predicate<File> predicate) {
-		try {
-			return Files.walk(rootDirectory.toPath())
-				.map(Path::toFile)
+		return collectContractDescriptors(rootDirectory, predicate, 1);
+	}
+
+	/**
+	 * Traverses through the directories, applies converters to files that match them and
+	 * converts the files to {@link Contract}. Filters out files not matching a predicate.
+	 * The files are converted in parallel, the contracts are returned in the order in
+	 * which the files were found.
+	 * @param rootDirectory - directory to traverse through
+	 * @param predicate - test applied against a file
+	 * @param threads - maximum number of threads converting the files
+	 * @return collection of converted contracts
+	 */
+	public static Collection<Contract> collectContractDescriptors(File rootDirectory, Predicate<File> predicate,
+			int threads) {
+		List<File> files;
+		try (Stream<Path> paths = Files.walk(rootDirectory.toPath())) {
+			files = paths.map(Path::toFile)
 				.filter(file -> !file.isDirectory())
 				.filter(predicate)
-				.map(ContractScanner::doCollectContractDescriptors)
-				.flatMap(Collection::stream)
 				.collect(Collectors.toList());
 		}
 		catch (IOException e) {
 			log.warn("Exception occurred while trying to parse file", e);
 			return Collections.emptyList();
 		}
+		int poolSize = Math.min(threads, files.size());
+		if (poolSize <= 1) {
+			List<ContractConverter<?>> converters = contractConverters();
+			return files.stream()
+				.map(file -> doCollectContractDescriptors(file, converters))
+				.flatMap(Collection::stream)
+				.collect(Collectors.toList());
+		}
+		if (log.isDebugEnabled()) {
+			log.debug("Will parse [" + files.size() + "] files using [" + poolSize + "] threads");
+		}
+		// converters may keep state, each thread gets its own instances
+		ThreadLocal<List<ContractConverter<?>>> converters = ThreadLocal
+			.withInitial(ContractScanner::contractConverters);
+		ExecutorService executorService = Executors.newFixedThreadPool(poolSize, new ContractParsingThreadFactory());
+		try {
+			List<Future<Collection<Contract>>> futures = new ArrayList<>();
+			for (File file : files) {
+				futures.add(executorService.submit(() -> doCollectContractDescriptors(file, converters.get())));
+			}
+			List<Contract> contracts = new ArrayList<>();
+			for (Future<Collection<Contract>> future : futures) {
+				contracts.addAll(future.get());
+			}
+			return contracts;
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while parsing contracts", ex);
+		}
+		catch (ExecutionException ex) {
+			if (ex.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) ex.getCause();
+			}
+			throw new IllegalStateException(ex.getCause());
+		}
+		finally {
+			executorService.shutdownNow();
+		}
+	}
+
+	private static List<ContractConverter<?>> contractConverters() {
+		return SpringFactoriesLoader.loadFactories(ContractConverter.class, null)
+			.stream()
+			.<ContractConverter<?>>map(converter -> converter)
+			.collect(Collectors.toList());
 	}
 
-	private static Collection<Contract> doCollectContractDescriptors(File file) {
+	private static Collection<Contract> doCollectContractDescriptors(File file,
+			List<ContractConverter<?>> converters) {
 		if (isContractDescriptor(file)) {
 			return ContractVerifierDslConverter.convertAsCollection(file.getParentFile(), file);
 		}
-		ContractConverter<?> converter = contractConverter(file);
-		if (converter != null && converter.isAccepted(file)) {
+		ContractConverter<?> converter = contractConverter(file, converters);
+		if (converter != null) {
 			return converter.convertFrom(file);
 		}
 		if (YamlContractConverter.INSTANCE.isAccepted(file)) {
@@ -95,16 +164,29 @@ public final class ContractScanner {
 		return Collections.emptyList();
 	}
 
-	private static ContractConverter<?> contractConverter(File file) {
-		return SpringFactoriesLoader.loadFactories(ContractConverter.class, null)
-			.stream()
-			.filter(converter -> converter.isAccepted(file))
-			.findFirst()
-			.orElse(null);
+	private static ContractConverter<?> contractConverter(File file, List<ContractConverter<?>> converters) {
+		return converters.stream().filter(converter -> converter.isAccepted(file)).findFirst().orElse(null);
 	}
 
 	private static boolean isContractDescriptor(File file) {
 		return ContractVerifierDslConverter.INSTANCE.isAccepted(file);
 	}
 
+	private static final class ContractParsingThreadFactory implements ThreadFactory {
+
+		private final AtomicInteger counter = new AtomicInteger();
+
+		// contract converters are looked up via the context class loader
+		private final ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "contract-parsing-" + this.counter.incrementAndGet());
+			thread.setDaemon(true);
+			thread.setContextClassLoader(this.classLoader);
+			return thread;
+		}
+
+	}
+
 }
@@ -18,6 +18,7 @@ package org.springframework.cloud.contract.verifier.util
 
 
 import org.springframework.cloud.contract.spec.internal.DslProperty
+import org.springframework.cloud.contract.spec.internal.FromFileProperty
 import spock.lang.Specification
 import org.xml.sax.helpers.DefaultHandler
 import groovy.xml.XmlSlurper
@@ -48,4 +49,56 @@ class ContentUtilsSpec extends Specification {
         expect:
         xmlSlurper.getErrorHandler() instanceof DefaultHandler
     }
+
+    def "should detect the client content type once per body instance"() {
+        given:
+        CountingBody body = new CountingBody()
+        when:
+        ContentType first = ContentUtils.getClientContentType((Object) body)
+        ContentType second = ContentUtils.getClientContentType((Object) body)
+        then:
+        first == ContentType.JSON
+        second == ContentType.JSON
+        body.reads == 1
+        when:
+        CountingBody otherBody = new CountingBody()
+        ContentUtils.getClientContentType((Object) otherBody)
+        then:
+        otherBody.reads == 1
+    }
+
+    def "should recognize the content type from content once per body instance"() {
+        given:
+        CountingFromFileProperty body = new CountingFromFileProperty()
+        when:
+        ContentType first = ContentUtils.recognizeContentTypeFromContent((Object) body)
+        ContentType second = ContentUtils.recognizeContentTypeFromContent((Object) body)
+        then:
+        first == ContentType.JSON
+        second == ContentType.JSON
+        body.checks == 1
+    }
+
+    static class CountingBody {
+        int reads
+
+        String getFoo() {
+            reads++
+            return "bar"
+        }
+    }
+
+    static class CountingFromFileProperty extends FromFileProperty {
+        int checks
+
+        CountingFromFileProperty() {
+            super(new File("body.json"), String)
+        }
+
+        @Override
+        boolean isJson() {
+            checks++
+            return true
+        }
+    }
 }